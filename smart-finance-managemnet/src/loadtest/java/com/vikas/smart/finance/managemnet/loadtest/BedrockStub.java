@@ -0,0 +1,94 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for Bedrock Runtime InvokeModel: answers every {@code POST /model/{id}/invoke} with a
+ * fixed Claude Messages response after a configurable delay, so AI endpoints are measured with a
+ * known model latency and no AWS account. Request signatures are not checked.
+ */
+final class BedrockStub implements AutoCloseable {
+
+	private static final String RESPONSE = """
+			{"id":"msg_loadtest","type":"message","role":"assistant","model":"stub",\
+			"content":[{"type":"text","text":"Your spending is within budget. Food is your largest category; \
+			consider a weekly limit to keep it in check."}],\
+			"stop_reason":"end_turn","usage":{"input_tokens":%d,"output_tokens":32}}""";
+
+	private final HttpServer server;
+	private final ExecutorService workers;
+	private final AtomicLong invocations = new AtomicLong();
+
+	private BedrockStub(HttpServer server, ExecutorService workers) {
+		this.server = server;
+		this.workers = workers;
+	}
+
+	/** The app admits at most finance.ai.max-concurrent calls at a time, so a modest pool never queues. */
+	static BedrockStub start(Duration latency) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		ExecutorService workers = Executors.newFixedThreadPool(64, r -> {
+			Thread thread = new Thread(r, "bedrock-stub");
+			thread.setDaemon(true);
+			return thread;
+		});
+		BedrockStub stub = new BedrockStub(server, workers);
+		server.createContext("/model/", exchange -> stub.invoke(exchange, latency));
+		server.setExecutor(workers);
+		server.start();
+		return stub;
+	}
+
+	URI endpoint() {
+		return URI.create("http://localhost:" + server.getAddress().getPort());
+	}
+
+	long invocations() {
+		return invocations.get();
+	}
+
+	private void invoke(HttpExchange exchange, Duration latency) throws IOException {
+		try (exchange) {
+			int requestBytes;
+			try (InputStream in = exchange.getRequestBody()) {
+				requestBytes = in.readAllBytes().length;
+			}
+			if (!"POST".equals(exchange.getRequestMethod()) || !exchange.getRequestURI().getPath().endsWith("/invoke")) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			invocations.incrementAndGet();
+			try {
+				Thread.sleep(latency.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			byte[] body = String.format(RESPONSE, requestBytes / 4).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		workers.shutdownNow();
+	}
+}
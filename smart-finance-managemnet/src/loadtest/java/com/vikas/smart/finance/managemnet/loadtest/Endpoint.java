@@ -0,0 +1,141 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Requests the load test can send, by the name used in {@code --mix}.
+ * Each builds one request for a given user with randomised but realistic parameters.
+ */
+enum Endpoint {
+
+	TRANSACTIONS_GET("transactions.get") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/api/transactions/" + userId);
+		}
+	},
+	TRANSACTIONS_POST("transactions.post") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			String body = String.format(Locale.ROOT,
+					"{\"userId\":\"%s\",\"vendor\":\"%s\",\"category\":\"%s\",\"amount\":%.2f,\"date\":\"%s\"}",
+					userId, SeedData.vendor(random), SeedData.category(random), SeedData.amount(random),
+					LocalDate.now().minusDays(random.nextInt(30)));
+			return post(base, "/api/transactions", body);
+		}
+	},
+	TRANSACTIONS_SUMMARY("transactions.summary") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			LocalDate to = LocalDate.now();
+			return get(base, "/api/transactions/" + userId + "/summary?groupBy=week&from=" + to.minusDays(90) + "&to=" + to);
+		}
+	},
+	BUDGETS_GET("budgets.get") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/api/budgets/" + userId);
+		}
+	},
+	BUDGETS_POST("budgets.post") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			String body = String.format(Locale.ROOT, "{\"userId\":\"%s\",\"category\":\"%s\",\"amount\":%d}",
+					userId, SeedData.category(random), 200 + random.nextInt(20) * 50);
+			return post(base, "/api/budgets", body);
+		}
+	},
+	BUDGETS_FORECAST("budgets.forecast") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/api/budgets/forecast/" + userId);
+		}
+	},
+	BUDGETS_SUGGESTIONS("budgets.suggestions") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/api/budgets/suggestions/" + userId);
+		}
+	},
+	INSIGHTS_GET("insights.get") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/api/insights/" + userId);
+		}
+	},
+	AI_CHAT("ai.chat") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			String prompt = SeedData.QUESTIONS[random.nextInt(SeedData.QUESTIONS.length)];
+			return get(base, "/ai/chat?userId=" + userId + "&prompt=" + URLEncoder.encode(prompt, StandardCharsets.UTF_8));
+		}
+	},
+	AI_ADVISOR("ai.advisor") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			String question = SeedData.QUESTIONS[random.nextInt(SeedData.QUESTIONS.length)];
+			return post(base, "/ai/advisor", "{\"userId\":\"" + userId + "\",\"question\":\"" + question + "\"}");
+		}
+	},
+	AI_ANALYZE("ai.analyze") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/ai/analyze/spending/" + userId);
+		}
+	},
+	AI_RECOMMEND("ai.recommend") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/ai/recommend/budget/" + userId);
+		}
+	},
+	AI_HEALTH_REPORT("ai.health-report") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/ai/health-report/" + userId);
+		}
+	},
+	AI_TRENDS("ai.trends") {
+		@Override
+		HttpRequest.Builder build(URI base, String userId, Random random) {
+			return get(base, "/ai/trends/" + userId);
+		}
+	};
+
+	private final String name;
+
+	Endpoint(String name) {
+		this.name = name;
+	}
+
+	String endpointName() {
+		return name;
+	}
+
+	abstract HttpRequest.Builder build(URI base, String userId, Random random);
+
+	static Endpoint byName(String name) {
+		return Arrays.stream(values())
+				.filter(e -> e.name.equals(name))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown endpoint '" + name + "', expected one of "
+						+ Arrays.stream(values()).map(e -> e.name).toList()));
+	}
+
+	private static HttpRequest.Builder get(URI base, String path) {
+		return HttpRequest.newBuilder(base.resolve(path)).GET();
+	}
+
+	private static HttpRequest.Builder post(URI base, String path, String json) {
+		return HttpRequest.newBuilder(base.resolve(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+	}
+}
@@ -0,0 +1,75 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (microseconds) and outcomes of one endpoint's measured requests; safe to record from
+ * any thread.
+ */
+final class EndpointStats {
+
+	private final String endpoint;
+	private final double targetRate;
+	private final Recorder latencies = new Recorder(3);
+	private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private Histogram histogram;
+
+	EndpointStats(String endpoint, double targetRate) {
+		this.endpoint = endpoint;
+		this.targetRate = targetRate;
+	}
+
+	String endpoint() {
+		return endpoint;
+	}
+
+	double targetRate() {
+		return targetRate;
+	}
+
+	void sent() {
+		sent.increment();
+	}
+
+	/** @param status HTTP status, or -1 if the request failed without a response */
+	void record(long latencyNanos, int status, boolean measured) {
+		if (measured) {
+			latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+			outcomes.computeIfAbsent(outcome(status), k -> new LongAdder()).increment();
+		}
+		completed.increment();
+	}
+
+	/** Sent but not yet answered, measured or not. */
+	long inFlight() {
+		return sent.sum() - completed.sum();
+	}
+
+	/** The measured latencies; taken once, after the run. */
+	synchronized Histogram histogram() {
+		if (histogram == null) histogram = latencies.getIntervalHistogram();
+		return histogram;
+	}
+
+	Map<String, Long> outcomes() {
+		Map<String, Long> counts = new TreeMap<>();
+		outcomes.forEach((k, v) -> counts.put(k, v.sum()));
+		return counts;
+	}
+
+	/** 429 (admission refused) and 503 (write-behind backpressure) kept apart from other failures */
+	private static String outcome(int status) {
+		if (status < 0) return "error";
+		if (status == 429 || status == 503) return String.valueOf(status);
+		return (status / 100) + "xx";
+	}
+}
@@ -0,0 +1,97 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One run's results as JSON, named by label and start time so runs can be kept side by side and
+ * compared. Latencies are in milliseconds, throughput in completed requests per second of the
+ * measured window.
+ */
+final class LoadReport {
+
+	private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+	private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p999"};
+
+	private LoadReport() {}
+
+	static Path write(LoadTestOptions options, Instant startedAt, Map<Endpoint, EndpointStats> results,
+	                  long bedrockInvocations) throws IOException {
+		Map<String, Object> run = new LinkedHashMap<>();
+		run.put("label", options.label);
+		run.put("startedAt", startedAt.toString());
+		run.put("durationSeconds", options.duration.toSeconds());
+		run.put("warmupSeconds", options.warmup.toSeconds());
+		run.put("users", options.users);
+		run.put("transactionsPerUser", options.transactionsPerUser);
+		run.put("bedrockLatencyMs", options.bedrockLatency.toMillis());
+		run.put("mix", options.mix);
+		run.put("properties", options.properties);
+		run.put("javaVersion", Runtime.version().toString());
+		run.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		results.values().forEach(stats -> endpoints.put(stats.endpoint(), summary(stats, options.duration.toNanos() / 1e9)));
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("run", run);
+		report.put("endpoints", endpoints);
+		report.put("bedrockInvocations", bedrockInvocations);
+
+		Files.createDirectories(options.outputDir);
+		Path file = options.outputDir.resolve("loadtest-" + options.label + "-" + FILE_TIME.format(startedAt) + ".json");
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+		return file;
+	}
+
+	static void print(Map<Endpoint, EndpointStats> results, LoadTestOptions options, PrintStream out) {
+		double seconds = options.duration.toNanos() / 1e9;
+		out.printf("%-22s %8s %8s %9s %9s %9s %9s %9s  %s%n",
+				"endpoint", "target/s", "actual/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+		for (EndpointStats stats : results.values()) {
+			Histogram h = stats.histogram();
+			out.printf("%-22s %8.1f %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+					stats.endpoint(), stats.targetRate(), h.getTotalCount() / seconds,
+					millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+					millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+					millis(h.getMaxValue()), stats.outcomes());
+		}
+	}
+
+	private static Map<String, Object> summary(EndpointStats stats, double seconds) {
+		Histogram h = stats.histogram();
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("targetRate", stats.targetRate());
+		summary.put("requests", h.getTotalCount());
+		summary.put("throughput", round(h.getTotalCount() / seconds));
+		Map<String, Object> latency = new LinkedHashMap<>();
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			latency.put(PERCENTILE_KEYS[i], millis(h.getValueAtPercentile(PERCENTILES[i])));
+		}
+		latency.put("max", millis(h.getMaxValue()));
+		latency.put("mean", round(h.getMean() / 1000));
+		summary.put("latencyMs", latency);
+		summary.put("outcomes", stats.outcomes());
+		return summary;
+	}
+
+	private static double millis(long micros) {
+		return round(micros / 1000.0);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 1000) / 1000.0;
+	}
+}
@@ -0,0 +1,110 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link LoadTestRunner}, all given as {@code --name=value}:
+ * <pre>
+ *   --mix=transactions.get:40,budgets.get:20,ai.chat:2   requests/second per endpoint (see {@link Endpoint})
+ *   --duration=60s --warmup=10s                           measured time, and unmeasured time before it
+ *   --users=50 --transactions-per-user=200                seeded data; requests pick a user at random
+ *   --bedrock-latency=800ms                               delay of the stubbed Bedrock endpoint
+ *   --dynamodb-endpoint=http://localhost:8000             use a running DynamoDB Local instead of the embedded one
+ *   --label=baseline                                      stored in the report, to tell runs apart
+ *   --set=finance.ingest.write-behind=true                application property, repeatable
+ *   --output-dir=target/loadtest
+ * </pre>
+ */
+final class LoadTestOptions {
+
+	static final Map<String, Double> DEFAULT_MIX = Map.of(
+			"transactions.get", 40.0,
+			"transactions.post", 20.0,
+			"transactions.summary", 10.0,
+			"budgets.get", 20.0,
+			"budgets.forecast", 5.0,
+			"insights.get", 20.0,
+			"ai.chat", 2.0,
+			"ai.health-report", 1.0);
+
+	/** AI admission limits are per user and minute; raised so the run measures the service, not the buckets */
+	static final Map<String, String> DEFAULT_PROPERTIES = Map.of(
+			"finance.ai.chat.capacity", "100000",
+			"finance.ai.chat.refill-per-minute", "100000",
+			"finance.ai.analysis.capacity", "100000",
+			"finance.ai.analysis.refill-per-minute", "100000",
+			"finance.ai.report.capacity", "100000",
+			"finance.ai.report.refill-per-minute", "100000",
+			"finance.ai.max-queued-per-user", "1000");
+
+	Map<String, Double> mix = new LinkedHashMap<>(DEFAULT_MIX);
+	Duration duration = Duration.ofSeconds(60);
+	Duration warmup = Duration.ofSeconds(10);
+	Duration requestTimeout = Duration.ofSeconds(30);
+	int users = 50;
+	int transactionsPerUser = 200;
+	Duration bedrockLatency = Duration.ofMillis(800);
+	String dynamoDbEndpoint;
+	String label = "default";
+	Path outputDir = Path.of("target", "loadtest");
+	Map<String, String> properties = new LinkedHashMap<>(DEFAULT_PROPERTIES);
+
+	static LoadTestOptions parse(String[] args) {
+		LoadTestOptions options = new LoadTestOptions();
+		for (String arg : args) {
+			if (arg.isBlank()) continue;
+			int eq = arg.indexOf('=');
+			if (!arg.startsWith("--") || eq < 0) {
+				throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+			}
+			String name = arg.substring(2, eq);
+			String value = arg.substring(eq + 1);
+			switch (name) {
+				case "mix" -> options.mix = parseMix(value);
+				case "duration" -> options.duration = parseDuration(value);
+				case "warmup" -> options.warmup = parseDuration(value);
+				case "request-timeout" -> options.requestTimeout = parseDuration(value);
+				case "users" -> options.users = Integer.parseInt(value);
+				case "transactions-per-user" -> options.transactionsPerUser = Integer.parseInt(value);
+				case "bedrock-latency" -> options.bedrockLatency = parseDuration(value);
+				case "dynamodb-endpoint" -> options.dynamoDbEndpoint = value;
+				case "label" -> options.label = value;
+				case "output-dir" -> options.outputDir = Path.of(value);
+				case "set" -> {
+					int sep = value.indexOf('=');
+					if (sep < 1) throw new IllegalArgumentException("--set expects property=value, got: " + value);
+					options.properties.put(value.substring(0, sep), value.substring(sep + 1));
+				}
+				default -> throw new IllegalArgumentException("Unknown option: --" + name);
+			}
+		}
+		if (options.users < 1) throw new IllegalArgumentException("--users must be at least 1");
+		return options;
+	}
+
+	/** {@code endpoint:rate,...}; every endpoint must be known to {@link Endpoint} */
+	static Map<String, Double> parseMix(String value) {
+		Map<String, Double> mix = new LinkedHashMap<>();
+		for (String part : value.split(",")) {
+			String[] pair = part.trim().split(":");
+			if (pair.length != 2) throw new IllegalArgumentException("--mix expects endpoint:rate, got: " + part);
+			Endpoint.byName(pair[0]);
+			double rate = Double.parseDouble(pair[1]);
+			if (rate <= 0) throw new IllegalArgumentException("Rate must be positive for " + pair[0]);
+			mix.put(pair[0], rate);
+		}
+		return mix;
+	}
+
+	/** 250ms, 30s, 2m or an ISO-8601 duration */
+	static Duration parseDuration(String value) {
+		String v = value.trim().toLowerCase();
+		if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+		if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+		if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+		return Duration.parse(value);
+	}
+}
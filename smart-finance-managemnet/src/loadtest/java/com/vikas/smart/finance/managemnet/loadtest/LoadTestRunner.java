@@ -0,0 +1,86 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import com.vikas.smart.finance.managemnet.SmartFinanceManagemnetApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end HTTP load test: seeds DynamoDB Local, boots the application against it and a stubbed
+ * Bedrock endpoint, drives the request mix at fixed arrival rates and writes a JSON report.
+ * Run with {@code ./mvnw -Ploadtest verify}; options are described in {@link LoadTestOptions}.
+ */
+public final class LoadTestRunner {
+
+	private static final Duration READY_TIMEOUT = Duration.ofSeconds(60);
+
+	private LoadTestRunner() {}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestOptions options = LoadTestOptions.parse(args);
+		try (LocalDynamoDb dynamoDb = LocalDynamoDb.start(options.dynamoDbEndpoint);
+		     BedrockStub bedrock = BedrockStub.start(options.bedrockLatency)) {
+			System.out.printf("DynamoDB Local at %s, Bedrock stub at %s%n", dynamoDb.endpoint(), bedrock.endpoint());
+			dynamoDb.createTables();
+			System.out.printf("Seeding %d users x %d transactions%n", options.users, options.transactionsPerUser);
+			SeedData.write(dynamoDb.enhancedClient(), options.users, options.transactionsPerUser);
+
+			try (ConfigurableApplicationContext app = boot(options, dynamoDb.endpoint(), bedrock.endpoint())) {
+				int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+				URI base = URI.create("http://localhost:" + port);
+				awaitReady(base);
+
+				System.out.printf("Driving %s for %ds after %ds warmup%n", options.mix,
+						options.duration.toSeconds(), options.warmup.toSeconds());
+				Instant startedAt = Instant.now();
+				Map<Endpoint, EndpointStats> results = new OpenLoopDriver(base, options).run();
+
+				LoadReport.print(results, options, System.out);
+				Path report = LoadReport.write(options, startedAt, results, bedrock.invocations());
+				System.out.println("Report written to " + report.toAbsolutePath());
+			}
+		}
+		// DynamoDB Local leaves non-daemon threads behind
+		System.exit(0);
+	}
+
+	/** Command-line arguments take precedence over application.properties, so --set always wins. */
+	private static ConfigurableApplicationContext boot(LoadTestOptions options, URI dynamoDb, URI bedrock) {
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("server.port", "0");
+		properties.put("aws.access-key-id", LocalDynamoDb.ACCESS_KEY);
+		properties.put("aws.secret-key", LocalDynamoDb.SECRET_KEY);
+		properties.put("aws.region", LocalDynamoDb.REGION);
+		properties.put("aws.dynamodb.endpoint-override", dynamoDb.toString());
+		properties.put("aws.bedrock.endpoint-override", bedrock.toString());
+		properties.putAll(options.properties);
+
+		List<String> args = new ArrayList<>();
+		properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+		return SpringApplication.run(SmartFinanceManagemnetApplication.class, args.toArray(String[]::new));
+	}
+
+	/** The readiness group includes the background startup phase (table checks, warm-up). */
+	private static void awaitReady(URI base) throws Exception {
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest request = HttpRequest.newBuilder(base.resolve("/actuator/health/readiness")).GET().build();
+		long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+			Thread.sleep(250);
+		}
+		throw new IllegalStateException("Application not ready after " + READY_TIMEOUT.toSeconds() + "s");
+	}
+}
@@ -0,0 +1,95 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import com.amazonaws.services.dynamodbv2.local.main.ServerRunner;
+import com.amazonaws.services.dynamodbv2.local.server.DynamoDBProxyServer;
+import com.vikas.smart.finance.managemnet.model.ArchiveLease;
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.DataVersion;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.UserShardLayout;
+import com.vikas.smart.finance.managemnet.model.VendorRecurrence;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * DynamoDB Local, embedded in-memory on a free port unless an endpoint is given, with the app's tables.
+ */
+final class LocalDynamoDb implements AutoCloseable {
+
+	static final String ACCESS_KEY = "loadtest";
+	static final String SECRET_KEY = "loadtest";
+	static final String REGION = "us-east-1";
+
+	/** Table name to bean; must match the names the services open */
+	private static final Map<String, Class<?>> TABLES = Map.of(
+			"Transaction", Transaction.class,
+			"Budget", Budget.class,
+			"InsightV2", Insight.class,
+			"VendorRecurrence", VendorRecurrence.class,
+			"TransactionShards", UserShardLayout.class,
+			"ArchiveLease", ArchiveLease.class,
+			"DataVersion", DataVersion.class);
+
+	private final DynamoDBProxyServer server;
+	private final URI endpoint;
+	private final DynamoDbClient client;
+
+	private LocalDynamoDb(DynamoDBProxyServer server, URI endpoint) {
+		this.server = server;
+		this.endpoint = endpoint;
+		this.client = DynamoDbClient.builder()
+				.endpointOverride(endpoint)
+				.region(Region.of(REGION))
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(ACCESS_KEY, SECRET_KEY)))
+				.build();
+	}
+
+	static LocalDynamoDb start(String externalEndpoint) throws Exception {
+		if (externalEndpoint != null) return new LocalDynamoDb(null, URI.create(externalEndpoint));
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		DynamoDBProxyServer server = ServerRunner.createServerFromCommandLineArgs(
+				new String[]{"-inMemory", "-port", String.valueOf(port)});
+		server.start();
+		return new LocalDynamoDb(server, URI.create("http://localhost:" + port));
+	}
+
+	URI endpoint() {
+		return endpoint;
+	}
+
+	DynamoDbEnhancedClient enhancedClient() {
+		return DynamoDbEnhancedClient.builder().dynamoDbClient(client).build();
+	}
+
+	/** Create every table the app uses; existing ones (on an external instance) are kept. */
+	void createTables() {
+		DynamoDbEnhancedClient enhanced = enhancedClient();
+		TABLES.forEach((name, bean) -> {
+			try {
+				enhanced.table(name, TableSchema.fromBean(bean)).createTable();
+				client.waiter().waitUntilTableExists(r -> r.tableName(name));
+			} catch (ResourceInUseException e) {
+				// Already there
+			}
+		});
+	}
+
+	@Override
+	public void close() throws Exception {
+		client.close();
+		if (server != null) server.stop();
+	}
+}
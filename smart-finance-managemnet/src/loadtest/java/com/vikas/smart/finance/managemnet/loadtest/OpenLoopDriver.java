@@ -0,0 +1,85 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends each endpoint's requests at a fixed arrival rate whatever the response times (an open
+ * loop), one dispatcher thread per endpoint. Latency is taken from the moment a request was due,
+ * not the moment it went out, so a stalled server shows up in the percentiles instead of quietly
+ * lowering the request rate (coordinated omission). Requests due during the warmup are sent but
+ * not measured.
+ */
+final class OpenLoopDriver {
+
+	private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final URI base;
+	private final LoadTestOptions options;
+	private final HttpClient client;
+
+	OpenLoopDriver(URI base, LoadTestOptions options) {
+		this.base = base;
+		this.options = options;
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+	}
+
+	Map<Endpoint, EndpointStats> run() throws InterruptedException {
+		long start = System.nanoTime() + START_DELAY_NANOS;
+		long measureFrom = start + options.warmup.toNanos();
+		long end = measureFrom + options.duration.toNanos();
+
+		Map<Endpoint, EndpointStats> stats = new LinkedHashMap<>();
+		List<Thread> dispatchers = new ArrayList<>();
+		options.mix.forEach((name, rate) -> {
+			Endpoint endpoint = Endpoint.byName(name);
+			EndpointStats endpointStats = new EndpointStats(name, rate);
+			stats.put(endpoint, endpointStats);
+			dispatchers.add(new Thread(() -> dispatch(endpoint, rate, endpointStats, start, measureFrom, end),
+					"loadtest-" + name));
+		});
+		dispatchers.forEach(Thread::start);
+		for (Thread dispatcher : dispatchers) dispatcher.join();
+
+		// Let the last requests finish; anything still out after the timeout has failed anyway
+		long deadline = System.nanoTime() + options.requestTimeout.toNanos();
+		while (stats.values().stream().anyMatch(s -> s.inFlight() > 0) && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		return stats;
+	}
+
+	private void dispatch(Endpoint endpoint, double rate, EndpointStats stats, long start, long measureFrom, long end) {
+		double interval = 1e9 / rate;
+		Random random = new Random(endpoint.ordinal());
+		for (long i = 0; ; i++) {
+			long due = start + (long) (i * interval);
+			if (due >= end) break;
+			long wait = due - System.nanoTime();
+			if (wait > 0) LockSupport.parkNanos(wait);
+
+			boolean measured = due >= measureFrom;
+			String userId = SeedData.userId(random.nextInt(options.users));
+			HttpRequest request = endpoint.build(base, userId, random)
+					.timeout(options.requestTimeout)
+					.build();
+			stats.sent();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> stats.record(System.nanoTime() - due,
+							response != null ? response.statusCode() : -1, measured));
+		}
+	}
+}
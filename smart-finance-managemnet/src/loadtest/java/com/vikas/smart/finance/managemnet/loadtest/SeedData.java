@@ -0,0 +1,85 @@
+package com.vikas.smart.finance.managemnet.loadtest;
+
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Users, transactions and budgets written before the run, and the values requests draw from.
+ */
+final class SeedData {
+
+	static final String[] CATEGORIES = {"Food", "Transport", "Shopping", "Entertainment", "Utilities", "Rent", "Health"};
+	static final String[] VENDORS = {"Swiggy", "Zomato", "Uber", "Ola", "Amazon", "Flipkart", "Netflix", "Spotify",
+			"Airtel", "BESCOM", "Apollo Pharmacy", "BigBasket", "PVR", "Landlord"};
+	static final String[] QUESTIONS = {
+			"How much did I spend on food last month?",
+			"Where can I cut back this month?",
+			"Am I on track with my budgets?",
+			"What are my biggest recurring charges?"};
+
+	private static final int BATCH = 25;
+
+	private SeedData() {}
+
+	static String userId(int index) {
+		return "loadtest-user-" + index;
+	}
+
+	static String category(Random random) {
+		return CATEGORIES[random.nextInt(CATEGORIES.length)];
+	}
+
+	static String vendor(Random random) {
+		return VENDORS[random.nextInt(VENDORS.length)];
+	}
+
+	static double amount(Random random) {
+		return Math.round((5 + random.nextDouble() * random.nextDouble() * 500) * 100) / 100.0;
+	}
+
+	/** A fixed seed, so every run starts from the same data. */
+	static void write(DynamoDbEnhancedClient client, int users, int transactionsPerUser) {
+		DynamoDbTable<Transaction> transactions = client.table("Transaction", TableSchema.fromBean(Transaction.class));
+		DynamoDbTable<Budget> budgets = client.table("Budget", TableSchema.fromBean(Budget.class));
+		Random random = new Random(42);
+		LocalDate today = LocalDate.now();
+
+		for (int u = 0; u < users; u++) {
+			String userId = userId(u);
+			List<Transaction> rows = new ArrayList<>(transactionsPerUser);
+			for (int i = 0; i < transactionsPerUser; i++) {
+				Transaction t = new Transaction();
+				t.setUserId(userId);
+				t.setTransactionId(new UUID(random.nextLong(), random.nextLong()).toString());
+				t.setVendor(vendor(random));
+				t.setCategory(category(random));
+				t.setAmount(amount(random));
+				t.setDate(today.minusDays(random.nextInt(365)));
+				rows.add(t);
+			}
+			for (int start = 0; start < rows.size(); start += BATCH) {
+				WriteBatch.Builder<Transaction> batch = WriteBatch.builder(Transaction.class).mappedTableResource(transactions);
+				rows.subList(start, Math.min(start + BATCH, rows.size())).forEach(batch::addPutItem);
+				client.batchWriteItem(r -> r.addWriteBatch(batch.build()));
+			}
+			for (String category : CATEGORIES) {
+				Budget budget = new Budget();
+				budget.setUserId(userId);
+				budget.setCategory(category);
+				budget.setAmount(200 + random.nextInt(20) * 50);
+				budget.setLastUpdated(today);
+				budgets.putItem(budget);
+			}
+		}
+	}
+}
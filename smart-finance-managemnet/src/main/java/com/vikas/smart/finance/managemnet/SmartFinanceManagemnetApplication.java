@@ -1,9 +1,12 @@
 package com.vikas.smart.finance.managemnet;
 
+import com.vikas.smart.finance.managemnet.config.FinanceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(FinanceRuntimeHints.class)
 
 public class SmartFinanceManagemnetApplication {
 
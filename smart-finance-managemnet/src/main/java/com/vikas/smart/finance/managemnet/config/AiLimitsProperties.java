@@ -0,0 +1,128 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user admission and Bedrock scheduling limits (finance.ai.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "finance.ai")
+public class AiLimitsProperties {
+
+    /** finance.ai.chat.* ; /ai/chat and /ai/advisor */
+    private Bucket chat = new Bucket(5, 10);
+
+    /** finance.ai.analysis.* ; /ai/analyze/spending and /ai/recommend/budget */
+    private Bucket analysis = new Bucket(3, 4);
+
+    /** finance.ai.report.* ; /ai/health-report */
+    private Bucket report = new Bucket(2, 2);
+
+    private int maxConcurrent = 8;                         // Bedrock calls in flight on this node
+    private int maxQueued = 200;
+    private int maxQueuedPerUser = 4;
+    private Duration maxQueueWait = Duration.ofSeconds(20);
+    private Map<String, Integer> userWeights = new HashMap<>();   // turns per round; unlisted users get 1
+
+    public Bucket getChat() {
+        return chat;
+    }
+
+    public void setChat(Bucket chat) {
+        this.chat = chat;
+    }
+
+    public Bucket getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(Bucket analysis) {
+        this.analysis = analysis;
+    }
+
+    public Bucket getReport() {
+        return report;
+    }
+
+    public void setReport(Bucket report) {
+        this.report = report;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public int getMaxQueuedPerUser() {
+        return maxQueuedPerUser;
+    }
+
+    public void setMaxQueuedPerUser(int maxQueuedPerUser) {
+        this.maxQueuedPerUser = maxQueuedPerUser;
+    }
+
+    public Duration getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    public void setMaxQueueWait(Duration maxQueueWait) {
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    public Map<String, Integer> getUserWeights() {
+        return userWeights;
+    }
+
+    public void setUserWeights(Map<String, Integer> userWeights) {
+        this.userWeights = userWeights;
+    }
+
+    /**
+     * Token bucket: bursts of up to {@code capacity} calls, refilled continuously.
+     */
+    public static class Bucket {
+
+        private int capacity;
+        private double refillPerMinute;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, double refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerMinute() {
+            return refillPerMinute;
+        }
+
+        public void setRefillPerMinute(double refillPerMinute) {
+            this.refillPerMinute = refillPerMinute;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cold archive tier for old transactions (finance.archive.*).
+ * With a node-local dir the archive is only valid for a single instance, and startup is refused
+ * while another instance is running. Several instances need shared-dir=true on a volume they all
+ * mount; one of them at a time then sweeps, under a DynamoDB lease. Every instance needs the
+ * same finance.archive settings.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "finance.archive")
+public class ArchiveProperties {
+
+    /** Run the archiving sweep; existing segments are read either way */
+    private boolean enabled = false;
+
+    private String dir = "data/archive";
+    private boolean sharedDir = false;                 // dir is a volume every instance mounts
+    private Duration leaseTtl = Duration.ofMinutes(2); // instance heartbeats and the sweeper lease lapse after this
+    private int hotDays = 365;                         // transactions dated within this many days stay in DynamoDB
+    private int minRows = 500;                         // smaller batches wait for the next sweep
+    private Duration sweepInterval = Duration.ofHours(6);
+    private int maxUsersPerSweep = 200;
+    private int maxScannedPerSweep = 200_000;
+    private int maxCachedUsers = 1_000;                // users whose segments stay memory-mapped
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    public void setDir(String dir) {
+        this.dir = dir;
+    }
+
+    public boolean isSharedDir() {
+        return sharedDir;
+    }
+
+    public void setSharedDir(boolean sharedDir) {
+        this.sharedDir = sharedDir;
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    public void setLeaseTtl(Duration leaseTtl) {
+        this.leaseTtl = leaseTtl;
+    }
+
+    public int getHotDays() {
+        return hotDays;
+    }
+
+    public void setHotDays(int hotDays) {
+        this.hotDays = hotDays;
+    }
+
+    public int getMinRows() {
+        return minRows;
+    }
+
+    public void setMinRows(int minRows) {
+        this.minRows = minRows;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public int getMaxUsersPerSweep() {
+        return maxUsersPerSweep;
+    }
+
+    public void setMaxUsersPerSweep(int maxUsersPerSweep) {
+        this.maxUsersPerSweep = maxUsersPerSweep;
+    }
+
+    public int getMaxScannedPerSweep() {
+        return maxScannedPerSweep;
+    }
+
+    public void setMaxScannedPerSweep(int maxScannedPerSweep) {
+        this.maxScannedPerSweep = maxScannedPerSweep;
+    }
+
+    public int getMaxCachedUsers() {
+        return maxCachedUsers;
+    }
+
+    public void setMaxCachedUsers(int maxCachedUsers) {
+        this.maxCachedUsers = maxCachedUsers;
+    }
+}
@@ -1,17 +1,33 @@
 package com.vikas.smart.finance.managemnet.config;
 
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 
+import java.time.Duration;
+import java.util.function.Consumer;
+
 @Configuration
 public class AwsConfig {
 
+    private static final String DEFAULT_DYNAMODB_REGION = "eu-north-1";
+
     private final AwsProperties awsProperties;
 
     public AwsConfig(AwsProperties awsProperties) {
@@ -19,17 +35,14 @@ public class AwsConfig {
     }
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
-        return DynamoDbClient.builder()
-                .region(Region.EU_NORTH_1)  // Your DynamoDB region
-                .credentialsProvider(
-                        StaticCredentialsProvider.create(
-                                AwsBasicCredentials.create(
-                                        awsProperties.getAccessKeyId(),
-                                        awsProperties.getSecretKey()
-                                )
-                        )
-                )
+    public DynamoDbClient dynamoDbClient(FinanceMetrics metrics) {
+        AwsProperties.Client profile = awsProperties.getDynamodb();
+        String region = profile.getRegion() != null ? profile.getRegion()
+                : awsProperties.getRegion() != null ? awsProperties.getRegion()
+                : DEFAULT_DYNAMODB_REGION;
+
+        return configure(DynamoDbClient.builder(), "dynamodb", profile, region, metrics,
+                c -> c.addExecutionInterceptor(new DynamoDbMetricsInterceptor(metrics)))
                 .build();
     }
 
@@ -41,18 +54,76 @@ public class AwsConfig {
     }
 
     @Bean
-    public BedrockRuntimeClient bedrockRuntimeClient() {
-        // Direct Claude access (FREE!)
-        return BedrockRuntimeClient.builder()
-                .region(Region.US_EAST_1)  // Bedrock available here
-                .credentialsProvider(
-                        StaticCredentialsProvider.create(
-                                AwsBasicCredentials.create(
-                                        awsProperties.getAccessKeyId(),
-                                        awsProperties.getSecretKey()
-                                )
-                        )
-                )
+    public BedrockRuntimeClient bedrockRuntimeClient(FinanceMetrics metrics) {
+        AwsProperties.Client profile = awsProperties.getBedrock();
+        return configure(BedrockRuntimeClient.builder(), "bedrock", profile, profile.getRegion(), metrics, c -> { })
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Apply a client profile: region, credentials, endpoint override, HTTP client, retries and pool metrics
+     */
+    private <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B configure(
+            B builder, String name, AwsProperties.Client profile, String region, FinanceMetrics metrics,
+            Consumer<ClientOverrideConfiguration.Builder> extra) {
+
+        builder.region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(httpClient(profile))
+                .overrideConfiguration(c -> {
+                    c.retryStrategy(AwsRetryStrategy.forRetryMode(profile.getRetryMode()).toBuilder()
+                            .maxAttempts(profile.getMaxAttempts())
+                            .build());
+                    if (profile.getApiCallTimeout() != null) c.apiCallTimeout(profile.getApiCallTimeout());
+                    c.addMetricPublisher(new SdkPoolMetricsPublisher(name, metrics));
+                    extra.accept(c);
+                });
+        if (profile.getEndpointOverride() != null) {
+            builder.endpointOverride(profile.getEndpointOverride());
+        }
+        return builder;
+    }
+
+    private static SdkHttpClient.Builder<?> httpClient(AwsProperties.Client profile) {
+        if (profile.getHttpClient() == AwsProperties.Client.HttpClientType.CRT) {
+            AwsCrtHttpClient.Builder crt = AwsCrtHttpClient.builder()
+                    .maxConcurrency(profile.getMaxConnections())
+                    .connectionTimeout(profile.getConnectionTimeout())
+                    .connectionAcquisitionTimeout(profile.getConnectionAcquisitionTimeout())
+                    .connectionMaxIdleTime(profile.getConnectionMaxIdleTime());
+            if (profile.isTcpKeepAlive()) {
+                crt.tcpKeepAliveConfiguration(TcpKeepAliveConfiguration.builder()
+                        .keepAliveInterval(Duration.ofSeconds(30))
+                        .keepAliveTimeout(Duration.ofSeconds(5))
+                        .build());
+            }
+            return crt;
+        }
+
+        ApacheHttpClient.Builder apache = ApacheHttpClient.builder()
+                .maxConnections(profile.getMaxConnections())
+                .connectionTimeout(profile.getConnectionTimeout())
+                .connectionAcquisitionTimeout(profile.getConnectionAcquisitionTimeout())
+                .socketTimeout(profile.getSocketTimeout())
+                .connectionMaxIdleTime(profile.getConnectionMaxIdleTime())
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(profile.isTcpKeepAlive());
+        if (profile.getConnectionTimeToLive() != null) {
+            apache.connectionTimeToLive(profile.getConnectionTimeToLive());
+        }
+        return apache;
+    }
+
+    /** Static keys when configured, otherwise the default chain (env, profile, instance role) */
+    private AwsCredentialsProvider credentialsProvider() {
+        if (awsProperties.getAccessKeyId() == null || awsProperties.getAccessKeyId().isBlank()) {
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(
+                        awsProperties.getAccessKeyId(),
+                        awsProperties.getSecretKey()
+                )
+        );
+    }
+}
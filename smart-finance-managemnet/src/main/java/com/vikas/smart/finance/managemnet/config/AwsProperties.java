@@ -2,6 +2,10 @@ package com.vikas.smart.finance.managemnet.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "aws")
@@ -11,6 +15,18 @@ public class AwsProperties {
     private String secretKey;
     private String region;
 
+    /** aws.dynamodb.* ; region falls back to aws.region */
+    private Client dynamodb = new Client();
+
+    /** aws.bedrock.* ; region defaults to us-east-1 where the model is hosted */
+    private Client bedrock = new Client();
+
+    public AwsProperties() {
+        bedrock.setRegion("us-east-1");
+        bedrock.setMaxConnections(20);
+        bedrock.setSocketTimeout(Duration.ofSeconds(60));   // long generations
+    }
+
     // Getters and Setters
     public String getAccessKeyId() {
         return accessKeyId;
@@ -35,4 +51,156 @@ public class AwsProperties {
     public void setRegion(String region) {
         this.region = region;
     }
+
+    public Client getDynamodb() {
+        return dynamodb;
+    }
+
+    public void setDynamodb(Client dynamodb) {
+        this.dynamodb = dynamodb;
+    }
+
+    public Client getBedrock() {
+        return bedrock;
+    }
+
+    public void setBedrock(Client bedrock) {
+        this.bedrock = bedrock;
+    }
+
+    /**
+     * HTTP client, connection pool and retry profile for one service client.
+     * Defaults match the SDK's own except for adaptive retries.
+     */
+    public static class Client {
+
+        public enum HttpClientType { APACHE, CRT }
+
+        private String region;
+        private URI endpointOverride;                  // e.g. http://localhost:8000 for DynamoDB Local
+        private HttpClientType httpClient = HttpClientType.APACHE;
+        private int maxConnections = 50;
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+        private Duration socketTimeout = Duration.ofSeconds(30);
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+        private Duration connectionTimeToLive;         // null keeps connections until idle
+        private boolean tcpKeepAlive = true;
+        private RetryMode retryMode = RetryMode.ADAPTIVE_V2;
+        private int maxAttempts = 3;
+        private Duration apiCallTimeout;               // null means no overall deadline
+        private boolean createTables;                  // DynamoDB only: create missing tables at startup
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public URI getEndpointOverride() {
+            return endpointOverride;
+        }
+
+        public void setEndpointOverride(URI endpointOverride) {
+            this.endpointOverride = endpointOverride;
+        }
+
+        public HttpClientType getHttpClient() {
+            return httpClient;
+        }
+
+        public void setHttpClient(HttpClientType httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getConnectionAcquisitionTimeout() {
+            return connectionAcquisitionTimeout;
+        }
+
+        public void setConnectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+            this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        }
+
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public void setSocketTimeout(Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        public Duration getConnectionMaxIdleTime() {
+            return connectionMaxIdleTime;
+        }
+
+        public void setConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+            this.connectionMaxIdleTime = connectionMaxIdleTime;
+        }
+
+        public Duration getConnectionTimeToLive() {
+            return connectionTimeToLive;
+        }
+
+        public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+        }
+
+        public boolean isTcpKeepAlive() {
+            return tcpKeepAlive;
+        }
+
+        public void setTcpKeepAlive(boolean tcpKeepAlive) {
+            this.tcpKeepAlive = tcpKeepAlive;
+        }
+
+        public RetryMode getRetryMode() {
+            return retryMode;
+        }
+
+        public void setRetryMode(RetryMode retryMode) {
+            this.retryMode = retryMode;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getApiCallTimeout() {
+            return apiCallTimeout;
+        }
+
+        public void setApiCallTimeout(Duration apiCallTimeout) {
+            this.apiCallTimeout = apiCallTimeout;
+        }
+
+        public boolean isCreateTables() {
+            return createTables;
+        }
+
+        public void setCreateTables(boolean createTables) {
+            this.createTables = createTables;
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+
+import java.util.Set;
+
+/**
+ * Times every DynamoDB call at the SDK level, tagged by table and operation,
+ * so enhanced-client, batch and paginated calls are all covered without touching call sites.
+ * Latency includes SDK retries.
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> STARTED = new ExecutionAttribute<>("FinanceMetricsStarted");
+
+    private final FinanceMetrics metrics;
+
+    public DynamoDbMetricsInterceptor(FinanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(context.request(), attributes, "success");
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(context.request(), attributes, "error");
+    }
+
+    private void record(SdkRequest request, ExecutionAttributes attributes, String outcome) {
+        Long started = attributes.getAttribute(STARTED);
+        if (started == null) return;
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        metrics.record("finance.dynamodb.requests", "dynamodb", System.nanoTime() - started, outcome,
+                "table", tableName(request),
+                "operation", operation != null ? operation : request.getClass().getSimpleName());
+    }
+
+    private static String tableName(SdkRequest request) {
+        if (request instanceof BatchWriteItemRequest batch) return tableName(batch.requestItems().keySet());
+        if (request instanceof BatchGetItemRequest batch) return tableName(batch.requestItems().keySet());
+        return request.getValueForField("TableName", String.class).orElse("none");
+    }
+
+    private static String tableName(Set<String> tables) {
+        return tables.size() == 1 ? tables.iterator().next() : "multiple";
+    }
+}
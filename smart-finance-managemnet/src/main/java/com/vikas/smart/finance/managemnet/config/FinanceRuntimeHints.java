@@ -0,0 +1,43 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import com.vikas.smart.finance.managemnet.model.ArchiveLease;
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.DataVersion;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.UserShardLayout;
+import com.vikas.smart.finance.managemnet.model.VendorRecurrence;
+import com.vikas.smart.finance.managemnet.service.StartupService;
+import com.vikas.smart.finance.managemnet.service.analytics.SpendingForecaster;
+import com.vikas.smart.finance.managemnet.util.LocalDateConverter;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for AOT and native builds.
+ * The DynamoDB enhanced client introspects bean classes and instantiates converters reflectively,
+ * and Jackson binds the same classes when they appear inside Map responses and SSE events,
+ * which Spring's own controller-signature analysis cannot see.
+ */
+public class FinanceRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] TABLE_BEANS = {
+            Transaction.class, Budget.class, Insight.class, VendorRecurrence.class, UserShardLayout.class,
+            ArchiveLease.class, DataVersion.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> bean : TABLE_BEANS) {
+            hints.reflection().registerType(bean, MemberCategory.values());
+        }
+        hints.reflection().registerType(LocalDateConverter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        BindingReflectionHintsRegistrar jackson = new BindingReflectionHintsRegistrar();
+        jackson.registerReflectionHints(hints.reflection(), TABLE_BEANS);
+        jackson.registerReflectionHints(hints.reflection(),
+                StartupService.PhaseStatus.class, SpendingForecaster.CategoryForecast.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Transaction write path (finance.ingest.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "finance.ingest")
+public class IngestProperties {
+
+    /** Acknowledge POST /api/transactions after the local write-ahead log append, flush to DynamoDB behind */
+    private boolean writeBehind = false;
+
+    private String walDir = "data/wal";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private boolean syncOnAppend = false;                   // msync every append: survives power loss, not just a crash
+    private Duration flushInterval = Duration.ofMillis(200);
+    private int maxPending = 10_000;                        // unflushed writes before appends wait
+    private Duration maxLag = Duration.ofSeconds(30);       // age of the oldest unflushed write before appends wait
+    private Duration maxAppendWait = Duration.ofSeconds(2); // then the append is rejected with 503
+    private int maxFlushAttempts = 10;                      // non-retryable failures before a write goes to the dead-letter file
+
+    /** Screen POSTs and imports for repeated idempotency keys */
+    private boolean detectDuplicates = true;
+    /** Also refuse a new id with the same user/vendor/amount/date; off, since repeat charges are real */
+    private boolean detectContentDuplicates = false;
+    private Duration duplicateWindow = Duration.ofHours(24);
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public String getWalDir() {
+        return walDir;
+    }
+
+    public void setWalDir(String walDir) {
+        this.walDir = walDir;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public boolean isSyncOnAppend() {
+        return syncOnAppend;
+    }
+
+    public void setSyncOnAppend(boolean syncOnAppend) {
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getMaxAppendWait() {
+        return maxAppendWait;
+    }
+
+    public void setMaxAppendWait(Duration maxAppendWait) {
+        this.maxAppendWait = maxAppendWait;
+    }
+
+    public int getMaxFlushAttempts() {
+        return maxFlushAttempts;
+    }
+
+    public void setMaxFlushAttempts(int maxFlushAttempts) {
+        this.maxFlushAttempts = maxFlushAttempts;
+    }
+
+    public boolean isDetectDuplicates() {
+        return detectDuplicates;
+    }
+
+    public void setDetectDuplicates(boolean detectDuplicates) {
+        this.detectDuplicates = detectDuplicates;
+    }
+
+    public boolean isDetectContentDuplicates() {
+        return detectContentDuplicates;
+    }
+
+    public void setDetectContentDuplicates(boolean detectContentDuplicates) {
+        this.detectContentDuplicates = detectContentDuplicates;
+    }
+
+    public Duration getDuplicateWindow() {
+        return duplicateWindow;
+    }
+
+    public void setDuplicateWindow(Duration duplicateWindow) {
+        this.duplicateWindow = duplicateWindow;
+    }
+}
@@ -0,0 +1,76 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns the SDK's per-call metric collections into connection-pool gauges
+ * (leased, available, pending acquires, saturation), acquire-time and retry meters.
+ * Runs on the calling thread after every API call, so it only reads what the SDK already collected.
+ */
+public class SdkPoolMetricsPublisher implements MetricPublisher {
+
+    private final String client;
+    private final FinanceMetrics metrics;
+    private final Timer acquireTimer;
+
+    // Last values reported by the HTTP client; gauges read these
+    private final AtomicInteger max = new AtomicInteger();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public SdkPoolMetricsPublisher(String client, FinanceMetrics metrics) {
+        this.client = client;
+        this.metrics = metrics;
+        this.acquireTimer = metrics.timer("finance.aws.http.pool.acquire", "client", client);
+
+        metrics.gauge("finance.aws.http.pool.max", max, AtomicInteger::get, "client", client);
+        metrics.gauge("finance.aws.http.pool.leased", leased, AtomicInteger::get, "client", client);
+        metrics.gauge("finance.aws.http.pool.available", available, AtomicInteger::get, "client", client);
+        metrics.gauge("finance.aws.http.pool.pending", pending, AtomicInteger::get, "client", client);
+        metrics.gauge("finance.aws.http.pool.saturation", this,
+                p -> p.max.get() > 0 ? (double) p.leased.get() / p.max.get() : 0, "client", client);
+    }
+
+    @Override
+    public void publish(MetricCollection apiCall) {
+        apiCall.childrenWithName("ApiCallAttempt")
+                .flatMap(attempt -> attempt.childrenWithName("HttpClient"))
+                .forEach(this::recordPool);
+
+        List<Integer> retries = apiCall.metricValues(CoreMetric.RETRY_COUNT);
+        if (!retries.isEmpty() && retries.get(0) > 0) {
+            List<String> operation = apiCall.metricValues(CoreMetric.OPERATION_NAME);
+            metrics.increment("finance.aws.retries", retries.get(0), "client", client,
+                    "operation", operation.isEmpty() ? "unknown" : operation.get(0));
+        }
+    }
+
+    private void recordPool(MetricCollection http) {
+        set(max, http.metricValues(HttpMetric.MAX_CONCURRENCY));
+        set(leased, http.metricValues(HttpMetric.LEASED_CONCURRENCY));
+        set(available, http.metricValues(HttpMetric.AVAILABLE_CONCURRENCY));
+        set(pending, http.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES));
+        for (Duration acquire : http.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION)) {
+            acquireTimer.record(acquire.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void set(AtomicInteger gauge, List<Integer> values) {
+        if (!values.isEmpty()) gauge.set(values.get(values.size() - 1));
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,92 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import com.vikas.smart.finance.managemnet.util.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds a {@code Server-Timing} header with the DynamoDB, Bedrock and aggregation time spent so far.
+ * The header is written just before the body starts, since headers cannot change once it is committed;
+ * for streamed responses it therefore covers time to first byte.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TimingResponse timed = new TimingResponse(response, ServerTiming.begin(), System.nanoTime());
+        try {
+            chain.doFilter(request, timed);
+            timed.writeHeader();   // bodiless responses such as 304
+        } finally {
+            ServerTiming.end();
+        }
+    }
+
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+        private final long started;
+        private boolean headerWritten;
+
+        TimingResponse(HttpServletResponse response, ServerTiming timing, long started) {
+            super(response);
+            this.timing = timing;
+            this.started = started;
+        }
+
+        void writeHeader() {
+            if (headerWritten || isCommitted()) return;
+            headerWritten = true;
+            setHeader(HEADER, timing.header(System.nanoTime() - started));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
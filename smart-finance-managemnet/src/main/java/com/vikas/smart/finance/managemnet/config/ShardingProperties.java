@@ -0,0 +1,62 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Transaction partition sharding (finance.sharding.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "finance.sharding")
+public class ShardingProperties {
+
+    /** Look up per-user shard layouts and reshard hot users; off means every user is one partition */
+    private boolean enabled = false;
+
+    private int maxShards = 16;
+    private double writesPerShard = 50;                       // sustained writes/second per shard before the user's shards double
+    private Duration layoutCacheTtl = Duration.ofSeconds(30); // also how long a migration waits for other instances to see a new layout
+    private int gatherThreads = 16;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxShards() {
+        return maxShards;
+    }
+
+    public void setMaxShards(int maxShards) {
+        this.maxShards = maxShards;
+    }
+
+    public double getWritesPerShard() {
+        return writesPerShard;
+    }
+
+    public void setWritesPerShard(double writesPerShard) {
+        this.writesPerShard = writesPerShard;
+    }
+
+    public Duration getLayoutCacheTtl() {
+        return layoutCacheTtl;
+    }
+
+    public void setLayoutCacheTtl(Duration layoutCacheTtl) {
+        this.layoutCacheTtl = layoutCacheTtl;
+    }
+
+    public int getGatherThreads() {
+        return gatherThreads;
+    }
+
+    public void setGatherThreads(int gatherThreads) {
+        this.gatherThreads = gatherThreads;
+    }
+}
@@ -0,0 +1,37 @@
+package com.vikas.smart.finance.managemnet.config;
+
+import com.vikas.smart.finance.managemnet.service.StartupService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * "startup" health component, part of the readiness group.
+ * OUT_OF_SERVICE until DynamoDB has answered once; details show every startup phase.
+ */
+@Component
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private final StartupService startupService;
+
+    public StartupHealthIndicator(StartupService startupService) {
+        this.startupService = startupService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = startupService.isConnected() ? Health.up() : Health.outOfService();
+        for (Map.Entry<StartupService.Phase, StartupService.PhaseStatus> entry : startupService.getPhases().entrySet()) {
+            StartupService.PhaseStatus status = entry.getValue();
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("state", status.state());
+            detail.put("elapsedMs", status.elapsedMs());
+            if (status.error() != null) detail.put("error", status.error());
+            health.withDetail(entry.getKey().name().toLowerCase(), detail);
+        }
+        return health.build();
+    }
+}
@@ -2,10 +2,14 @@ package com.vikas.smart.finance.managemnet.controller;
 
 import com.vikas.smart.finance.managemnet.model.Budget;
 import com.vikas.smart.finance.managemnet.service.BudgetService;
+import com.vikas.smart.finance.managemnet.service.shard.ShardRouter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/budgets")
@@ -14,17 +18,41 @@ public class BudgetController {
     @Autowired
     private BudgetService budgetService;
 
-    // GET all budgets for a user
+    @Autowired
+    private VersionedResponseCache responseCache;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // GET all budgets for a user (ETag / If-None-Match aware)
     @GetMapping("/{userId}")
-    public List<Budget> getBudgets(@PathVariable String userId) {
-        return budgetService.getBudgets(userId);
+    public ResponseEntity<byte[]> getBudgets(@PathVariable String userId, WebRequest request) {
+        return responseCache.respond(userId, "budgets", request,
+                () -> budgetService.getBudgets(userId));
     }
 
     // POST endpoint to add or update a budget
     @PostMapping
-    public String addOrUpdateBudget(@RequestBody Budget budget) {
+    public ResponseEntity<?> addOrUpdateBudget(@RequestBody Budget budget) {
+        try {
+            shardRouter.checkUserId(budget.getUserId());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
         budgetService.saveOrUpdateBudget(budget);
-        return "Budget saved successfully for user: " + budget.getUserId();
+        return ResponseEntity.ok("Budget saved successfully for user: " + budget.getUserId());
+    }
+
+    // GET projected month-end spend per category for a user
+    @GetMapping("/forecast/{userId}")
+    public Map<String, Object> getForecast(@PathVariable String userId) {
+        return budgetService.forecastMonthEnd(userId);
+    }
+
+    // GET month-end forecasts for several users at once: /api/budgets/forecast?userIds=user1,user2
+    @GetMapping("/forecast")
+    public List<Map<String, Object>> getForecasts(@RequestParam List<String> userIds) {
+        return budgetService.forecastMonthEnd(userIds);
     }
 
     // GET budget suggestions for a user
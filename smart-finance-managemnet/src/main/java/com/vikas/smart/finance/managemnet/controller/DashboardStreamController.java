@@ -0,0 +1,32 @@
+package com.vikas.smart.finance.managemnet.controller;
+
+import com.vikas.smart.finance.managemnet.service.DashboardEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class DashboardStreamController {
+
+    @Autowired
+    private DashboardEventService dashboardEventService;
+
+    // GET a live stream of dashboard updates for a user (Server-Sent Events)
+    @GetMapping(value = "/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @PathVariable String userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok(dashboardEventService.subscribe(userId, lastEventId));
+        } catch (DashboardEventService.TooManyConnectionsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "30")
+                    .build();
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.vikas.smart.finance.managemnet.controller;
 
+import com.vikas.smart.finance.managemnet.service.agentic.AiAdmissionService;
+import com.vikas.smart.finance.managemnet.service.agentic.BatchSummaryService;
 import com.vikas.smart.finance.managemnet.service.agentic.BedrockAgentService;
 import com.vikas.smart.finance.managemnet.service.agentic.FinanceActionHandler;
+import com.vikas.smart.finance.managemnet.service.agentic.HealthReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/ai")
@@ -25,6 +36,21 @@ public class EnhancedAgenticController {
     @Autowired
     private FinanceActionHandler financeActionHandler;
 
+    @Autowired
+    private VersionedResponseCache responseCache;
+
+    @Autowired
+    private BatchSummaryService batchSummaryService;
+
+    @Autowired
+    private AiAdmissionService admissionService;
+
+    @Autowired
+    private HealthReportService healthReportService;
+
+    /** Body of {@code POST /ai/batch/quick} */
+    public record BatchRequest(List<String> userIds, List<String> views, Integer concurrency) {}
+
     /**
      * Main AI chat endpoint
      * Example: GET /ai/chat?userId=user1&prompt=What's my spending like?
@@ -41,6 +67,7 @@ public class EnhancedAgenticController {
                 response.put("error", "Prompt cannot be empty");
                 return ResponseEntity.badRequest().body(response);
             }
+            admissionService.admit(userId, AiAdmissionService.EndpointClass.CHAT);
 
             // Use getFinancialAdvice instead - it includes real data!
             String aiResponse = bedrockAgentService.getFinancialAdvice(userId, prompt);
@@ -52,6 +79,8 @@ public class EnhancedAgenticController {
 
             return ResponseEntity.ok(response);
 
+        } catch (AiAdmissionService.OverloadedException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Error in AI chat for user '{}'", userId, e);
             response.put("error", "Failed to get AI response: " + e.getMessage());
@@ -65,6 +94,7 @@ public class EnhancedAgenticController {
     @GetMapping("/analyze/spending/{userId}")
     public ResponseEntity<Map<String, Object>> analyzeSpending(@PathVariable String userId) {
         try {
+            admissionService.admit(userId, AiAdmissionService.EndpointClass.ANALYSIS);
             Map<String, Object> spendingData = financeActionHandler.getSpendingSummary(userId);
 
             String prompt = String.format(
@@ -72,7 +102,7 @@ public class EnhancedAgenticController {
                     spendingData.toString()
             );
 
-            String aiAnalysis = bedrockAgentService.getAIResponse(prompt);
+            String aiAnalysis = bedrockAgentService.getAIResponse(userId, prompt);
 
             Map<String, Object> response = new HashMap<>();
             response.put("userId", userId);
@@ -81,6 +111,8 @@ public class EnhancedAgenticController {
 
             return ResponseEntity.ok(response);
 
+        } catch (AiAdmissionService.OverloadedException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Error analyzing spending for user '{}'", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -94,6 +126,7 @@ public class EnhancedAgenticController {
     @GetMapping("/recommend/budget/{userId}")
     public ResponseEntity<Map<String, Object>> recommendBudget(@PathVariable String userId) {
         try {
+            admissionService.admit(userId, AiAdmissionService.EndpointClass.ANALYSIS);
             Map<String, Object> budgetData = financeActionHandler.getBudgetRecommendations(userId);
             Map<String, Object> spendingData = financeActionHandler.getSpendingSummary(userId);
 
@@ -102,7 +135,7 @@ public class EnhancedAgenticController {
                     spendingData, budgetData
             );
 
-            String aiRecommendation = bedrockAgentService.getAIResponse(prompt);
+            String aiRecommendation = bedrockAgentService.getAIResponse(userId, prompt);
 
             Map<String, Object> response = new HashMap<>();
             response.put("userId", userId);
@@ -111,6 +144,8 @@ public class EnhancedAgenticController {
 
             return ResponseEntity.ok(response);
 
+        } catch (AiAdmissionService.OverloadedException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Error generating budget recommendations for user '{}'", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -131,6 +166,7 @@ public class EnhancedAgenticController {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "userId and question are required"));
             }
+            admissionService.admit(userId, AiAdmissionService.EndpointClass.CHAT);
 
             String advice = bedrockAgentService.getFinancialAdvice(userId, question);
 
@@ -142,6 +178,8 @@ public class EnhancedAgenticController {
 
             return ResponseEntity.ok(response);
 
+        } catch (AiAdmissionService.OverloadedException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Error getting financial advice", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -150,38 +188,73 @@ public class EnhancedAgenticController {
     }
 
     /**
-     * Get comprehensive financial health report
+     * Get comprehensive financial health report, served from the precomputed copy
+     * Example: GET /ai/health-report/user1?regenerate=true
      */
     @GetMapping("/health-report/{userId}")
-    public ResponseEntity<Map<String, Object>> getHealthReport(@PathVariable String userId) {
+    public ResponseEntity<Map<String, Object>> getHealthReport(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "false") boolean regenerate) {
         try {
-            Map<String, Object> spending = financeActionHandler.getSpendingSummary(userId);
-            Map<String, Object> budget = financeActionHandler.getBudgetStatus(userId);
-            Map<String, Object> insights = financeActionHandler.getFinancialInsights(userId);
-            Map<String, Object> trends = financeActionHandler.analyzeSpendingTrends(userId);
-
-            String prompt = String.format(
-                    "Generate a comprehensive financial health report for user %s. " +
-                            "Spending: %s, Budget Status: %s, Insights: %s, Trends: %s. " +
-                            "Provide actionable advice and highlight concerns.",
-                    userId, spending, budget, insights, trends
-            );
+            // Only a fresh build calls Bedrock; serving the stored report is free
+            if (regenerate || !healthReportService.hasReport(userId)) {
+                admissionService.admit(userId, AiAdmissionService.EndpointClass.REPORT);
+            }
+            return ResponseEntity.ok(healthReportService.getReport(userId, regenerate));
 
-            String healthReport = bedrockAgentService.getAIResponse(prompt);
+        } catch (AiAdmissionService.OverloadedException e) {
+            return tooManyRequests(e);
+        } catch (Exception e) {
+            logger.error("Error generating health report for user '{}'", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("userId", userId);
-            response.put("spending", spending);
-            response.put("budget", budget);
-            response.put("insights", insights);
-            response.put("trends", trends);
-            response.put("aiHealthReport", healthReport);
-            response.put("timestamp", System.currentTimeMillis());
+    /**
+     * 429 with Retry-After for calls refused by admission control or the Bedrock queue
+     */
+    private ResponseEntity<Map<String, Object>> tooManyRequests(AiAdmissionService.OverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage(), "reason", e.getReason()));
+    }
 
-            return ResponseEntity.ok(response);
+    /**
+     * Spending trends for a month range
+     * Example: GET /ai/trends/user1?from=2025-01&to=2025-03
+     */
+    @GetMapping("/trends/{userId}")
+    public ResponseEntity<Map<String, Object>> trends(
+            @PathVariable String userId,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to) {
+        try {
+            return ResponseEntity.ok(financeActionHandler.analyzeSpendingTrends(userId, from, to));
+        } catch (Exception e) {
+            logger.error("Error analyzing trends for user '{}'", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 
+    /**
+     * Top vendors by spend for a month range
+     * Example: GET /ai/vendors/user1?from=2025-01&to=2025-03&limit=10
+     */
+    @GetMapping("/vendors/{userId}")
+    public ResponseEntity<Map<String, Object>> topVendors(
+            @PathVariable String userId,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be positive"));
+        }
+        try {
+            return ResponseEntity.ok(financeActionHandler.getTopVendors(userId, limit, from, to));
         } catch (Exception e) {
-            logger.error("Error generating health report for user '{}'", userId, e);
+            logger.error("Error ranking vendors for user '{}'", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
@@ -191,35 +264,37 @@ public class EnhancedAgenticController {
      * Quick action endpoint for common queries
      */
     @GetMapping("/quick/{action}/{userId}")
-    public ResponseEntity<Map<String, Object>> quickAction(
+    public ResponseEntity<?> quickAction(
             @PathVariable String action,
-            @PathVariable String userId) {
+            @PathVariable String userId,
+            WebRequest request) {
 
         try {
-            Map<String, Object> result;
+            Supplier<Object> result;
 
             switch (action.toLowerCase()) {
                 case "summary":
-                    result = financeActionHandler.getSpendingSummary(userId);
+                    result = () -> financeActionHandler.getSpendingSummary(userId);
                     break;
                 case "budget":
-                    result = financeActionHandler.getBudgetStatus(userId);
+                    result = () -> financeActionHandler.getBudgetStatus(userId);
                     break;
                 case "insights":
-                    result = financeActionHandler.getFinancialInsights(userId);
+                    result = () -> financeActionHandler.getFinancialInsights(userId);
                     break;
                 case "trends":
-                    result = financeActionHandler.analyzeSpendingTrends(userId);
+                    result = () -> financeActionHandler.analyzeSpendingTrends(userId);
                     break;
                 case "vendors":
-                    result = financeActionHandler.getTopVendors(userId, 5);
+                    result = () -> financeActionHandler.getTopVendors(userId, 5);
                     break;
                 default:
                     return ResponseEntity.badRequest()
                             .body(Map.of("error", "Unknown action: " + action));
             }
 
-            return ResponseEntity.ok(result);
+            // 304 / memoized body while the user's data version is unchanged
+            return responseCache.respond(userId, "quick-" + action.toLowerCase(), request, result);
 
         } catch (Exception e) {
             logger.error("Error executing quick action '{}' for user '{}'", action, userId, e);
@@ -227,4 +302,32 @@ public class EnhancedAgenticController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Quick-action views for many users, streamed as NDJSON (one line per user, in completion order)
+     * Example: POST /ai/batch/quick {"userIds":["user1","user2"],"views":["summary","budget"],"concurrency":8}
+     */
+    @PostMapping("/batch/quick")
+    public ResponseEntity<?> batchQuick(@RequestBody BatchRequest request) {
+        if (request.userIds() == null || request.userIds().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "userIds is required"));
+        }
+        if (request.userIds().size() > BatchSummaryService.MAX_USERS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + BatchSummaryService.MAX_USERS + " users per request"));
+        }
+
+        Set<BatchSummaryService.View> views;
+        try {
+            views = BatchSummaryService.parseViews(request.views() != null ? request.views() : List.of("summary", "budget"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        int concurrency = request.concurrency() != null ? request.concurrency() : 8;
+
+        StreamingResponseBody body = out -> batchSummaryService.stream(request.userIds(), views, concurrency, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
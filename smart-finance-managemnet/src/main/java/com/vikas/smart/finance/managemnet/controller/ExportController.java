@@ -0,0 +1,57 @@
+package com.vikas.smart.finance.managemnet.controller;
+
+import com.vikas.smart.finance.managemnet.service.TransactionExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    /**
+     * Stream transactions as CSV or NDJSON, optionally gzipped.
+     * Omit userId to export every user (rows in DynamoDB only; archived and unflushed rows are per user).
+     * Example: GET /api/export/transactions?userId=user1&format=ndjson&from=2025-01-01&gzip=true
+     */
+    @GetMapping("/transactions")
+    public void exportTransactions(
+            @RequestParam(required = false) String userId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown format: " + format);
+            return;
+        }
+
+        String fileName = (userId != null ? userId : "all") + "-transactions." +
+                exportFormat.name().toLowerCase() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip"
+                : exportFormat == TransactionExportService.Format.CSV ? "text/csv; charset=UTF-8"
+                : "application/x-ndjson; charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        // Write straight to the servlet stream: no buffering of the full result
+        long rows = exportService.export(userId, from, to, exportFormat, gzip, response.getOutputStream());
+        logger.info("Exported {} transactions ({}) for '{}'", rows, fileName, userId != null ? userId : "all users");
+    }
+}
@@ -0,0 +1,59 @@
+package com.vikas.smart.finance.managemnet.controller;
+
+import com.vikas.smart.finance.managemnet.service.TransactionImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportController.class);
+
+    @Autowired
+    private TransactionImportService importService;
+
+    /**
+     * Import a bank-statement CSV uploaded as a form file, up to spring.servlet.multipart.max-file-size (50MB);
+     * larger statements go through the text/csv endpoint.
+     * Columns: date, amount, vendor, optional category / userId / transactionId
+     */
+    @PostMapping(value = "/transactions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> importFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String userId) {
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(importService.importCsv(input, userId));
+        } catch (Exception e) {
+            logger.error("CSV import failed for '{}'", file.getOriginalFilename(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Import a CSV sent as the raw request body (text/csv); read as it arrives, never buffered whole
+     */
+    @PostMapping(value = "/transactions", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importBody(
+            @RequestParam(required = false) String userId,
+            HttpServletRequest request) {
+        try (InputStream input = request.getInputStream()) {
+            return ResponseEntity.ok(importService.importCsv(input, userId));
+        } catch (Exception e) {
+            logger.error("CSV import failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.vikas.smart.finance.managemnet.controller;
 import com.vikas.smart.finance.managemnet.model.Insight;
 import com.vikas.smart.finance.managemnet.service.InsightService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,11 +16,22 @@ public class InsightController {
     @Autowired
     private InsightService insightService;
 
-    // GET all insights for a user
+    @Autowired
+    private VersionedResponseCache responseCache;
+
+    // GET all insights for a user (ETag / If-None-Match aware)
     @GetMapping("/{userId}")
-    public List<Insight> getInsights(@PathVariable String userId) {
-        // Assuming InsightService has a method to fetch insights from DynamoDB
-        return insightService.getInsights(userId);
+    public ResponseEntity<byte[]> getInsights(@PathVariable String userId, WebRequest request) {
+        return responseCache.respond(userId, "insights", request,
+                () -> insightService.getInsights(userId));
+    }
+
+    // GET the most recent insights of one type, newest first
+    @GetMapping("/{userId}/type/{type}")
+    public List<Insight> getInsightsByType(@PathVariable String userId,
+                                           @PathVariable String type,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return insightService.getInsightsByType(userId, type, Math.max(1, Math.min(limit, 100)));
     }
 
     // POST endpoint to manually trigger insight generation for a user (optional)
@@ -2,10 +2,21 @@ package com.vikas.smart.finance.managemnet.controller;
 
 import com.vikas.smart.finance.managemnet.model.Transaction;
 import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.service.analytics.DailySpendIndex;
+import com.vikas.smart.finance.managemnet.service.ingest.DuplicateDetector;
+import com.vikas.smart.finance.managemnet.service.ingest.WriteBehindService;
+import com.vikas.smart.finance.managemnet.service.shard.ShardRouter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -14,16 +25,105 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
-    // GET all transactions for a user
+    @Autowired
+    private VersionedResponseCache responseCache;
+
+    @Autowired
+    private DailySpendIndex dailySpendIndex;
+
+    @Autowired
+    private WriteBehindService writeBehindService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private static final long MAX_RANGE_DAYS = 3660;
+    private static final long MAX_DAY_BUCKETS = 366;
+
+    // GET all transactions for a user (ETag / If-None-Match aware)
     @GetMapping("/{userId}")
-    public List<Transaction> getTransactions(@PathVariable String userId){
-        return transactionService.getTransactions(userId);
+    public ResponseEntity<byte[]> getTransactions(@PathVariable String userId, WebRequest request){
+        return responseCache.respond(userId, "transactions", request,
+                () -> transactionService.getTransactions(userId));
     }
 
-    // POST a new transaction (optional for testing)
+    // POST a new transaction (optional for testing); acknowledged from the write-ahead log in write-behind mode.
+    // Retries are safe with the same transactionId or Idempotency-Key header; a repeat is answered 200 without a write.
+    // With finance.ingest.detect-content-duplicates, a different id with the same user, date, amount and
+    // vendor as a recent write is refused with 409; resend with allowDuplicate=true to store a repeat charge.
     @PostMapping
-    public String addTransaction(@RequestBody Transaction transaction){
-        transactionService.saveTransaction(transaction);
-        return "Transaction added successfully for user: " + transaction.getUserId();
+    public ResponseEntity<?> addTransaction(@RequestBody Transaction transaction,
+                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                            @RequestParam(defaultValue = "false") boolean allowDuplicate){
+        try {
+            shardRouter.checkUserId(transaction.getUserId());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        DuplicateDetector.Duplicate duplicate;
+        try {
+            duplicate = writeBehindService.save(transaction, idempotencyKey, allowDuplicate);
+        } catch (WriteBehindService.BackpressureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        }
+        if (duplicate != null && duplicate.reason() == DuplicateDetector.Reason.CONTENT) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Looks like a duplicate of transaction " + duplicate.transactionId() +
+                                    "; resend with allowDuplicate=true if it is a separate charge",
+                            "duplicateOf", duplicate.transactionId()));
+        }
+        if (duplicate != null) {
+            return ResponseEntity.ok()
+                    .header("Idempotent-Replayed", "true")
+                    .body("Duplicate transaction ignored for user: " + transaction.getUserId() +
+                            " (matches " + duplicate.transactionId() + ")");
+        }
+        return ResponseEntity.ok("Transaction added successfully for user: " + transaction.getUserId());
+    }
+
+    // GET spend totals for a date range, bucketed by day, week or month (defaults to this month so far)
+    // Example: GET /api/transactions/user1/summary?from=2025-01-01&to=2025-03-31&groupBy=week
+    @GetMapping("/{userId}/summary")
+    public ResponseEntity<?> getRangeSummary(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+
+        DailySpendIndex.GroupBy grouping;
+        try {
+            grouping = DailySpendIndex.GroupBy.valueOf(groupBy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "groupBy must be day, week or month"));
+        }
+        if (days < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must not be after to"));
+        }
+        if (days > MAX_RANGE_DAYS || (grouping == DailySpendIndex.GroupBy.DAY && days > MAX_DAY_BUCKETS)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Date range too large for groupBy=" + groupBy));
+        }
+        return ResponseEntity.ok(dailySpendIndex.rangeSummary(userId, start, end, grouping));
+    }
+
+    // POST move a user's transactions onto N partitions; runs in the background while reads and writes go on
+    // Example: POST /api/transactions/user1/reshard?shards=8
+    @PostMapping("/{userId}/reshard")
+    public ResponseEntity<?> reshard(@PathVariable String userId, @RequestParam int shards) {
+        if (!shardRouter.isEnabled()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Sharding is disabled (finance.sharding.enabled)"));
+        }
+        if (shards < 1 || shards > shardRouter.getMaxShards()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "shards must be between 1 and " + shardRouter.getMaxShards()));
+        }
+        if (!shardRouter.requestReshard(userId, shards)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "A reshard is already running for user: " + userId));
+        }
+        return ResponseEntity.accepted().body(Map.of("userId", userId, "shards", shards));
     }
 }
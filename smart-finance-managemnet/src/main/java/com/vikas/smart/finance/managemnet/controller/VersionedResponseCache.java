@@ -0,0 +1,78 @@
+package com.vikas.smart.finance.managemnet.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikas.smart.finance.managemnet.service.DataVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for per-user read endpoints.
+ * Answers If-None-Match with 304 from the user's data version, and serves the previously
+ * serialized body while the version is unchanged. The version is the DataVersion table's, cached
+ * per instance for up to a second, so another instance's write can be answered from the old
+ * version for that long.
+ */
+@Component
+public class VersionedResponseCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private record Body(long version, byte[] json) {}
+
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Body> bodies = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Body> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    @Autowired
+    public VersionedResponseCache(DataVersionService dataVersionService, ObjectMapper objectMapper) {
+        this.dataVersionService = dataVersionService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param view   distinguishes the different resources of one user (e.g. "transactions")
+     * @param loader computes the payload; only called when no body is cached for the current version
+     */
+    public ResponseEntity<byte[]> respond(String userId, String view, WebRequest request, Supplier<Object> loader) {
+        // Read the version before the data so a concurrent write can only make the body newer than its tag
+        long version = dataVersionService.current(userId);
+        String etag = dataVersionService.etag(version);
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        String key = userId + "|" + view;
+        Body cached = bodies.get(key);
+        if (cached == null || cached.version() != version) {
+            try {
+                cached = new Body(version, objectMapper.writeValueAsBytes(loader.get()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize " + view + " for user " + userId, e);
+            }
+            bodies.put(key, cached);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.json());
+    }
+}
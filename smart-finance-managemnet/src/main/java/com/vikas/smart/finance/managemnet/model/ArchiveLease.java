@@ -0,0 +1,29 @@
+package com.vikas.smart.finance.managemnet.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+/**
+ * Coordination item for the cold archive: {@code instance#<uuid>} heartbeats of running
+ * instances, and the {@code sweeper} lease held by the one instance allowed to archive.
+ */
+@DynamoDbBean
+public class ArchiveLease {
+
+    private String id;                  // Partition Key
+    private String owner;               // instance id
+    private long expiresAt;             // epoch millis
+
+    public ArchiveLease() {}
+
+    @DynamoDbPartitionKey
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    @DynamoDbAttribute("owner")
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    @DynamoDbAttribute("expiresAt")
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,23 @@
+package com.vikas.smart.finance.managemnet.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+/**
+ * A user's data version, shared by every instance; only ever raised with an atomic ADD.
+ */
+@DynamoDbBean
+public class DataVersion {
+
+    private String userId;              // Partition Key
+    private long version;
+
+    public DataVersion() {}
+
+    @DynamoDbPartitionKey
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    @DynamoDbAttribute("version")
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -7,10 +7,14 @@ import java.time.LocalDate;
 @DynamoDbBean
 public class Insight {
 
-    private String userId;  // Partition Key
-    private String type;    // Sort Key
+    private String userId;      // Partition Key
+    private String insightKey;  // Sort Key: type#createdAt#subject
+    private String type;
+    private String subject;     // category or vendor the insight is about
     private String message;
     private LocalDate date;
+    private String createdAt;   // UTC, fixed width so keys sort by time within a type
+    private Long expiresAt;     // TTL, epoch seconds
 
     public Insight() {}
 
@@ -19,9 +23,18 @@ public class Insight {
     public void setUserId(String userId) { this.userId = userId; }
 
     @DynamoDbSortKey
+    @DynamoDbAttribute("insightKey")
+    public String getInsightKey() { return insightKey; }
+    public void setInsightKey(String insightKey) { this.insightKey = insightKey; }
+
+    @DynamoDbAttribute("type")
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
 
+    @DynamoDbAttribute("subject")
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
     @DynamoDbAttribute("message")
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
@@ -30,4 +43,12 @@ public class Insight {
     @DynamoDbAttribute("date")
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
+
+    @DynamoDbAttribute("createdAt")
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    @DynamoDbAttribute("expiresAt")
+    public Long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Long expiresAt) { this.expiresAt = expiresAt; }
 }
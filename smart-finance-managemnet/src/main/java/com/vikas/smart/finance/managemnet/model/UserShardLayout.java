@@ -0,0 +1,35 @@
+package com.vikas.smart.finance.managemnet.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+/**
+ * How many Transaction partitions a user's rows are spread over.
+ * While a reshard is running {@code previousShards} still holds the old count,
+ * so readers cover both placements until the move is finished.
+ */
+@DynamoDbBean
+public class UserShardLayout {
+
+    private String userId;              // Partition Key
+    private int shards;
+    private int previousShards;
+    private long updatedAt;             // epoch millis
+
+    public UserShardLayout() {}
+
+    @DynamoDbPartitionKey
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    @DynamoDbAttribute("shards")
+    public int getShards() { return shards; }
+    public void setShards(int shards) { this.shards = shards; }
+
+    @DynamoDbAttribute("previousShards")
+    public int getPreviousShards() { return previousShards; }
+    public void setPreviousShards(int previousShards) { this.previousShards = previousShards; }
+
+    @DynamoDbAttribute("updatedAt")
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
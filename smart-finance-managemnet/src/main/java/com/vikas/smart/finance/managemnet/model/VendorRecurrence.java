@@ -0,0 +1,63 @@
+package com.vikas.smart.finance.managemnet.model;
+
+import com.vikas.smart.finance.managemnet.util.LocalDateConverter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compact per-user, per-vendor recurrence state.
+ * Updated in place on every transaction instead of rescanning history.
+ */
+@DynamoDbBean
+public class VendorRecurrence {
+
+    private String userId;              // Partition Key
+    private String vendor;              // Sort Key
+    private LocalDate lastSeen;
+    private int count;
+    private List<Integer> intervalHistogram;  // counts per RecurrenceDetector.Period bucket
+    private double amountMean;
+    private double amountM2;            // sum of squared deviations (Welford)
+    private double lastAmount;
+    private boolean needsRebuild;       // a charge arrived dated before lastSeen
+
+    public VendorRecurrence() {}
+
+    @DynamoDbPartitionKey
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    @DynamoDbSortKey
+    public String getVendor() { return vendor; }
+    public void setVendor(String vendor) { this.vendor = vendor; }
+
+    @DynamoDbConvertedBy(LocalDateConverter.class)
+    @DynamoDbAttribute("lastSeen")
+    public LocalDate getLastSeen() { return lastSeen; }
+    public void setLastSeen(LocalDate lastSeen) { this.lastSeen = lastSeen; }
+
+    @DynamoDbAttribute("count")
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    @DynamoDbAttribute("intervalHistogram")
+    public List<Integer> getIntervalHistogram() { return intervalHistogram; }
+    public void setIntervalHistogram(List<Integer> intervalHistogram) { this.intervalHistogram = intervalHistogram; }
+
+    @DynamoDbAttribute("amountMean")
+    public double getAmountMean() { return amountMean; }
+    public void setAmountMean(double amountMean) { this.amountMean = amountMean; }
+
+    @DynamoDbAttribute("amountM2")
+    public double getAmountM2() { return amountM2; }
+    public void setAmountM2(double amountM2) { this.amountM2 = amountM2; }
+
+    @DynamoDbAttribute("lastAmount")
+    public double getLastAmount() { return lastAmount; }
+    public void setLastAmount(double lastAmount) { this.lastAmount = lastAmount; }
+
+    @DynamoDbAttribute("needsRebuild")
+    public boolean isNeedsRebuild() { return needsRebuild; }
+    public void setNeedsRebuild(boolean needsRebuild) { this.needsRebuild = needsRebuild; }
+}
@@ -1,15 +1,21 @@
 package com.vikas.smart.finance.managemnet.service;
 
 import com.vikas.smart.finance.managemnet.model.Budget;
-import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.service.analytics.BudgetThresholdTracker;
+import com.vikas.smart.finance.managemnet.service.analytics.SpendingForecaster;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Handles CRUD operations and generates intelligent budget suggestions for users.
@@ -20,17 +26,41 @@ public class BudgetService {
     private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Budget> budgetTable;
     private final TransactionService transactionService;
+    private final DashboardEventService dashboardEventService;
+    private final DataVersionService dataVersionService;
+    private final SpendingForecaster spendingForecaster;
+    private final BudgetThresholdTracker budgetThresholdTracker;
 
     @Autowired
-    public BudgetService(DynamoDbEnhancedClient enhancedClient, TransactionService transactionService) {
+    @Lazy
+    private InsightService insightService;
+
+    @Autowired
+    public BudgetService(DynamoDbEnhancedClient enhancedClient,
+                         TransactionService transactionService,
+                         DashboardEventService dashboardEventService,
+                         DataVersionService dataVersionService,
+                         SpendingForecaster spendingForecaster,
+                         BudgetThresholdTracker budgetThresholdTracker) {
         this.enhancedClient = enhancedClient;
         this.transactionService = transactionService;
+        this.dashboardEventService = dashboardEventService;
+        this.dataVersionService = dataVersionService;
+        this.spendingForecaster = spendingForecaster;
+        this.budgetThresholdTracker = budgetThresholdTracker;
         this.budgetTable = enhancedClient.table("Budget", TableSchema.fromBean(Budget.class));
     }
 
-    /** Save or update a budget for a user */
+    /** Save or update a budget for a user; alerts if the new limit puts spend past a threshold */
     public void saveOrUpdateBudget(Budget budget) {
         budgetTable.putItem(budget);
+        dataVersionService.bump(budget.getUserId());
+        dashboardEventService.publish(budget.getUserId(), "budget", budget);
+
+        Insight threshold = budgetThresholdTracker.updateBudget(budget);
+        if (threshold != null && insightService != null) {
+            insightService.saveInsight(threshold);
+        }
     }
 
     /** Fetch all budgets for a given user */
@@ -42,18 +72,46 @@ public class BudgetService {
         return budgets;
     }
 
+    /** Category to budget amount */
+    public Map<String, Double> getBudgetLimits(String userId) {
+        return getBudgets(userId).stream()
+                .collect(Collectors.toMap(Budget::getCategory, Budget::getAmount, (a, b) -> b));
+    }
+
+    /**
+     * Projected month-end spend per category with 80%/95% bands and the chance of exceeding each budget
+     */
+    public Map<String, Object> forecastMonthEnd(String userId) {
+        return forecastResult(userId, spendingForecaster.forecast(userId, getBudgetLimits(userId)));
+    }
+
+    /**
+     * Month-end forecasts for many users, computed in parallel
+     */
+    public List<Map<String, Object>> forecastMonthEnd(Collection<String> userIds) {
+        return spendingForecaster.forecastAll(userIds, this::getBudgetLimits).entrySet().stream()
+                .map(e -> forecastResult(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> forecastResult(String userId, List<SpendingForecaster.CategoryForecast> forecasts) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("month", YearMonth.now().toString());
+        result.put("asOf", LocalDate.now().toString());
+        result.put("categories", forecasts);
+        return result;
+    }
+
     /**
      * Generate intelligent budget suggestions based on past transactions.
      */
     public List<Budget> generateBudgetSuggestions(String userId) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
+        TransactionService.SpendTotals totals = transactionService.getSpendTotals(userId);
 
-        if (transactions.isEmpty()) return Collections.emptyList();
+        if (totals.count() == 0) return Collections.emptyList();
 
-        Map<String, Double> spentPerCategory = new HashMap<>();
-        for (Transaction t : transactions) {
-            spentPerCategory.merge(t.getCategory(), t.getAmount(), Double::sum);
-        }
+        Map<String, Double> spentPerCategory = totals.byCategory();
 
         List<Budget> existingBudgets = getBudgets(userId);
         Map<String, Double> existingBudgetMap = new HashMap<>();
@@ -89,24 +147,9 @@ public class BudgetService {
 
     /**
      * Compare user's spending to budget and return a map of % spent.
+     * Served from the running per-category totals rather than the full transaction history.
      */
     public Map<String, Double> calculateSpendingRatio(String userId) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
-        List<Budget> budgets = getBudgets(userId);
-
-        Map<String, Double> spent = new HashMap<>();
-        for (Transaction t : transactions) {
-            spent.merge(t.getCategory(), t.getAmount(), Double::sum);
-        }
-
-        Map<String, Double> ratio = new HashMap<>();
-        for (Budget b : budgets) {
-            double budgetAmount = b.getAmount();
-            if (budgetAmount == 0) continue;
-            double used = spent.getOrDefault(b.getCategory(), 0.0);
-            ratio.put(b.getCategory(), Math.round((used / budgetAmount) * 100.0 * 100.0) / 100.0); // 2 decimals %
-        }
-
-        return ratio;
+        return budgetThresholdTracker.spendingRatios(userId);
     }
 }
@@ -0,0 +1,244 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes compact per-user dashboard deltas over Server-Sent Events.
+ * Each user has a bounded ring buffer of recent events so a reconnecting client
+ * can replay what it missed via Last-Event-ID instead of refetching everything.
+ * Event ids are {@code epoch-sequence}; a channel recreated after retirement or a restart gets a new
+ * epoch, so an id from an earlier channel always resyncs rather than replaying the wrong events.
+ * Publishing only enqueues: every stream has a bounded queue drained on a sender pool, and a
+ * stream that falls a full queue behind is closed so its client reconnects and replays.
+ */
+@Service
+public class DashboardEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardEventService.class);
+
+    private static final int MAX_CONNECTIONS = 1000;       // per node
+    private static final int MAX_CONNECTIONS_PER_USER = 5;
+    private static final int REPLAY_BUFFER_SIZE = 100;
+    private static final int MAX_QUEUED_EVENTS = 256;      // per stream
+    private static final int SENDER_THREADS = 8;
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final long IDLE_CHANNEL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    /** Thrown when a node or user is at its connection limit. */
+    public static class TooManyConnectionsException extends RuntimeException {
+        public TooManyConnectionsException(String message) {
+            super(message);
+        }
+    }
+
+    private record Event(long id, String name, Object data) {}
+
+    /** Guarded by its own monitor, except the subscriber list which the heartbeat reads without it. */
+    private static final class Channel {
+        final Event[] ring = new Event[REPLAY_BUFFER_SIZE];
+        final List<Stream> streams = new CopyOnWriteArrayList<>();
+        final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1);
+        long lastId;
+        long lastActivity = System.currentTimeMillis();
+        boolean retired;                                   // dropped from the map; callers retry
+
+        Event append(String name, Object data) {
+            Event event = new Event(++lastId, name, data);
+            ring[(int) (event.id % REPLAY_BUFFER_SIZE)] = event;
+            lastActivity = System.currentTimeMillis();
+            return event;
+        }
+
+        /** Events after {@code afterId}, or null if some of them were already overwritten. */
+        List<Event> since(long afterId) {
+            if (afterId > lastId) return null;
+            if (lastId - afterId > REPLAY_BUFFER_SIZE) return null;
+            List<Event> missed = new ArrayList<>();
+            for (long id = afterId + 1; id <= lastId; id++) {
+                missed.add(ring[(int) (id % REPLAY_BUFFER_SIZE)]);
+            }
+            return missed;
+        }
+    }
+
+    /** One open stream: events are queued and sent in order by at most one sender thread. */
+    private final class Stream {
+        final SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        final Channel channel;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(MAX_QUEUED_EVENTS);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Stream(Channel channel) {
+            this.channel = channel;
+        }
+
+        void offer(Event event) {
+            offer(SseEmitter.event()
+                    .id(channel.epoch + "-" + event.id())
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (!queue.offer(event)) {
+                log.debug("Closing a dashboard stream {} events behind", MAX_QUEUED_EVENTS);
+                release();
+                emitter.complete();
+                return;
+            }
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                release();                                 // shutting down
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    SseEmitter.SseEventBuilder event;
+                    while (!closed && (event = queue.poll()) != null) {
+                        emitter.send(event);
+                    }
+                    draining.set(false);
+                    // An offer between the last poll and the reset saw draining set and left it to us
+                } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                release();
+                emitter.completeWithError(e);
+            }
+        }
+
+        void release() {
+            closed = true;
+            queue.clear();
+            if (channel.streams.remove(this)) connections.decrementAndGet();
+        }
+    }
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS, r -> {
+        Thread thread = new Thread(r, "dashboard-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DashboardEventService() {
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Open a stream for a user, replaying buffered events after {@code lastEventId}.
+     * If the gap can no longer be replayed the client receives a "resync" event and should refetch.
+     */
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(userId, id -> new Channel());
+            synchronized (channel) {
+                if (channel.retired) continue;
+                if (channel.streams.size() >= MAX_CONNECTIONS_PER_USER) {
+                    throw new TooManyConnectionsException("Too many dashboard streams for user: " + userId);
+                }
+                if (connections.incrementAndGet() > MAX_CONNECTIONS) {
+                    connections.decrementAndGet();
+                    throw new TooManyConnectionsException("Dashboard stream limit reached on this node");
+                }
+
+                Stream stream = new Stream(channel);
+                channel.streams.add(stream);
+                stream.emitter.onCompletion(stream::release);
+                stream.emitter.onTimeout(stream::release);
+                stream.emitter.onError(e -> stream.release());
+
+                // Under the channel lock, so no event is both replayed and published to this stream
+                if (lastEventId != null && !lastEventId.isBlank()) {
+                    long afterId = parseId(channel, lastEventId);
+                    List<Event> missed = afterId < 0 ? null : channel.since(afterId);
+                    if (missed == null) {
+                        stream.offer(new Event(channel.lastId, "resync", Map.of("userId", userId)));
+                    } else {
+                        missed.forEach(stream::offer);
+                    }
+                }
+                return stream.emitter;
+            }
+        }
+    }
+
+    /**
+     * Buffer an event for the user and queue it on every open stream; never blocks on a client.
+     * Users without a channel are skipped: nobody is listening and a later subscriber resyncs anyway.
+     */
+    public void publish(String userId, String name, Object data) {
+        while (true) {
+            Channel channel = channels.get(userId);
+            if (channel == null) return;
+            synchronized (channel) {
+                if (channel.retired) continue;
+                Event event = channel.append(name, data);
+                for (Stream stream : channel.streams) {
+                    stream.offer(event);
+                }
+                return;
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        channels.forEach((userId, channel) -> {
+            for (Stream stream : channel.streams) {
+                // A stream with events queued is not idle
+                if (stream.queue.isEmpty()) stream.offer(SseEmitter.event().comment("heartbeat"));
+            }
+            synchronized (channel) {
+                if (channel.streams.isEmpty() && now - channel.lastActivity > IDLE_CHANNEL_MS) {
+                    channel.retired = true;
+                    channels.remove(userId, channel);
+                }
+            }
+        });
+    }
+
+    /** The sequence number in a Last-Event-ID, or -1 if it is malformed or from another epoch. */
+    private static long parseId(Channel channel, String id) {
+        String trimmed = id.trim();
+        int dash = trimmed.indexOf('-');
+        if (dash < 0 || !trimmed.substring(0, dash).equals(channel.epoch)) return -1;
+        try {
+            return Long.parseLong(trimmed.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        log.info("Closing {} dashboard streams", connections.get());
+        channels.values().forEach(channel -> channel.streams.forEach(stream -> stream.emitter.complete()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.vikas.smart.finance.managemnet.model.DataVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user data version, bumped after every transaction, budget or insight write.
+ * Read endpoints derive ETags from it so unchanged data can be answered without DynamoDB.
+ * Versions live in the DataVersion table and are raised with an atomic ADD, so every instance
+ * hands out the same tag for the same data and restarts keep them. Each instance caches a
+ * version for CACHE_MILLIS; another instance's write shows up here within that time, this
+ * instance's own writes at once. Each bump is published as a {@link Bumped} event. A bump that
+ * fails is logged rather than failing the write it follows, and retried on the user's next read.
+ */
+@Service
+public class DataVersionService {
+
+    private static final String TABLE = "DataVersion";
+    private static final long CACHE_MILLIS = 1000;
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private static final Logger log = LoggerFactory.getLogger(DataVersionService.class);
+
+    /** A user's data changed on this instance; listeners run on the writing thread. */
+    public record Bumped(String userId, long version) {}
+
+    private record Cached(long version, long readAt) {}
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<DataVersion> versionTable;
+    private final ApplicationEventPublisher events;
+    // Least recently used users drop out; their next read goes to the table
+    private final Map<String, Cached> versions = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                    return size() > MAX_CACHED_USERS;
+                }
+            });
+    private final Set<String> unbumped = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public DataVersionService(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient,
+                              ApplicationEventPublisher events) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.versionTable = enhancedClient.table(TABLE, TableSchema.fromBean(DataVersion.class));
+        this.events = events;
+    }
+
+    /** Call after the write has completed, never before. Never throws: the write has already happened. */
+    public void bump(String userId) {
+        try {
+            increment(userId);
+            unbumped.remove(userId);
+        } catch (SdkException e) {
+            // Until the retry succeeds, other instances may answer 304 for the old data
+            unbumped.add(userId);
+            versions.remove(userId);
+            log.warn("Could not bump the data version of user '{}'; retrying on the next read", userId, e);
+        }
+    }
+
+    private long increment(String userId) {
+        UpdateItemResponse response = dynamoDbClient.updateItem(r -> r
+                .tableName(TABLE)
+                .key(Map.of("userId", AttributeValue.fromS(userId)))
+                .updateExpression("ADD #v :one")
+                .expressionAttributeNames(Map.of("#v", "version"))
+                .expressionAttributeValues(Map.of(":one", AttributeValue.fromN("1")))
+                .returnValues(ReturnValue.UPDATED_NEW));
+        long version = Long.parseLong(response.attributes().get("version").n());
+        remember(userId, version);
+        events.publishEvent(new Bumped(userId, version));
+        return version;
+    }
+
+    public long current(String userId) {
+        if (unbumped.remove(userId)) bump(userId);
+        Cached cached = versions.get(userId);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.readAt() < CACHE_MILLIS) return cached.version();
+
+        DataVersion stored = versionTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(userId).build())
+                .consistentRead(true)
+                .build());
+        return remember(userId, stored == null ? 0 : stored.getVersion());
+    }
+
+    /** Strong ETag for a user's data at the given version. */
+    public String etag(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    /** Versions only grow; a read racing a bump must not move the cache back. */
+    private long remember(String userId, long version) {
+        long now = System.currentTimeMillis();
+        return versions.merge(userId, new Cached(version, now),
+                (old, fresh) -> old.version() > fresh.version() ? new Cached(old.version(), now) : fresh).version();
+    }
+}
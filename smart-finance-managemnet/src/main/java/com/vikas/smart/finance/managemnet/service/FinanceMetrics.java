@@ -0,0 +1,86 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.vikas.smart.finance.managemnet.util.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Thin wrapper over the Micrometer registry.
+ * Every timer publishes a Prometheus histogram plus client-side p50/p90/p99
+ * (HdrHistogram-backed), and feeds the current request's Server-Timing header.
+ */
+@Component
+public class FinanceMetrics {
+
+    private final MeterRegistry registry;
+
+    public FinanceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T time(String metric, String step, Supplier<T> work, String... tags) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            record(metric, step, System.nanoTime() - start, outcome, tags);
+        }
+    }
+
+    public void run(String metric, String step, Runnable work, String... tags) {
+        time(metric, step, () -> {
+            work.run();
+            return null;
+        }, tags);
+    }
+
+    public void record(String metric, String step, long nanos, String outcome, String... tags) {
+        register(Timer.builder(metric).tags(tags).tag("outcome", outcome)).record(nanos, TimeUnit.NANOSECONDS);
+        ServerTiming.record(step, nanos);
+    }
+
+    /** A timer outside any request breakdown, e.g. for background or SDK-reported durations. */
+    public Timer timer(String metric, String... tags) {
+        return register(Timer.builder(metric).tags(tags));
+    }
+
+    public void recordSize(String metric, double bytes, String... tags) {
+        DistributionSummary.builder(metric)
+                .baseUnit("bytes")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void increment(String metric, String... tags) {
+        increment(metric, 1, tags);
+    }
+
+    public void increment(String metric, double amount, String... tags) {
+        Counter.builder(metric).tags(tags).register(registry).increment(amount);
+    }
+
+    /** Micrometer holds {@code state} weakly, so the caller must keep it reachable. */
+    public <T> void gauge(String metric, T state, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(metric, state, value).tags(tags).register(registry);
+    }
+
+    private Timer register(Timer.Builder builder) {
+        return builder
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -1,106 +1,450 @@
 package com.vikas.smart.finance.managemnet.service;
 
-import com.vikas.smart.finance.managemnet.model.Budget;
 import com.vikas.smart.finance.managemnet.model.Insight;
 import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.analytics.BudgetThresholdTracker;
+import com.vikas.smart.finance.managemnet.service.analytics.RecurrenceDetector;
+import com.vikas.smart.finance.managemnet.service.analytics.SpendingForecaster;
+import com.vikas.smart.finance.managemnet.util.LocalDateConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Insight store: one item per generated insight, keyed type#createdAt#subject so a type's history
+ * is one key-prefix query, and expired by DynamoDB TTL on expiresAt. Each write also overwrites a
+ * LATEST#type#subject item, so the current insights are one prefix query however long the history
+ * is. Table "InsightV2" needs sort key insightKey (S) and TTL enabled on expiresAt. Regeneration
+ * writes only insights whose message changed, batched, and deletes the LATEST items of regenerated
+ * types whose condition no longer holds. A user's first read copies their latest insights from the
+ * history and from the legacy "Insight" table into LATEST items, then writes a marker item.
+ */
 @Service
 public class InsightService {
 
+    private static final Logger log = LoggerFactory.getLogger(InsightService.class);
+
+    private static final String TABLE = "InsightV2";
+    private static final String KEY_SEPARATOR = "#";
+    private static final String LATEST_PREFIX = "LATEST" + KEY_SEPARATOR;
+    private static final String MIGRATED_KEY = LATEST_PREFIX;     // sorts before every LATEST item
+    private static final String LEGACY_TABLE = "Insight";
+    private static final long TTL_SECONDS = TimeUnit.DAYS.toSeconds(90);
+    private static final int BATCH_WRITE_LIMIT = 25;     // DynamoDB BatchWriteItem maximum
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+    private static final DateTimeFormatter CREATED_AT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final List<String> TYPES = List.of("Budget Exceeded", "Budget Warning", "Projected Overspend",
+            "Unusual Spend", "Subscription", "Recurring Payment");
+    // Types regenerate() recomputes in full; Unusual Spend is raised per write and left to expire
+    private static final Set<String> REGENERATED = Set.of("Budget Exceeded", "Budget Warning",
+            "Projected Overspend", "Subscription", "Recurring Payment");
+    private static final int MAX_REMEMBERED_USERS = 10_000;
+
+    private record Written(String message, long epochSecond) {}
+
     private final TransactionService transactionService;
 
     @Autowired
     @Lazy
     private final BudgetService budgetService;
+    private final RecurrenceDetector recurrenceDetector;
+    private final BudgetThresholdTracker budgetThresholdTracker;
+    private final SpendingForecaster spendingForecaster;
+    private final DashboardEventService dashboardEventService;
+    private final DataVersionService dataVersionService;
+    private final FinanceMetrics metrics;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Insight> insightTable;
+    // Least recently written users are forgotten first; their next regeneration rewrites unchanged insights
+    private final Map<String, Map<String, Written>> lastWritten = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Written>> eldest) {
+                    return size() > MAX_REMEMBERED_USERS;
+                }
+            });
 
     @Autowired
     public InsightService(TransactionService transactionService,
                           BudgetService budgetService,
+                          RecurrenceDetector recurrenceDetector,
+                          BudgetThresholdTracker budgetThresholdTracker,
+                          SpendingForecaster spendingForecaster,
+                          DashboardEventService dashboardEventService,
+                          DataVersionService dataVersionService,
+                          FinanceMetrics metrics,
+                          DynamoDbClient dynamoDbClient,
                           DynamoDbEnhancedClient enhancedClient) {
         this.transactionService = transactionService;
         this.budgetService = budgetService;
-        this.insightTable = enhancedClient.table("Insight", TableSchema.fromBean(Insight.class));
+        this.recurrenceDetector = recurrenceDetector;
+        this.budgetThresholdTracker = budgetThresholdTracker;
+        this.spendingForecaster = spendingForecaster;
+        this.dashboardEventService = dashboardEventService;
+        this.dataVersionService = dataVersionService;
+        this.metrics = metrics;
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.insightTable = enhancedClient.table(TABLE, TableSchema.fromBean(Insight.class));
     }
 
+    /**
+     * Latest insight per type and subject, newest first
+     */
     public List<Insight> getInsights(String userId) {
+        QueryConditional query = QueryConditional.sortBeginsWith(
+                k -> k.partitionValue(userId).sortValue(LATEST_PREFIX));
         List<Insight> insights = new ArrayList<>();
-        QueryConditional query = QueryConditional.keyEqualTo(k -> k.partitionValue(userId));
         insightTable.query(query).items().forEach(insights::add);
+        boolean migrated = insights.removeIf(i -> MIGRATED_KEY.equals(i.getInsightKey()));
+        if (!migrated) insights = migrate(userId, insights);
+        insights.sort(Comparator.comparing(Insight::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
         return insights;
     }
 
-    public void generateInsights(String userId) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
-        if (transactions.isEmpty()) return;
+    /**
+     * One-time copy of a user's latest insight per type and subject from the InsightV2 history and the
+     * legacy "Insight" table into LATEST items. Puts are conditional, so a concurrent regeneration wins.
+     *
+     * @return the LATEST items after the copy
+     */
+    private List<Insight> migrate(String userId, List<Insight> current) {
+        Map<String, Insight> latest = new HashMap<>();
+        legacyInsights(userId).forEach(i -> latest.put(pair(i), i));
+        // Keys sort by time within a type, so later items replace earlier ones
+        insightTable.query(QueryConditional.keyEqualTo(k -> k.partitionValue(userId))).items().stream()
+                .filter(i -> i.getInsightKey() != null && !i.getInsightKey().startsWith(LATEST_PREFIX))
+                .forEach(i -> latest.put(pair(i), i));
+        current.forEach(i -> latest.remove(pair(i)));
 
-        List<Budget> budgets = budgetService.getBudgets(userId);
+        List<Insight> result = new ArrayList<>(current);
+        Expression absent = Expression.builder().expression("attribute_not_exists(insightKey)").build();
+        for (Insight insight : latest.values()) {
+            Insight copy = latest(insight);
+            try {
+                insightTable.putItem(PutItemEnhancedRequest.builder(Insight.class)
+                        .item(copy).conditionExpression(absent).build());
+                result.add(copy);
+            } catch (ConditionalCheckFailedException e) {
+                // Written by a regeneration since the query; it is newer
+            }
+        }
 
-        Map<String, Double> spendingByCategory = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)));
+        Insight marker = new Insight();
+        marker.setUserId(userId);
+        marker.setInsightKey(MIGRATED_KEY);
+        insightTable.putItem(marker);
+        if (!latest.isEmpty()) log.info("Migrated {} insights for user '{}' to LATEST items", latest.size(), userId);
+        return result;
+    }
 
+    /** Insights in the pre-V2 table (sort key type, no subject), stamped with a fresh TTL */
+    private List<Insight> legacyInsights(String userId) {
         List<Insight> insights = new ArrayList<>();
+        LocalDateConverter dates = new LocalDateConverter();
+        Instant now = Instant.now();
+        try {
+            dynamoDbClient.queryPaginator(r -> r
+                            .tableName(LEGACY_TABLE)
+                            .keyConditionExpression("userId = :u")
+                            .expressionAttributeValues(Map.of(":u", AttributeValue.fromS(userId))))
+                    .items()
+                    .forEach(item -> {
+                        if (!item.containsKey("type") || !item.containsKey("message")) return;
+                        Insight insight = new Insight();
+                        insight.setUserId(userId);
+                        insight.setType(item.get("type").s());
+                        insight.setMessage(item.get("message").s());
+                        insight.setDate(item.containsKey("date") ? dates.transformTo(item.get("date")) : null);
+                        stamp(insight, now);
+                        insights.add(insight);
+                    });
+        } catch (ResourceNotFoundException e) {
+            // Deployments that started on InsightV2 have no legacy table
+        }
+        return insights;
+    }
+
+    /** Category to the budget alert types currently standing for it */
+    public Map<String, Set<String>> currentBudgetAlerts(String userId) {
+        Map<String, Set<String>> alerts = new HashMap<>();
+        insightTable.query(QueryConditional.sortBeginsWith(
+                        k -> k.partitionValue(userId).sortValue(LATEST_PREFIX + "Budget ")))
+                .items()
+                .forEach(i -> alerts.computeIfAbsent(i.getSubject(), c -> new HashSet<>()).add(i.getType()));
+        return alerts;
+    }
+
+    /**
+     * Most recent insights of one type, newest first, read with a key-prefix query
+     */
+    public List<Insight> getInsightsByType(String userId, String type, int limit) {
+        String canonical = TYPES.stream().filter(t -> t.equalsIgnoreCase(type)).findFirst().orElse(type);
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortBeginsWith(
+                        k -> k.partitionValue(userId).sortValue(canonical + KEY_SEPARATOR)))
+                .scanIndexForward(false)
+                .limit(limit)
+                .build();
+        return insightTable.query(request).items().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void saveInsight(Insight insight) {
+        stamp(insight, Instant.now());
+        insightTable.putItem(insight);
+        insightTable.putItem(latest(insight));
+        remember(insight);
+        dataVersionService.bump(insight.getUserId());
+        dashboardEventService.publish(insight.getUserId(), "insights", List.of(insight));
+    }
+
+    /**
+     * Write the insights whose message changed since we last wrote them, in batches of 25
+     */
+    private void saveChanged(String userId, List<Insight> insights) {
+        Instant now = Instant.now();
+        List<Insight> changed = new ArrayList<>();
+        for (Insight insight : insights) {
+            if (unchanged(insight, now)) continue;
+            stamp(insight, now);
+            changed.add(insight);
+        }
+        if (changed.isEmpty()) return;
+
+        List<Insight> items = new ArrayList<>(changed.size() * 2);
+        for (Insight insight : changed) {
+            items.add(insight);
+            items.add(latest(insight));
+        }
+        List<Insight> failed = writeBatch(items);
+        // Either item missing means the write is retried on the next regeneration
+        Set<String> failedKeys = new HashSet<>();
+        failed.forEach(i -> failedKeys.add(pair(i)));
+        changed.removeIf(i -> failedKeys.contains(pair(i)));
+        changed.forEach(this::remember);
+        if (!failedKeys.isEmpty()) {
+            log.warn("{} insights for user '{}' were not written", failedKeys.size(), userId);
+        }
+        if (!changed.isEmpty()) {
+            dataVersionService.bump(userId);
+            dashboardEventService.publish(userId, "insights", changed);
+        }
+    }
+
+    /**
+     * Delete the LATEST items of regenerated types that this regeneration did not produce. Items written
+     * after it started are kept, so a concurrent per-write alert is not lost.
+     */
+    private void retireStale(String userId, Set<String> active, String startedAt) {
+        List<Insight> stale = new ArrayList<>();
+        insightTable.query(QueryConditional.sortBeginsWith(k -> k.partitionValue(userId).sortValue(LATEST_PREFIX)))
+                .items()
+                .forEach(i -> {
+                    if (i.getType() != null && REGENERATED.contains(i.getType()) && !active.contains(pair(i))
+                            && i.getCreatedAt() != null && i.getCreatedAt().compareTo(startedAt) < 0) {
+                        stale.add(i);
+                    }
+                });
+        if (stale.isEmpty()) return;
+
+        List<Insight> failed = deleteBatch(stale);
+        stale.removeAll(failed);
+        Map<String, Written> user = lastWritten.get(userId);
+        if (user != null) stale.forEach(i -> user.remove(pair(i)));
+        if (!failed.isEmpty()) {
+            log.warn("{} stale insights for user '{}' were not deleted", failed.size(), userId);
+        }
+        if (!stale.isEmpty()) dataVersionService.bump(userId);
+    }
 
-        for (Budget budget : budgets) {
-            double spent = spendingByCategory.getOrDefault(budget.getCategory(), 0.0);
-            double limit = budget.getAmount();
-            double ratio = limit > 0 ? (spent / limit) * 100.0 : 0;
-
-            if (ratio >= 100) {
-                Insight critical = new Insight();
-                critical.setUserId(userId);
-                critical.setType("Budget Exceeded");
-                critical.setMessage("🚨 Exceeded budget for " + budget.getCategory() +
-                        " (Spent: " + spent + ", Limit: " + limit + ")");
-                critical.setDate(LocalDate.now());
-                insights.add(critical);
-            } else if (ratio >= 75) {
-                Insight warning = new Insight();
-                warning.setUserId(userId);
-                warning.setType("Budget Warning");
-                warning.setMessage("⚠️ Used " + Math.round(ratio) + "% of " + budget.getCategory() +
-                        " budget (" + spent + "/" + limit + ")");
-                warning.setDate(LocalDate.now());
-                insights.add(warning);
+    /** Type and subject, the identity of a LATEST item */
+    private static String pair(Insight insight) {
+        return insight.getType() + KEY_SEPARATOR + (insight.getSubject() != null ? insight.getSubject() : "");
+    }
+
+    /** Key, creation time, TTL and date for a new insight */
+    private static void stamp(Insight insight, Instant now) {
+        String createdAt = CREATED_AT.format(now);
+        insight.setCreatedAt(createdAt);
+        insight.setInsightKey(insight.getType() + KEY_SEPARATOR + createdAt + KEY_SEPARATOR +
+                (insight.getSubject() != null ? insight.getSubject() : ""));
+        insight.setExpiresAt(now.getEpochSecond() + TTL_SECONDS);
+        if (insight.getDate() == null) insight.setDate(LocalDate.now());
+    }
+
+    /** Copy of a stamped insight under its LATEST#type#subject key, overwritten by the next write */
+    private static Insight latest(Insight insight) {
+        Insight latest = new Insight();
+        latest.setUserId(insight.getUserId());
+        latest.setInsightKey(LATEST_PREFIX + pair(insight));
+        latest.setType(insight.getType());
+        latest.setSubject(insight.getSubject());
+        latest.setMessage(insight.getMessage());
+        latest.setDate(insight.getDate());
+        latest.setCreatedAt(insight.getCreatedAt());
+        latest.setExpiresAt(insight.getExpiresAt());
+        return latest;
+    }
+
+    /** Same message as the last write, and that write is not yet halfway to expiry */
+    private boolean unchanged(Insight insight, Instant now) {
+        Map<String, Written> user = lastWritten.get(insight.getUserId());
+        Written written = user != null ? user.get(pair(insight)) : null;
+        return written != null && written.message().equals(insight.getMessage())
+                && now.getEpochSecond() - written.epochSecond() < TTL_SECONDS / 2;
+    }
+
+    private void remember(Insight insight) {
+        lastWritten.computeIfAbsent(insight.getUserId(), id -> new ConcurrentHashMap<>())
+                .put(pair(insight), new Written(insight.getMessage(), insight.getExpiresAt() - TTL_SECONDS));
+    }
+
+    /**
+     * BatchWriteItem in chunks of 25, retrying unprocessed items with backoff
+     *
+     * @return items DynamoDB still had not accepted after all retries
+     */
+    private List<Insight> writeBatch(List<Insight> insights) {
+        List<Insight> failed = new ArrayList<>();
+        for (int start = 0; start < insights.size(); start += BATCH_WRITE_LIMIT) {
+            List<Insight> pending = insights.subList(start, Math.min(start + BATCH_WRITE_LIMIT, insights.size()));
+
+            for (int attempt = 0; !pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS; attempt++) {
+                if (attempt > 0) backoff(attempt);
+                WriteBatch.Builder<Insight> batch = WriteBatch.builder(Insight.class)
+                        .mappedTableResource(insightTable);
+                pending.forEach(batch::addPutItem);
+                BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.addWriteBatch(batch.build()));
+                pending = result.unprocessedPutItemsForTable(insightTable);
             }
+            failed.addAll(pending);
         }
+        return failed;
+    }
+
+    /**
+     * BatchWriteItem deletes of the given items' keys, retried like {@link #writeBatch}
+     *
+     * @return items whose delete DynamoDB still had not accepted
+     */
+    private List<Insight> deleteBatch(List<Insight> insights) {
+        List<Insight> failed = new ArrayList<>();
+        for (int start = 0; start < insights.size(); start += BATCH_WRITE_LIMIT) {
+            List<Insight> chunk = insights.subList(start, Math.min(start + BATCH_WRITE_LIMIT, insights.size()));
+            List<Key> pending = chunk.stream()
+                    .map(i -> Key.builder().partitionValue(i.getUserId()).sortValue(i.getInsightKey()).build())
+                    .collect(Collectors.toList());
 
-        // Recurring vendor detection
-        Map<String, Long> recurring = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getVendor, Collectors.counting()));
-
-        recurring.forEach((vendor, count) -> {
-            if (count >= 2) {
-                Insight recurringPayment = new Insight();
-                recurringPayment.setUserId(userId);
-                recurringPayment.setType("Recurring Payment");
-                recurringPayment.setMessage("💡 Detected recurring payments to " + vendor);
-                recurringPayment.setDate(LocalDate.now());
-                insights.add(recurringPayment);
+            for (int attempt = 0; !pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS; attempt++) {
+                if (attempt > 0) backoff(attempt);
+                WriteBatch.Builder<Insight> batch = WriteBatch.builder(Insight.class)
+                        .mappedTableResource(insightTable);
+                pending.forEach(batch::addDeleteItem);
+                BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.addWriteBatch(batch.build()));
+                pending = result.unprocessedDeleteItemsForTable(insightTable);
             }
-        });
+            Set<String> unprocessed = pending.stream()
+                    .map(k -> k.sortKeyValue().map(AttributeValue::s).orElse(""))
+                    .collect(Collectors.toSet());
+            chunk.stream().filter(i -> unprocessed.contains(i.getInsightKey())).forEach(failed::add);
+        }
+        return failed;
+    }
 
-        insights.forEach(insightTable::putItem);
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(Math.min(2000L, 50L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    public List<Insight> getInsightsByType(String userId, String type) {
-        List<Insight> all = getInsights(userId);
-        List<Insight> filtered = new ArrayList<>();
-        for (Insight i : all) {
-            if (i.getType().equalsIgnoreCase(type)) filtered.add(i);
+    public void generateInsights(String userId) {
+        metrics.run("finance.insights.regeneration", "insights", () -> regenerate(userId));
+    }
+
+    private void regenerate(String userId) {
+        String startedAt = CREATED_AT.format(Instant.now());
+        List<Transaction> transactions = transactionService.getTransactions(userId);
+        if (transactions.isEmpty()) {
+            retireStale(userId, Set.of(), startedAt);
+            return;
+        }
+
+        // Budget Warning / Budget Exceeded are raised per write by BudgetThresholdTracker; this catches
+        // crossings made while the user was not loaded, e.g. by a bulk import or before a restart
+        List<Insight> insights = new ArrayList<>(budgetThresholdTracker.evaluateAll(userId));
+
+        // Month-end projection: warn while there is still time to stay within budget
+        Map<String, Double> limits = budgetService.getBudgetLimits(userId);
+        for (SpendingForecaster.CategoryForecast forecast : spendingForecaster.forecast(userId, limits)) {
+            Double probability = forecast.overspendProbability();
+            if (probability == null || probability < 0.5 || forecast.spentToDate() >= forecast.budget()) continue;
+
+            Insight projected = new Insight();
+            projected.setUserId(userId);
+            projected.setType("Projected Overspend");
+            projected.setSubject(forecast.category());
+            projected.setMessage("📈 " + forecast.category() + " is on track for ~" + forecast.projected() +
+                    " by " + YearMonth.now().atEndOfMonth() + " against a budget of " + forecast.budget() +
+                    " (80% range " + forecast.low80() + "–" + forecast.high80() + ", " +
+                    Math.round(probability * 100) + "% likely to exceed)");
+            projected.setDate(LocalDate.now());
+            insights.add(projected);
         }
-        return filtered;
+
+        // Recurring vendor detection from incremental per-vendor interval statistics
+        recurrenceDetector.reconcile(userId, transactions);
+        for (RecurrenceDetector.RecurringPayment payment : recurrenceDetector.findRecurring(userId)) {
+            Insight recurringPayment = new Insight();
+            recurringPayment.setUserId(userId);
+            recurringPayment.setType(payment.subscription() ? "Subscription" : "Recurring Payment");
+            recurringPayment.setSubject(payment.vendor());
+            recurringPayment.setMessage("💡 Detected " + payment.period().name().toLowerCase() +
+                    " payments to " + payment.vendor() +
+                    " (next charge ~" + payment.expectedAmount() + " on " + payment.nextChargeDate() + ")");
+            recurringPayment.setDate(LocalDate.now());
+            insights.add(recurringPayment);
+        }
+
+        saveChanged(userId, insights);
+
+        // A standing budget alert was written when it was crossed, not necessarily by this pass
+        Set<String> active = new HashSet<>();
+        insights.forEach(i -> active.add(pair(i)));
+        budgetThresholdTracker.alerts(userId).forEach((category, level) -> active.add(
+                (level == BudgetThresholdTracker.Level.EXCEEDED ? "Budget Exceeded" : "Budget Warning")
+                        + KEY_SEPARATOR + category));
+        retireStale(userId, active, startedAt);
     }
 }
@@ -0,0 +1,219 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.vikas.smart.finance.managemnet.config.ArchiveProperties;
+import com.vikas.smart.finance.managemnet.config.AwsProperties;
+import com.vikas.smart.finance.managemnet.config.ShardingProperties;
+import com.vikas.smart.finance.managemnet.model.ArchiveLease;
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.DataVersion;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.UserShardLayout;
+import com.vikas.smart.finance.managemnet.model.VendorRecurrence;
+import com.vikas.smart.finance.managemnet.service.analytics.RecurrenceDetector;
+import com.vikas.smart.finance.managemnet.service.analytics.TrendSketchService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs startup work in the background so the context starts without touching AWS.
+ * Phases run in order on one worker thread: CONNECT (retried until DynamoDB answers and every
+ * table the app uses exists, creating missing ones if aws.dynamodb.create-tables is set),
+ * SEED (simulated users) and WARM_UP (per-user caches for recently active users).
+ * Readiness follows CONNECT only; seeding and warm-up never hold traffic back. The transaction
+ * simulation only starts once SEED succeeded, since it writes for the seeded users.
+ */
+@Service
+public class StartupService {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupService.class);
+
+    public enum Phase { CONNECT, SEED, WARM_UP }
+
+    public enum State { PENDING, RUNNING, DONE, FAILED }
+
+    public record PhaseStatus(State state, long elapsedMs, String error) {
+    }
+
+    private static final long CONNECT_RETRY_SECONDS = 5;
+    private static final int RECENT_DAYS = 30;
+    private static final int MAX_WARM_USERS = 200;
+    private static final int MAX_SCANNED_ITEMS = 5000;
+    // Tables whose items expire through DynamoDB TTL, and the attribute holding the expiry
+    private static final Map<String, String> TTL_ATTRIBUTES = Map.of("InsightV2", "expiresAt");
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final AwsProperties awsProperties;
+    private final ArchiveProperties archiveProperties;
+    private final ShardingProperties shardingProperties;
+    private final TransactionService transactionService;
+    private final TransactionMonitorService monitorService;
+    private final TrendSketchService trendSketchService;
+    private final RecurrenceDetector recurrenceDetector;
+
+    private final Map<Phase, PhaseStatus> phases = Collections.synchronizedMap(new EnumMap<>(Phase.class));
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "startup-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int connectAttempts;
+
+    @Autowired
+    public StartupService(DynamoDbClient dynamoDbClient,
+                          DynamoDbEnhancedClient enhancedClient,
+                          AwsProperties awsProperties,
+                          ArchiveProperties archiveProperties,
+                          ShardingProperties shardingProperties,
+                          TransactionService transactionService,
+                          TransactionMonitorService monitorService,
+                          TrendSketchService trendSketchService,
+                          RecurrenceDetector recurrenceDetector) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+        this.awsProperties = awsProperties;
+        this.archiveProperties = archiveProperties;
+        this.shardingProperties = shardingProperties;
+        this.transactionService = transactionService;
+        this.monitorService = monitorService;
+        this.trendSketchService = trendSketchService;
+        this.recurrenceDetector = recurrenceDetector;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseStatus(State.PENDING, 0, null));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        worker.execute(this::connect);
+    }
+
+    public boolean isConnected() {
+        return phases.get(Phase.CONNECT).state() == State.DONE;
+    }
+
+    public Map<Phase, PhaseStatus> getPhases() {
+        synchronized (phases) {
+            return new EnumMap<>(phases);
+        }
+    }
+
+    /** First call resolves credentials, endpoints and opens a pooled connection. */
+    private void connect() {
+        connectAttempts++;
+        boolean connected = run(Phase.CONNECT, this::checkTables);
+        if (!connected) {
+            log.warn("DynamoDB not reachable or not set up (attempt {}), retrying in {}s", connectAttempts, CONNECT_RETRY_SECONDS);
+            worker.schedule(this::connect, CONNECT_RETRY_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+        if (run(Phase.SEED, monitorService::seed)) {
+            monitorService.startSimulation();
+        } else {
+            log.warn("Not starting the transaction simulation: seeding failed");
+        }
+        run(Phase.WARM_UP, this::warmUp);
+    }
+
+    /** Table name to bean for every table the services open with the current settings; names must match theirs. */
+    private Map<String, Class<?>> tables() {
+        Map<String, Class<?>> tables = new LinkedHashMap<>();
+        tables.put("Transaction", Transaction.class);
+        tables.put("Budget", Budget.class);
+        tables.put("InsightV2", Insight.class);
+        tables.put("VendorRecurrence", VendorRecurrence.class);
+        tables.put("DataVersion", DataVersion.class);
+        if (archiveProperties.isEnabled()) {
+            tables.put("ArchiveLease", ArchiveLease.class);
+        }
+        if (shardingProperties.isEnabled()) {
+            tables.put("TransactionShards", UserShardLayout.class);
+        }
+        return tables;
+    }
+
+    private void checkTables() {
+        List<String> missing = new ArrayList<>();
+        tables().forEach((name, bean) -> {
+            try {
+                dynamoDbClient.describeTable(r -> r.tableName(name));
+            } catch (ResourceNotFoundException e) {
+                missing.add(name);
+            }
+        });
+        if (missing.isEmpty()) return;
+        if (!awsProperties.getDynamodb().isCreateTables()) {
+            throw new IllegalStateException("Missing DynamoDB tables " + missing
+                    + "; create them or set aws.dynamodb.create-tables=true");
+        }
+        for (String name : missing) {
+            boolean created = false;
+            try {
+                enhancedClient.table(name, TableSchema.fromBean(tables().get(name))).createTable();
+                created = true;
+                log.info("Created DynamoDB table {}", name);
+            } catch (ResourceInUseException e) {
+                // Another instance is creating it
+            }
+            dynamoDbClient.waiter().waitUntilTableExists(r -> r.tableName(name));
+            String ttl = TTL_ATTRIBUTES.get(name);
+            if (created && ttl != null) {
+                dynamoDbClient.updateTimeToLive(r -> r.tableName(name)
+                        .timeToLiveSpecification(s -> s.attributeName(ttl).enabled(true)));
+            }
+        }
+    }
+
+    private void warmUp() {
+        Set<String> users = new LinkedHashSet<>(monitorService.getUserIds());
+        users.addAll(transactionService.findRecentlyActiveUsers(
+                LocalDate.now().minusDays(RECENT_DAYS), MAX_WARM_USERS, MAX_SCANNED_ITEMS));
+
+        int warmed = 0;
+        for (String userId : users) {
+            if (warmed == MAX_WARM_USERS) break;
+            List<Transaction> history = transactionService.getTransactions(userId);
+            trendSketchService.preload(userId, history);
+            recurrenceDetector.reconcile(userId, history);
+            warmed++;
+        }
+        log.info("Warmed caches for {} users", warmed);
+    }
+
+    private boolean run(Phase phase, Runnable work) {
+        long started = System.currentTimeMillis();
+        phases.put(phase, new PhaseStatus(State.RUNNING, 0, null));
+        try {
+            work.run();
+            phases.put(phase, new PhaseStatus(State.DONE, System.currentTimeMillis() - started, null));
+            log.info("Startup phase {} finished in {} ms", phase, System.currentTimeMillis() - started);
+            return true;
+        } catch (RuntimeException e) {
+            phases.put(phase, new PhaseStatus(State.FAILED, System.currentTimeMillis() - started, e.getMessage()));
+            log.warn("Startup phase {} failed", phase, e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
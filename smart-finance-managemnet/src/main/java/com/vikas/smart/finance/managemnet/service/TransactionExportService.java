@@ -0,0 +1,159 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.archive.ColdArchiveService;
+import com.vikas.smart.finance.managemnet.service.ingest.PendingWrites;
+import com.vikas.smart.finance.managemnet.service.shard.ShardRouter;
+import com.vikas.smart.finance.managemnet.util.LazyIterators;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams transactions out of DynamoDB page by page straight into an output stream.
+ * Only one result page (or archive segment) is held at a time, so memory stays flat regardless
+ * of export size.
+ */
+@Service
+public class TransactionExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String[] CSV_HEADER = {"userId", "transactionId", "date", "vendor", "category", "amount"};
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final DynamoDbTable<Transaction> transactionTable;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final ColdArchiveService coldArchive;
+    private final PendingWrites pendingWrites;
+
+    @Autowired
+    public TransactionExportService(DynamoDbEnhancedClient enhancedClient, ObjectMapper objectMapper,
+                                    ShardRouter shardRouter, ColdArchiveService coldArchive,
+                                    PendingWrites pendingWrites) {
+        this.transactionTable = enhancedClient.table("Transaction", TableSchema.fromBean(Transaction.class));
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.coldArchive = coldArchive;
+        this.pendingWrites = pendingWrites;
+    }
+
+    /**
+     * Write matching transactions to {@code out}.
+     *
+     * @param userId a single user's partitions, or null to scan the whole table
+     * @param from   inclusive lower date bound, or null
+     * @param to     inclusive upper date bound, or null
+     * @return number of rows written
+     */
+    public long export(String userId, LocalDate from, LocalDate to, Format format, boolean gzip,
+                       OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        long rows = 0;
+        if (format == Format.CSV) {
+            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(CSV_HEADER).build());
+            for (Transaction t : source(userId, from, to)) {
+                printer.printRecord(t.getUserId(), t.getTransactionId(), t.getDate(),
+                        t.getVendor(), t.getCategory(), t.getAmount());
+                if (++rows % FLUSH_EVERY_ROWS == 0) printer.flush();
+            }
+            printer.flush();
+        } else {
+            for (Transaction t : source(userId, from, to)) {
+                writer.write(objectMapper.writeValueAsString(t));
+                writer.write('\n');
+                if (++rows % FLUSH_EVERY_ROWS == 0) writer.flush();
+            }
+            writer.flush();
+        }
+
+        if (target instanceof GZIPOutputStream gzipStream) gzipStream.finish();
+        return rows;
+    }
+
+    /**
+     * Lazily paged items; the SDK fetches the next page only when iteration reaches it.
+     * A single user's export matches {@link TransactionService#getTransactions}: archived rows one
+     * segment at a time, then each partition queried once the previous is exhausted with unflushed
+     * write-behind rows laid over it, then unflushed rows not yet in DynamoDB. A whole-table export
+     * covers the rows in DynamoDB only.
+     */
+    private Iterable<Transaction> source(String userId, LocalDate from, LocalDate to) {
+        Expression filter = dateFilter(from, to);
+        if (userId != null) {
+            List<String> partitions = shardRouter.readPartitions(userId);
+            return () -> {
+                Set<String> archived = coldArchive.archivedIds(userId);
+                Map<String, Transaction> unseen = new LinkedHashMap<>(pendingWrites.snapshot(userId));
+
+                List<Supplier<Iterator<Transaction>>> sources = new ArrayList<>();
+                sources.add(() -> coldArchive.iterate(userId));
+                for (String partition : partitions) {
+                    sources.add(() -> {
+                        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                                .queryConditional(QueryConditional.keyEqualTo(k -> k.partitionValue(partition)));
+                        if (filter != null) request.filterExpression(filter);
+                        return LazyIterators.mapNotNull(transactionTable.query(request.build()).items().iterator(), t -> {
+                            Transaction newer = unseen.remove(t.getTransactionId());
+                            if (archived.contains(t.getTransactionId())) return null;
+                            return newer != null ? newer : t;
+                        });
+                    });
+                }
+                sources.add(() -> LazyIterators.mapNotNull(unseen.values().iterator(),
+                        t -> archived.contains(t.getTransactionId()) ? null : t));
+
+                return LazyIterators.mapNotNull(LazyIterators.concat(sources), t -> {
+                    if (!inRange(t.getDate(), from, to)) return null;
+                    t.setUserId(userId);
+                    return t;
+                });
+            };
+        }
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder();
+        if (filter != null) request.filterExpression(filter);
+        return () -> transactionTable.scan(request.build()).items().stream()
+                .peek(t -> t.setUserId(shardRouter.userIdOf(t.getUserId())))
+                .iterator();
+    }
+
+    /** Archived and unflushed rows are not filtered by DynamoDB. */
+    private static boolean inRange(LocalDate date, LocalDate from, LocalDate to) {
+        if (from == null && to == null) return true;
+        if (date == null) return false;
+        return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    /** Dates are stored as ISO-8601 strings, so lexical comparison matches date order. */
+    private static Expression dateFilter(LocalDate from, LocalDate to) {
+        if (from == null && to == null) return null;
+
+        Expression.Builder filter = Expression.builder().putExpressionName("#d", "date");
+        if (from != null) filter.putExpressionValue(":from", AttributeValue.fromS(from.toString()));
+        if (to != null) filter.putExpressionValue(":to", AttributeValue.fromS(to.toString()));
+
+        if (from != null && to != null) return filter.expression("#d BETWEEN :from AND :to").build();
+        if (from != null) return filter.expression("#d >= :from").build();
+        return filter.expression("#d <= :to").build();
+    }
+}
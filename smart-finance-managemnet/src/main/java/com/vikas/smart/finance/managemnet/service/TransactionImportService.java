@@ -0,0 +1,351 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.ingest.DuplicateDetector;
+import com.vikas.smart.finance.managemnet.service.shard.ShardRouter;
+import com.vikas.smart.finance.managemnet.util.Hashing;
+import com.vikas.smart.finance.managemnet.util.LongHashSet;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming CSV bank-statement import.
+ * The request thread parses and validates rows and hands 25-row batches to a bounded queue;
+ * writer threads drain it with BatchWriteItem, so parsing and writing overlap and a slow
+ * table throttles the parser instead of growing the heap. Derived state is refreshed once per user,
+ * also for the rows written before a malformed line ends the import. Credits and refunds (negative
+ * or parenthesised amounts) are skipped; the decimal separator is taken from the file itself.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionImportService.class);
+
+    private static final int BATCH_SIZE = 25;
+    private static final int WRITER_THREADS = 4;
+    private static final int QUEUE_BATCHES = WRITER_THREADS * 4;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final List<Transaction> END_OF_INPUT = Collections.unmodifiableList(new ArrayList<>());
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/yyyy"),
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/M/d"));
+
+    private final TransactionService transactionService;
+    private final DuplicateDetector duplicateDetector;
+    private final ShardRouter shardRouter;
+    private final ExecutorService writers = Executors.newFixedThreadPool(WRITER_THREADS);
+
+    @Autowired
+    public TransactionImportService(TransactionService transactionService, DuplicateDetector duplicateDetector,
+                                    ShardRouter shardRouter) {
+        this.transactionService = transactionService;
+        this.duplicateDetector = duplicateDetector;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Import a CSV with a header row. Required columns: date, amount, vendor.
+     * Optional: category, userId (falls back to {@code defaultUserId}), transactionId.
+     */
+    public Map<String, Object> importCsv(InputStream input, String defaultUserId) throws IOException {
+        long started = System.currentTimeMillis();
+        BlockingQueue<List<Transaction>> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        AtomicLong written = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < WRITER_THREADS; i++) {
+            tasks.add(writers.submit(() -> drain(queue, written, failed)));
+        }
+
+        long rows = 0;
+        long invalid = 0;
+        long duplicates = 0;
+        long credits = 0;
+        List<String> errors = new ArrayList<>();
+        Set<String> users = new HashSet<>();
+        LongHashSet seen = new LongHashSet(1 << 16);
+        Map<Long, Integer> occurrences = new HashMap<>();
+        AmountFormat amounts = new AmountFormat();
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true)
+                .setTrim(true)
+                .setIgnoreEmptyLines(true)
+                .build();
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+             CSVParser parser = format.parse(reader)) {
+
+            for (CSVRecord record : parser) {
+                rows++;
+                Transaction t;
+                try {
+                    t = normalize(record, defaultUserId, amounts);
+                    shardRouter.checkUserId(t.getUserId());
+                } catch (IllegalArgumentException e) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Line " + record.getRecordNumber() + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (t.getAmount() < 0) {
+                    credits++;
+                    continue;
+                }
+
+                // Identical charges in one file are separate rows; the first keeps the plain content id
+                boolean repeat = false;
+                if (t.getTransactionId() == null) {
+                    int occurrence = occurrences.merge(Hashing.hash64(content(t)), 1, Integer::sum);
+                    t.setTransactionId(contentId(t, occurrence));
+                    repeat = occurrence > 1;
+                }
+                if (!seen.add(Hashing.hash64(t.getUserId() + "|" + t.getTransactionId()))) {
+                    duplicates++;
+                    continue;
+                }
+                // Same charge already posted or imported under another id; a repeated id just overwrites
+                DuplicateDetector.Duplicate duplicate = duplicateDetector.claim(t, repeat);
+                if (duplicate != null && duplicate.reason() == DuplicateDetector.Reason.CONTENT) {
+                    duplicates++;
+                    continue;
+                }
+                users.add(t.getUserId());
+                batch.add(t);
+                if (batch.size() == BATCH_SIZE) {
+                    queue.put(batch);   // blocks while writers are behind: backpressure
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) queue.put(batch);
+            batch = List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } finally {
+            // Rows parsed but never queued were claimed, not written
+            batch.forEach(t -> duplicateDetector.forget(t.getUserId(), t.getTransactionId()));
+            for (int i = 0; i < WRITER_THREADS; i++) {
+                putUninterruptibly(queue, END_OF_INPUT);
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("Import writer failed", e.getCause());
+                }
+            }
+            // Insights, sketches and dashboards refresh once per user, not once per row
+            users.forEach(transactionService::refreshAfterBulkWrite);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("rowsRead", rows);
+        result.put("imported", written.get());
+        result.put("failedWrites", failed.get());
+        result.put("invalidRows", invalid);
+        result.put("duplicateRows", duplicates);
+        result.put("skippedCredits", credits);
+        result.put("users", users.size());
+        result.put("errors", errors);
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        log.info("CSV import finished: {}", result);
+        return result;
+    }
+
+    private void drain(BlockingQueue<List<Transaction>> queue, AtomicLong written, AtomicLong failed) {
+        try {
+            while (true) {
+                List<Transaction> batch = queue.take();
+                if (batch == END_OF_INPUT) return;
+                // Rows not written are released, so re-importing them is not taken for a duplicate
+                try {
+                    List<Transaction> rejected = transactionService.saveBatch(batch);
+                    rejected.forEach(t -> duplicateDetector.forget(t.getUserId(), t.getTransactionId()));
+                    written.addAndGet(batch.size() - rejected.size());
+                    failed.addAndGet(rejected.size());
+                } catch (RuntimeException e) {
+                    log.warn("Batch write failed for {} transactions", batch.size(), e);
+                    batch.forEach(t -> duplicateDetector.forget(t.getUserId(), t.getTransactionId()));
+                    failed.addAndGet(batch.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Validate and normalize one row. A missing transaction id is left null for {@link #contentId}.
+     * Credits keep their sign so the caller can skip them.
+     */
+    static Transaction normalize(CSVRecord record, String defaultUserId, AmountFormat amounts) {
+        String userId = column(record, "userId");
+        if (userId == null) userId = defaultUserId;
+        if (userId == null || userId.isBlank()) throw new IllegalArgumentException("missing userId");
+
+        String vendor = column(record, "vendor");
+        if (vendor == null) throw new IllegalArgumentException("missing vendor");
+        vendor = vendor.replaceAll("\\s+", " ");
+
+        LocalDate date = parseDate(column(record, "date"));
+        double amount = amounts.parse(column(record, "amount"));
+
+        String category = column(record, "category");
+        String transactionId = column(record, "transactionId");
+
+        Transaction t = new Transaction();
+        t.setUserId(userId.trim());
+        t.setTransactionId(transactionId);
+        t.setVendor(vendor);
+        t.setCategory(category != null ? category : "Uncategorized");
+        t.setAmount(amount);
+        t.setDate(date);
+        return t;
+    }
+
+    private static String content(Transaction t) {
+        return t.getUserId() + "|" + t.getDate() + "|" + Math.round(t.getAmount() * 100) + "|" + t.getVendor().toLowerCase();
+    }
+
+    /**
+     * Id from a row's content and its occurrence within the file, so re-importing an overlapping
+     * statement overwrites rows instead of duplicating them while two identical charges stay two.
+     */
+    static String contentId(Transaction t, int occurrence) {
+        String content = occurrence == 1 ? content(t) : content(t) + "|" + occurrence;
+        return UUID.nameUUIDFromBytes(content.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String column(CSVRecord record, String name) {
+        if (!record.isMapped(name) || !record.isSet(name)) return null;
+        String value = record.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) throw new IllegalArgumentException("missing date");
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("unrecognized date '" + value + "'");
+    }
+
+    /**
+     * Amount parser for one file. Accepts "$1,234.50", "1.234,50", "-12.00" and "(12.00)"; negative
+     * and parenthesised amounts are returned negative. The decimal separator is learned from the first
+     * amount that shows it ("12,50", "1,234.50"); until then a lone "1,234" or "1.234" is rejected as
+     * ambiguous, and a later amount using the other separator as decimal is rejected too.
+     */
+    static final class AmountFormat {
+
+        private char decimal;       // 0 until the file shows it
+
+        double parse(String value) {
+            if (value == null) throw new IllegalArgumentException("missing amount");
+            String cleaned = value.replaceAll("[$€£\\s]", "");
+            boolean negative = false;
+            if (cleaned.startsWith("(") && cleaned.endsWith(")")) {
+                negative = true;
+                cleaned = cleaned.substring(1, cleaned.length() - 1);
+            }
+            if (cleaned.startsWith("-")) {
+                negative = !negative;
+                cleaned = cleaned.substring(1);
+            }
+            if (!cleaned.matches("[0-9.,]+")) throw new IllegalArgumentException("invalid amount '" + value + "'");
+
+            char separator = decimalOf(cleaned, value);
+            if (separator != 0) {
+                if (decimal == 0) decimal = separator;
+                else if (decimal != separator) {
+                    throw new IllegalArgumentException("amount '" + value + "' uses '" + separator
+                            + "' as decimal separator but the file uses '" + decimal + "'");
+                }
+            }
+            char grouping = decimal == ',' ? '.' : ',';
+            String plain = cleaned.replace(String.valueOf(grouping), "");
+            if (decimal == ',') plain = plain.replace(',', '.');
+
+            double amount;
+            try {
+                amount = Double.parseDouble(plain);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid amount '" + value + "'");
+            }
+            if (amount == 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+                throw new IllegalArgumentException("invalid amount '" + value + "'");
+            }
+            amount = Math.round(amount * 100.0) / 100.0;
+            return negative ? -amount : amount;
+        }
+
+        /** The decimal separator this amount shows, 0 if it has none, or an error if it cannot tell. */
+        private char decimalOf(String cleaned, String value) {
+            int dot = cleaned.lastIndexOf('.');
+            int comma = cleaned.lastIndexOf(',');
+            if (dot >= 0 && comma >= 0) return dot > comma ? '.' : ',';
+            if (dot < 0 && comma < 0) return 0;
+
+            char separator = dot >= 0 ? '.' : ',';
+            int last = Math.max(dot, comma);
+            int digitsAfter = cleaned.length() - last - 1;
+            boolean single = cleaned.indexOf(separator) == last;
+            if (single && digitsAfter != 3) return separator;
+            // "1,234" or "1.234.567": grouping, unless the file's decimal separator says otherwise
+            if (decimal == 0) {
+                throw new IllegalArgumentException("ambiguous amount '" + value
+                        + "'; write it with a decimal part, e.g. 1,234.00 or 1.234,00");
+            }
+            if (!single && separator == decimal) throw new IllegalArgumentException("invalid amount '" + value + "'");
+            return 0;
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<List<Transaction>> queue, List<Transaction> item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+}
@@ -1,9 +1,10 @@
 package com.vikas.smart.finance.managemnet.service;
 
 import com.vikas.smart.finance.managemnet.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.LocalDate;
 import java.util.*;
@@ -12,6 +13,8 @@ import java.util.concurrent.*;
 @Service
 public class TransactionMonitorService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionMonitorService.class);
+
     @Autowired
     private TransactionService transactionService;
 
@@ -27,31 +30,43 @@ public class TransactionMonitorService {
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
-    @PostConstruct
-    public void startMonitoring() {
-        System.out.println("🚀 Starting Transaction Monitor Service...");
-        System.out.println("📊 Max transactions per user: " + MAX_TRANSACTIONS_PER_USER);
+    /**
+     * Simulated users, also warmed up at startup
+     */
+    public List<String> getUserIds() {
+        return userIds;
+    }
 
-        // Generate initial transactions for all users
+    /**
+     * Generate initial transactions for all users; run by the startup warm-up, off the main thread
+     */
+    public void seed() {
+        log.info("Seeding simulated users (max {} transactions per user)", MAX_TRANSACTIONS_PER_USER);
         for (String userId : userIds) {
             generateInitialTransactions(userId);
         }
+    }
 
-        // Schedule periodic transaction generation (every 2 minutes instead of 1)
+    /**
+     * Schedule periodic transaction generation (every 2 minutes instead of 1)
+     */
+    public void startSimulation() {
         scheduler.scheduleAtFixedRate(this::runSimulation, 2, 2, TimeUnit.MINUTES);
     }
 
     /**
-     * Generate initial set of transactions for a new user
+     * Generate initial set of transactions for a new user in one batch, refreshing insights once
      */
     private void generateInitialTransactions(String userId) {
         List<Transaction> existing = transactionService.getTransactions(userId);
         if (existing.isEmpty()) {
-            System.out.println("📝 Generating initial transactions for: " + userId);
+            log.info("Generating initial transactions for {}", userId);
+            List<Transaction> initial = new ArrayList<>();
             for (int i = 0; i < 10; i++) { // Start with 10 transactions
-                Transaction t = generateTransaction(userId, LocalDate.now().minusDays(random.nextInt(30)));
-                transactionService.saveTransaction(t);
+                initial.add(generateTransaction(userId, LocalDate.now().minusDays(random.nextInt(30))));
             }
+            transactionService.saveBatch(initial);
+            transactionService.refreshAfterBulkWrite(userId);
         }
     }
 
@@ -59,6 +74,15 @@ public class TransactionMonitorService {
      * Periodic simulation - adds 1 transaction per user if under limit
      */
     private void runSimulation() {
+        try {
+            simulate();
+        } catch (RuntimeException e) {
+            // an uncaught exception would cancel the schedule
+            log.warn("Transaction simulation failed", e);
+        }
+    }
+
+    private void simulate() {
         for (String userId : userIds) {
             List<Transaction> existing = transactionService.getTransactions(userId);
 
@@ -66,18 +90,15 @@ public class TransactionMonitorService {
                 // Add one new transaction
                 Transaction t = generateTransaction(userId, LocalDate.now());
                 transactionService.saveTransaction(t);
-                System.out.println("✅ Generated transaction for " + userId +
-                        " | Vendor: " + t.getVendor() +
-                        " | Amount: $" + t.getAmount() +
-                        " | Total: " + (existing.size() + 1) + "/" + MAX_TRANSACTIONS_PER_USER);
+                log.debug("Generated transaction for {} | Vendor: {} | Amount: ${} | Total: {}/{}", userId,
+                        t.getVendor(), t.getAmount(), existing.size() + 1, MAX_TRANSACTIONS_PER_USER);
             } else {
                 // Delete oldest transaction and add new one (rolling window)
                 deleteOldestTransaction(userId, existing);
                 Transaction t = generateTransaction(userId, LocalDate.now());
                 transactionService.saveTransaction(t);
-                System.out.println("🔄 Replaced oldest transaction for " + userId +
-                        " | Vendor: " + t.getVendor() +
-                        " | Amount: $" + t.getAmount());
+                log.debug("Replaced oldest transaction for {} | Vendor: {} | Amount: ${}", userId,
+                        t.getVendor(), t.getAmount());
             }
         }
     }
@@ -94,7 +115,7 @@ public class TransactionMonitorService {
                 .orElse(transactions.get(0));
 
         transactionService.deleteTransaction(userId, oldest.getTransactionId());
-        System.out.println("🗑️ Deleted oldest transaction: " + oldest.getTransactionId());
+        log.debug("Deleted oldest transaction {}", oldest.getTransactionId());
     }
 
     /**
@@ -113,7 +134,7 @@ public class TransactionMonitorService {
 
     @PreDestroy
     public void shutdown() {
-        System.out.println("🛑 Shutting down Transaction Monitor Service...");
+        log.info("Shutting down Transaction Monitor Service");
         scheduler.shutdown();
         try {
             if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
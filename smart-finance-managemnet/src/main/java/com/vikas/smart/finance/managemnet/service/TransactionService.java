@@ -1,61 +1,306 @@
 package com.vikas.smart.finance.managemnet.service;
 
+import com.vikas.smart.finance.managemnet.model.Insight;
 import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.analytics.BudgetThresholdTracker;
+import com.vikas.smart.finance.managemnet.service.analytics.DailySpendIndex;
+import com.vikas.smart.finance.managemnet.service.analytics.RecurrenceDetector;
+import com.vikas.smart.finance.managemnet.service.analytics.SpendingAnomalyDetector;
+import com.vikas.smart.finance.managemnet.service.analytics.SpendingForecaster;
+import com.vikas.smart.finance.managemnet.service.analytics.TrendSketchService;
+import com.vikas.smart.finance.managemnet.service.archive.ColdArchiveService;
+import com.vikas.smart.finance.managemnet.service.ingest.DuplicateDetector;
+import com.vikas.smart.finance.managemnet.service.ingest.PendingWrites;
+import com.vikas.smart.finance.managemnet.service.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactDeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class TransactionService {
 
+    /** Spend per category and number of transactions. */
+    public record SpendTotals(Map<String, Double> byCategory, long count) {
+
+        public static SpendTotals of(List<Transaction> transactions) {
+            Map<String, Double> byCategory = new HashMap<>();
+            for (Transaction t : transactions) {
+                byCategory.merge(t.getCategory(), t.getAmount(), Double::sum);
+            }
+            return new SpendTotals(byCategory, transactions.size());
+        }
+
+        public double total() {
+            return byCategory.values().stream().mapToDouble(Double::doubleValue).sum();
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    private static final int BATCH_WRITE_LIMIT = 25;     // DynamoDB BatchWriteItem maximum
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+    private static final Expression NEW_ITEM = Expression.builder()
+            .expression("attribute_not_exists(transactionId)")
+            .build();
+    private static final Expression STILL_THERE = Expression.builder()
+            .expression("attribute_exists(transactionId)")
+            .build();
+
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Transaction> transactionTable;
+    private final RecurrenceDetector recurrenceDetector;
+    private final SpendingAnomalyDetector anomalyDetector;
+    private final TrendSketchService trendSketchService;
+    private final SpendingForecaster spendingForecaster;
+    private final BudgetThresholdTracker budgetThresholdTracker;
+    private final DailySpendIndex dailySpendIndex;
+    private final PendingWrites pendingWrites;
+    private final ColdArchiveService coldArchive;
+    private final DuplicateDetector duplicateDetector;
+    private final ShardRouter shardRouter;
+    private final FinanceMetrics metrics;
+    private final DashboardEventService dashboardEventService;
+    private final DataVersionService dataVersionService;
 
     @Autowired
     @Lazy
     private InsightService insightService;
 
     @Autowired
-    public TransactionService(DynamoDbEnhancedClient enhancedClient) {
+    public TransactionService(DynamoDbEnhancedClient enhancedClient,
+                              RecurrenceDetector recurrenceDetector,
+                              SpendingAnomalyDetector anomalyDetector,
+                              TrendSketchService trendSketchService,
+                              SpendingForecaster spendingForecaster,
+                              BudgetThresholdTracker budgetThresholdTracker,
+                              DailySpendIndex dailySpendIndex,
+                              PendingWrites pendingWrites,
+                              ColdArchiveService coldArchive,
+                              DuplicateDetector duplicateDetector,
+                              ShardRouter shardRouter,
+                              FinanceMetrics metrics,
+                              DashboardEventService dashboardEventService,
+                              DataVersionService dataVersionService) {
+        this.enhancedClient = enhancedClient;
         this.transactionTable = enhancedClient.table("Transaction", TableSchema.fromBean(Transaction.class));
+        this.recurrenceDetector = recurrenceDetector;
+        this.anomalyDetector = anomalyDetector;
+        this.trendSketchService = trendSketchService;
+        this.spendingForecaster = spendingForecaster;
+        this.budgetThresholdTracker = budgetThresholdTracker;
+        this.dailySpendIndex = dailySpendIndex;
+        this.pendingWrites = pendingWrites;
+        this.coldArchive = coldArchive;
+        this.duplicateDetector = duplicateDetector;
+        this.shardRouter = shardRouter;
+        this.metrics = metrics;
+        this.dashboardEventService = dashboardEventService;
+        this.dataVersionService = dataVersionService;
+    }
+
+    /**
+     * Save a transaction, flag it in real time if it is unusual or crosses a budget threshold,
+     * and trigger insight generation. The put is conditional on the id being new, so a retried
+     * write is rejected by DynamoDB without a prior read. With sharding on, the row goes to the
+     * user's shard for its id.
+     *
+     * @return false if a transaction with this id already exists
+     */
+    public boolean saveTransaction(Transaction transaction) {
+        String partition = shardRouter.writePartition(transaction.getUserId(), transaction.getTransactionId());
+        try {
+            transactionTable.putItem(PutItemEnhancedRequest.builder(Transaction.class)
+                    .item(placed(transaction, partition))
+                    .conditionExpression(NEW_ITEM)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+        shardRouter.recordWrites(transaction.getUserId(), 1);
+        applySaved(transaction);
+        return true;
     }
 
     /**
-     * Save a transaction and trigger insight generation asynchronously
+     * Per-transaction hooks for a write that is durable, in DynamoDB or in the write-ahead log
      */
-    public void saveTransaction(Transaction transaction) {
-        transactionTable.putItem(transaction);
+    public void applySaved(Transaction transaction) {
+        dataVersionService.bump(transaction.getUserId());
+        try {
+            applyDerivedState(transaction);
+        } catch (RuntimeException e) {
+            // The row is already stored; derived state catches up on the next load or regeneration
+            log.warn("Derived-state update failed for transaction '{}'", transaction.getTransactionId(), e);
+        }
         generateInsightsAsync(transaction.getUserId());
     }
 
+    /**
+     * {@link #applySaved} without the version bump and insight regeneration, for callers that
+     * schedule those themselves
+     */
+    public void applyDerivedState(Transaction transaction) {
+        recurrenceDetector.record(transaction);
+        trendSketchService.record(transaction);
+        spendingForecaster.record(transaction);
+        dailySpendIndex.record(transaction);
+        dashboardEventService.publish(transaction.getUserId(), "transaction", transaction);
+
+        Insight unusual = anomalyDetector.observe(transaction);
+        if (unusual != null && insightService != null) {
+            insightService.saveInsight(unusual);
+        }
+        Insight threshold = budgetThresholdTracker.record(transaction);
+        if (threshold != null && insightService != null) {
+            insightService.saveInsight(threshold);
+        }
+    }
+
+    /**
+     * Bulk write with BatchWriteItem (25 items per call), retrying unprocessed items with backoff.
+     * Skips the per-transaction hooks; call {@link #refreshAfterBulkWrite} once per user afterwards.
+     *
+     * @return the given items DynamoDB still had not accepted after all retries
+     */
+    public List<Transaction> saveBatch(List<Transaction> transactions) {
+        // Unprocessed items come back as new objects; map them to the caller's by partition and id
+        Map<String, Transaction> originals = new HashMap<>();
+        List<Transaction> rows = new ArrayList<>(transactions.size());
+        Map<String, Integer> writesPerUser = new HashMap<>();
+        for (Transaction t : transactions) {
+            Transaction row = placed(t, shardRouter.writePartition(t.getUserId(), t.getTransactionId()));
+            originals.put(row.getUserId() + '|' + row.getTransactionId(), t);
+            rows.add(row);
+            writesPerUser.merge(t.getUserId(), 1, Integer::sum);
+        }
+
+        List<Transaction> failed = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += BATCH_WRITE_LIMIT) {
+            List<Transaction> pending = rows.subList(start, Math.min(start + BATCH_WRITE_LIMIT, rows.size()));
+
+            for (int attempt = 0; !pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS; attempt++) {
+                if (attempt > 0) backoff(attempt);
+                WriteBatch.Builder<Transaction> batch = WriteBatch.builder(Transaction.class)
+                        .mappedTableResource(transactionTable);
+                pending.forEach(batch::addPutItem);
+                BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.addWriteBatch(batch.build()));
+                pending = result.unprocessedPutItemsForTable(transactionTable);
+            }
+            pending.forEach(row -> failed.add(originals.get(row.getUserId() + '|' + row.getTransactionId())));
+        }
+        writesPerUser.forEach(shardRouter::recordWrites);
+        return failed;
+    }
+
+    /** The row as stored on {@code partition}: the caller's object when that is the plain user id, else a copy. */
+    private static Transaction placed(Transaction t, String partition) {
+        if (partition.equals(t.getUserId())) return t;
+        Transaction row = new Transaction();
+        row.setUserId(partition);
+        row.setTransactionId(t.getTransactionId());
+        row.setVendor(t.getVendor());
+        row.setCategory(t.getCategory());
+        row.setAmount(t.getAmount());
+        row.setDate(t.getDate());
+        return row;
+    }
+
+    /**
+     * Bring a user's derived state up to date once after a bulk write
+     */
+    public void refreshAfterBulkWrite(String userId) {
+        dataVersionService.bump(userId);
+        trendSketchService.invalidate(userId);
+        spendingForecaster.invalidate(userId);
+        budgetThresholdTracker.invalidate(userId);
+        dailySpendIndex.invalidate(userId);
+        dashboardEventService.publish(userId, "resync", Map.of("userId", userId));
+        generateInsightsAsync(userId);
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(Math.min(2000L, 50L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Delete a specific transaction
      */
     public void deleteTransaction(String userId, String transactionId) {
-        Key key = Key.builder()
-                .partitionValue(userId)
-                .sortValue(transactionId)
-                .build();
-        transactionTable.deleteItem(key);
+        Transaction removed = removeRow(userId, transactionId);
+        if (removed != null) {
+            // Vendor state cannot subtract a charge; recompute the vendor from the rows that are left
+            recurrenceDetector.rebuildVendor(userId, removed.getVendor(), getVendorTransactions(userId, removed.getVendor()));
+        }
+    }
+
+    /**
+     * Delete one transaction from every tier and refresh the derived state that can be dropped;
+     * recurrence state is left to the caller.
+     *
+     * @return the deleted row, or null if no tier held it
+     */
+    private Transaction removeRow(String userId, String transactionId) {
+        Transaction removed = pendingWrites.cancel(userId, transactionId);
+        duplicateDetector.forget(userId, transactionId);
+        for (String partition : shardRouter.partitionsFor(userId, transactionId)) {
+            Transaction stored = transactionTable.deleteItem(Key.builder()
+                    .partitionValue(partition)
+                    .sortValue(transactionId)
+                    .build());
+            if (stored != null) removed = stored;
+        }
+        Transaction archived = coldArchive.remove(userId, transactionId);
+        if (archived != null) removed = archived;
+        dataVersionService.bump(userId);
+        trendSketchService.invalidate(userId);
+        spendingForecaster.invalidate(userId);
+        budgetThresholdTracker.invalidate(userId);
+        dailySpendIndex.invalidate(userId);
+        dashboardEventService.publish(userId, "transactionDeleted", Map.of("transactionId", transactionId));
+        return removed;
     }
 
     /**
      * Delete all transactions for a user
      */
     public void deleteAllTransactions(String userId) {
-        List<Transaction> transactions = getTransactions(userId);
+        List<Transaction> transactions = getHotTransactions(userId);
         for (Transaction t : transactions) {
-            deleteTransaction(userId, t.getTransactionId());
+            removeRow(userId, t.getTransactionId());
+        }
+        if (coldArchive.deleteAll(userId)) {
+            refreshAfterBulkWrite(userId);
         }
+        recurrenceDetector.deleteAll(userId);
+        anomalyDetector.reset(userId);
     }
 
     /**
@@ -69,28 +314,243 @@ public class TransactionService {
     }
 
     /**
-     * Get all transactions for a user
+     * Get all transactions for a user: archived, in DynamoDB, and write-behind writes not yet flushed
      */
     public List<Transaction> getTransactions(String userId) {
+        List<Transaction> hot = getHotTransactions(userId);
+        List<Transaction> cold = coldArchive.rows(userId);
+        if (cold.isEmpty()) return hot;
+        List<Transaction> transactions = new ArrayList<>(cold.size() + hot.size());
+        transactions.addAll(cold);
+        transactions.addAll(hot);
+        return transactions;
+    }
+
+    /**
+     * Transactions not yet moved to the cold archive, including write-behind writes not yet flushed.
+     * A sharded user's partitions are queried in parallel and merged in date order.
+     */
+    public List<Transaction> getHotTransactions(String userId) {
+        Map<String, Transaction> unflushed = pendingWrites.snapshot(userId);
+        List<Transaction> transactions = shardRouter.gather(userId, shardRouter.readPartitions(userId), partition -> {
+            List<Transaction> rows = new ArrayList<>();
+            transactionTable.query(QueryConditional.keyEqualTo(k -> k.partitionValue(partition)))
+                    .items()
+                    .forEach(rows::add);
+            return rows;
+        });
+        return coldArchive.withoutArchived(userId, PendingWrites.merge(transactions, unflushed));
+    }
+
+    /**
+     * One vendor's transactions across every tier. DynamoDB filters the rows server-side (there is no
+     * vendor index), so only the vendor's rows come back; unflushed writes are laid over them first,
+     * since one may have changed a stored row's vendor.
+     */
+    public List<Transaction> getVendorTransactions(String userId, String vendor) {
+        Expression byVendor = Expression.builder()
+                .expression("vendor = :vendor")
+                .putExpressionValue(":vendor", AttributeValue.fromS(vendor))
+                .build();
+        Map<String, Transaction> unflushed = pendingWrites.snapshot(userId);
+        List<Transaction> stored = shardRouter.gather(userId, shardRouter.readPartitions(userId), partition -> {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.keyEqualTo(k -> k.partitionValue(partition)))
+                    .filterExpression(byVendor)
+                    .build();
+            List<Transaction> rows = new ArrayList<>();
+            transactionTable.query(request).items().forEach(rows::add);
+            return rows;
+        });
         List<Transaction> transactions = new ArrayList<>();
-        transactionTable.query(QueryConditional.keyEqualTo(k -> k.partitionValue(userId)))
-                .items()
-                .forEach(transactions::add);
+        coldArchive.iterate(userId).forEachRemaining(t -> {
+            if (vendor.equals(t.getVendor())) transactions.add(t);
+        });
+        for (Transaction t : coldArchive.withoutArchived(userId, PendingWrites.merge(stored, unflushed))) {
+            if (vendor.equals(t.getVendor())) transactions.add(t);
+        }
         return transactions;
     }
 
     /**
-     * Get monthly spending summary per category
+     * Spend per category over all history: hot rows summed, archived ones from segment footers
      */
-    public Map<String, Double> getMonthlySummary(String userId, int month, int year) {
-        List<Transaction> transactions = getTransactions(userId);
+    public SpendTotals getSpendTotals(String userId) {
+        SpendTotals hot = SpendTotals.of(getHotTransactions(userId));
+        SpendTotals cold = coldArchive.totals(userId);
+        if (cold.count() == 0) return hot;
+        Map<String, Double> byCategory = new HashMap<>(hot.byCategory());
+        cold.byCategory().forEach((category, amount) -> byCategory.merge(category, amount, Double::sum));
+        return new SpendTotals(byCategory, hot.count() + cold.count());
+    }
+
+    /**
+     * Rows stored in DynamoDB dated before {@code cutoff}, for the archive sweep
+     */
+    public List<Transaction> getStoredTransactionsBefore(String userId, LocalDate cutoff) {
+        Expression before = Expression.builder()
+                .expression("#d < :cutoff")
+                .putExpressionName("#d", "date")
+                .putExpressionValue(":cutoff", AttributeValue.fromS(cutoff.toString()))
+                .build();
+        return shardRouter.gather(userId, shardRouter.readPartitions(userId), partition -> {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.keyEqualTo(k -> k.partitionValue(partition)))
+                    .filterExpression(before)
+                    .build();
+            List<Transaction> rows = new ArrayList<>();
+            transactionTable.query(request).items().forEach(rows::add);
+            return rows;
+        });
+    }
+
+    /**
+     * Bulk delete with BatchWriteItem (25 keys per call), retrying unprocessed keys with backoff.
+     * Skips the per-transaction hooks.
+     *
+     * @return items DynamoDB still had not deleted after all retries
+     */
+    public List<Transaction> deleteBatch(List<Transaction> transactions) {
+        // Mid-reshard a row may be on either of two partitions, so it can take two keys
+        List<Key> keys = new ArrayList<>(transactions.size());
+        Map<Key, Transaction> byKey = new HashMap<>();
+        for (Transaction t : transactions) {
+            for (String partition : shardRouter.partitionsFor(t.getUserId(), t.getTransactionId())) {
+                Key key = Key.builder().partitionValue(partition).sortValue(t.getTransactionId()).build();
+                keys.add(key);
+                byKey.put(key, t);
+            }
+        }
+
+        Set<Transaction> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int start = 0; start < keys.size(); start += BATCH_WRITE_LIMIT) {
+            List<Key> pending = keys.subList(start, Math.min(start + BATCH_WRITE_LIMIT, keys.size()));
 
-        return transactions.stream()
-                .filter(t -> {
-                    LocalDate date = t.getDate();
-                    return date.getMonthValue() == month && date.getYear() == year;
-                })
-                .collect(Collectors.groupingBy(Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)));
+            for (int attempt = 0; !pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS; attempt++) {
+                if (attempt > 0) backoff(attempt);
+                WriteBatch.Builder<Transaction> batch = WriteBatch.builder(Transaction.class)
+                        .mappedTableResource(transactionTable);
+                pending.forEach(batch::addDeleteItem);
+                BatchWriteResult result = enhancedClient.batchWriteItem(r -> r.addWriteBatch(batch.build()));
+                pending = result.unprocessedDeleteItemsForTable(transactionTable);
+            }
+            pending.forEach(key -> failed.add(byKey.get(key)));
+        }
+        return new ArrayList<>(failed);
+    }
+
+    /**
+     * Users with a transaction on or after {@code since}, found by a projected scan
+     * that stops after {@code maxUsers} users or {@code maxScanned} scanned items
+     */
+    public Set<String> findRecentlyActiveUsers(LocalDate since, int maxUsers, int maxScanned) {
+        return findUsers("#d >= :date", since, maxUsers, maxScanned);
+    }
+
+    /**
+     * Users with a transaction in DynamoDB dated before {@code cutoff}, bounded like
+     * {@link #findRecentlyActiveUsers}
+     */
+    public Set<String> findUsersWithTransactionsBefore(LocalDate cutoff, int maxUsers, int maxScanned) {
+        return findUsers("#d < :date", cutoff, maxUsers, maxScanned);
+    }
+
+    private Set<String> findUsers(String condition, LocalDate date, int maxUsers, int maxScanned) {
+        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
+                .attributesToProject("userId")
+                .filterExpression(Expression.builder()
+                        .expression(condition)
+                        .putExpressionName("#d", "date")
+                        .putExpressionValue(":date", AttributeValue.fromS(date.toString()))
+                        .build())
+                .build();
+
+        Set<String> users = new LinkedHashSet<>();
+        int scanned = 0;
+        for (Page<Transaction> page : transactionTable.scan(request)) {
+            for (Transaction t : page.items()) {
+                users.add(shardRouter.userIdOf(t.getUserId()));
+                if (users.size() >= maxUsers) return users;
+            }
+            scanned += page.scannedCount() != null ? page.scannedCount() : page.items().size();
+            if (scanned >= maxScanned) break;
+        }
+        return users;
+    }
+
+    /**
+     * Move the user's rows to a layout of {@code shards} partitions while reads and writes go on.
+     * Readers cover the old and the new layout until the move is recorded as finished. Each row
+     * moves in one TransactWriteItems call, a put on its new partition and a delete on the old one
+     * conditional on the row still existing, so a row is never on both and a concurrent delete is
+     * not undone. A second pass after the layout cache TTL picks up rows that other instances wrote
+     * under the old layout in the meantime. An unfinished reshard to the same count is resumed.
+     *
+     * @return rows moved, or -1 if a reshard to a different count is in progress or another caller
+     *         claimed the layout first
+     */
+    public int reshard(String userId, int shards) {
+        ShardRouter.Layout current = shardRouter.load(userId);
+        if (current.migrating() && current.shards() != shards) return -1;
+        if (current.migrating()) {
+            if (!shardRouter.resumeReshard(userId, current)) return -1;
+        } else {
+            if (current.shards() == shards) return 0;
+            if (!shardRouter.beginReshard(userId, current, shards)) return -1;
+        }
+        int readShards = Math.max(current.readShards(), shards);
+
+        int moved = metrics.time("finance.shard.reshard", "move", () -> moveRows(userId, shards, readShards));
+        awaitLayoutCaches(userId);
+        moved += metrics.time("finance.shard.reshard", "sweep", () -> moveRows(userId, shards, readShards));
+        shardRouter.finishReshard(userId, shards);
+        metrics.increment("finance.shard.moved", moved);
+        return moved;
+    }
+
+    private int moveRows(String userId, int shards, int readShards) {
+        int moved = 0;
+        for (int shard = 0; shard < readShards; shard++) {
+            String from = ShardRouter.partition(userId, shard);
+            List<Transaction> rows = new ArrayList<>();
+            transactionTable.query(QueryConditional.keyEqualTo(k -> k.partitionValue(from)))
+                    .items()
+                    .forEach(rows::add);
+            for (Transaction row : rows) {
+                String to = ShardRouter.partition(userId, ShardRouter.shardOf(row.getTransactionId(), shards));
+                if (to.equals(from)) continue;
+                try {
+                    enhancedClient.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                            .addPutItem(transactionTable, placed(row, to))
+                            .addDeleteItem(transactionTable, TransactDeleteItemEnhancedRequest.builder()
+                                    .key(k -> k.partitionValue(from).sortValue(row.getTransactionId()))
+                                    .conditionExpression(STILL_THERE)
+                                    .build())
+                            .build());
+                    moved++;
+                } catch (TransactionCanceledException e) {
+                    // Deleted since the query
+                }
+            }
+        }
+        return moved;
+    }
+
+    /** Wait until every instance's cached layout for the user is the migrating one. */
+    private void awaitLayoutCaches(String userId) {
+        try {
+            Thread.sleep(shardRouter.getLayoutCacheTtl().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reshard of user '" + userId + "' interrupted", e);
+        }
+    }
+
+    /**
+     * Get monthly spending summary per category, read from the daily prefix-sum index
+     */
+    public Map<String, Double> getMonthlySummary(String userId, int month, int year) {
+        YearMonth ym = YearMonth.of(year, month);
+        return dailySpendIndex.categoryTotals(userId, ym.atDay(1), ym.atEndOfMonth());
     }
-}
\ No newline at end of file
+}
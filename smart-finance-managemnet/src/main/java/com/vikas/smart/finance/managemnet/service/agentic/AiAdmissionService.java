@@ -0,0 +1,149 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.vikas.smart.finance.managemnet.config.AiLimitsProperties;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token-bucket admission per user and endpoint class for the Bedrock-backed /ai endpoints.
+ * Checked before any data is loaded, so a user over their rate gets a 429 straight away.
+ * Buckets that have refilled carry no state and are dropped by a background sweep, once a
+ * minute or as soon as more than 50k are held, so admission itself never walks the map.
+ */
+@Service
+public class AiAdmissionService {
+
+    public enum EndpointClass { CHAT, ANALYSIS, REPORT }
+
+    private static final int MAX_BUCKETS = 50_000;
+    private static final long MAX_RETRY_AFTER_SECONDS = 3600;
+    private static final long SWEEP_SECONDS = 60;
+
+    /** Thrown when a call is refused; maps to 429 with Retry-After. */
+    public static class OverloadedException extends RuntimeException {
+        private final String reason;
+        private final long retryAfterSeconds;
+
+        public OverloadedException(String reason, String message, long retryAfterSeconds) {
+            super(message);
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private final AiLimitsProperties limits;
+    private final FinanceMetrics metrics;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweepQueued = new AtomicBoolean();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ai-bucket-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public AiAdmissionService(AiLimitsProperties limits, FinanceMetrics metrics) {
+        this.limits = limits;
+        this.metrics = metrics;
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Take one token from the user's bucket for this endpoint class.
+     *
+     * @throws OverloadedException if the bucket is empty
+     */
+    public void admit(String userId, EndpointClass endpoint) {
+        AiLimitsProperties.Bucket config = config(endpoint);
+        if (buckets.size() > MAX_BUCKETS && sweepQueued.compareAndSet(false, true)) {
+            sweeper.execute(this::sweep);
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(userId + "|" + endpoint,
+                k -> new TokenBucket(config.getCapacity(), config.getRefillPerMinute()));
+
+        long waitNanos = bucket.tryTake();
+        if (waitNanos == 0) return;
+
+        metrics.increment("finance.ai.rejected", "reason", "rate_limited", "endpoint", endpoint.name().toLowerCase());
+        throw new OverloadedException("rate_limited",
+                "Too many " + endpoint.name().toLowerCase() + " requests; try again shortly",
+                Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (long) Math.ceil(waitNanos / 1e9))));
+    }
+
+    /** Drop buckets that have refilled; one recreated later starts full, which is the same state. */
+    void sweep() {
+        sweepQueued.set(false);
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private AiLimitsProperties.Bucket config(EndpointClass endpoint) {
+        switch (endpoint) {
+            case CHAT:
+                return limits.getChat();
+            case ANALYSIS:
+                return limits.getAnalysis();
+            default:
+                return limits.getReport();
+        }
+    }
+
+    static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(int capacity, double refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        /** @return 0 if a token was taken, otherwise nanos until one is available */
+        synchronized long tryTake() {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.BudgetService;
+import com.vikas.smart.finance.managemnet.service.InsightService;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.service.analytics.BudgetThresholdTracker;
+import com.vikas.smart.finance.managemnet.service.analytics.TrendSketchService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Quick-action views for many users in one call, for operator dashboards.
+ * Users run on a shared bounded pool with a per-request cap on in-flight users; each user's
+ * transactions, budgets and insights are loaded at most once and shared by all requested views.
+ * Results are written as NDJSON lines in completion order, one line per user.
+ */
+@Service
+public class BatchSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchSummaryService.class);
+
+    public enum View { SUMMARY, BUDGET, INSIGHTS, TRENDS, VENDORS }
+
+    public static final int MAX_USERS = 500;
+    public static final int MAX_CONCURRENCY = 16;          // shared by all batch requests on this node
+    private static final int TOP_VENDORS = 5;
+
+    @Autowired
+    private FinanceActionHandler financeActionHandler;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private InsightService insightService;
+
+    @Autowired
+    private BudgetThresholdTracker budgetThresholdTracker;
+
+    @Autowired
+    private TrendSketchService trendSketchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(MAX_CONCURRENCY, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "batch-summary-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Parse view names as used by {@code /ai/quick/{action}}.
+     *
+     * @throws IllegalArgumentException for an unknown view
+     */
+    public static Set<View> parseViews(Collection<String> names) {
+        Set<View> views = EnumSet.noneOf(View.class);
+        for (String name : names) {
+            try {
+                views.add(View.valueOf(name.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown view: " + name);
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Compute the views for each user and write one JSON line per user as soon as it completes.
+     * A failing user yields an {@code error} line; the rest of the batch carries on.
+     *
+     * @param concurrency users of this request in flight at once, capped at {@link #MAX_CONCURRENCY}
+     */
+    public void stream(List<String> userIds, Set<View> views, int concurrency, OutputStream out) throws IOException {
+        int limit = Math.max(1, Math.min(concurrency, MAX_CONCURRENCY));
+        CompletionService<Map<String, Object>> completion = new ExecutorCompletionService<>(pool);
+        Set<Future<Map<String, Object>>> inFlight = new HashSet<>();
+        Iterator<String> pending = new LinkedHashSet<>(userIds).iterator();
+
+        try {
+            while (pending.hasNext() && inFlight.size() < limit) {
+                inFlight.add(submit(completion, pending.next(), views));
+            }
+            while (!inFlight.isEmpty()) {
+                Future<Map<String, Object>> done = completion.take();
+                inFlight.remove(done);
+                if (pending.hasNext()) inFlight.add(submit(completion, pending.next(), views));
+
+                out.write(objectMapper.writeValueAsBytes(done.get()));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // compute() catches everything per user, so this is unexpected
+            throw new IllegalStateException("Batch summary failed", e.getCause());
+        } finally {
+            // Client went away or we were interrupted: stop work nobody will read
+            inFlight.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Future<Map<String, Object>> submit(CompletionService<Map<String, Object>> completion,
+                                               String userId, Set<View> views) {
+        return completion.submit(() -> compute(userId, views));
+    }
+
+    private Map<String, Object> compute(String userId, Set<View> views) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("userId", userId);
+        try {
+            UserSnapshot snapshot = new UserSnapshot(userId);
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (View view : views) {
+                results.put(view.name().toLowerCase(), render(view, snapshot));
+            }
+            line.put("views", results);
+        } catch (Exception e) {
+            log.warn("Batch summary failed for user '{}'", userId, e);
+            line.put("error", String.valueOf(e.getMessage()));
+        }
+        return line;
+    }
+
+    private Map<String, Object> render(View view, UserSnapshot snapshot) {
+        String userId = snapshot.userId;
+        switch (view) {
+            case SUMMARY:
+                return financeActionHandler.getSpendingSummary(userId, snapshot.transactions());
+            case BUDGET:
+                // Seed the running totals from the history we already hold instead of querying again
+                if (snapshot.transactions != null) {
+                    budgetThresholdTracker.preload(userId, snapshot.transactions, snapshot.budgets());
+                }
+                return financeActionHandler.getBudgetStatus(userId, snapshot.budgets());
+            case INSIGHTS:
+                return financeActionHandler.getFinancialInsights(userId, snapshot.insights());
+            case TRENDS:
+                preloadSketches(snapshot);
+                return financeActionHandler.analyzeSpendingTrends(userId);
+            case VENDORS:
+                preloadSketches(snapshot);
+                return financeActionHandler.getTopVendors(userId, TOP_VENDORS);
+            default:
+                throw new IllegalArgumentException("Unknown view: " + view);
+        }
+    }
+
+    /** Build unloaded trend sketches from the snapshot's history, so they share its single read. */
+    private void preloadSketches(UserSnapshot snapshot) {
+        if (!trendSketchService.isLoaded(snapshot.userId)) {
+            trendSketchService.preload(snapshot.userId, snapshot.transactions());
+        }
+    }
+
+    /** One user's table reads, each fetched on first use. Confined to the worker thread. */
+    private final class UserSnapshot {
+        final String userId;
+        List<Transaction> transactions;
+        List<Budget> budgets;
+        List<Insight> insights;
+
+        UserSnapshot(String userId) {
+            this.userId = userId;
+        }
+
+        List<Transaction> transactions() {
+            if (transactions == null) transactions = transactionService.getTransactions(userId);
+            return transactions;
+        }
+
+        List<Budget> budgets() {
+            if (budgets == null) budgets = budgetService.getBudgets(userId);
+            return budgets;
+        }
+
+        List<Insight> insights() {
+            if (insights == null) insights = insightService.getInsights(userId);
+            return insights;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -5,6 +5,8 @@ import com.vikas.smart.finance.managemnet.model.Transaction;
 import com.vikas.smart.finance.managemnet.model.Budget;
 import com.vikas.smart.finance.managemnet.service.TransactionService;
 import com.vikas.smart.finance.managemnet.service.BudgetService;
+import com.vikas.smart.finance.managemnet.service.DataVersionService;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +16,7 @@ import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -25,8 +28,17 @@ public class BedrockAgentService {
 
     private static final Logger log = LoggerFactory.getLogger(BedrockAgentService.class);
 
+    private static final String MODEL_ID = "anthropic.claude-3-haiku-20240307-v1:0";
+
+    /** Start of the text returned in place of a model answer when the call failed */
+    public static final String ERROR_PREFIX = "Error: ";
+
     private final BedrockRuntimeClient bedrockClient;
     private final ObjectMapper objectMapper;
+    private final FinanceMetrics metrics;
+    private final FairBedrockScheduler scheduler;
+    private final QuestionCache questionCache;
+    private final DataVersionService dataVersionService;
 
     private final com.vikas.smart.finance.managemnet.service.TransactionService transactionService;
     private final com.vikas.smart.finance.managemnet.service.BudgetService budgetService;
@@ -34,20 +46,39 @@ public class BedrockAgentService {
     @Autowired
     public BedrockAgentService(BedrockRuntimeClient bedrockClient,
                                com.vikas.smart.finance.managemnet.service.TransactionService transactionService,
-                               com.vikas.smart.finance.managemnet.service.BudgetService budgetService) {
+                               com.vikas.smart.finance.managemnet.service.BudgetService budgetService,
+                               FinanceMetrics metrics,
+                               FairBedrockScheduler scheduler,
+                               QuestionCache questionCache,
+                               DataVersionService dataVersionService) {
         this.bedrockClient = bedrockClient;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.questionCache = questionCache;
+        this.dataVersionService = dataVersionService;
         this.transactionService = transactionService;
         this.budgetService = budgetService;
         this.objectMapper = new ObjectMapper();
     }
 
     /**
-     * Get AI response using FREE Claude 3 Haiku
+     * Get AI response using FREE Claude 3 Haiku, queued fairly behind other users' calls
+     *
+     * @throws AiAdmissionService.OverloadedException if the Bedrock queue is full or the wait times out
+     */
+    public String getAIResponse(String userId, String prompt) {
+        return scheduler.call(userId, () -> invoke(prompt));
+    }
+
+    /**
      * Uses direct model invocation (no agent needed)
      */
-    public String getAIResponse(String prompt) {
+    private String invoke(String prompt) {
+        long started = System.nanoTime();
+        String outcome = "error";
         try {
-            log.info("Invoking Claude 3 Haiku with prompt: {}", prompt);
+            log.info("Invoking Claude 3 Haiku ({} prompt chars)", prompt.length());
+            log.debug("Prompt: {}", prompt);
 
             // Build request for Claude
             Map<String, Object> requestBody = new HashMap<>();
@@ -67,14 +98,18 @@ public class BedrockAgentService {
 
             // Invoke Claude 3 Haiku (FREE model)
             InvokeModelRequest request = InvokeModelRequest.builder()
-                    .modelId("anthropic.claude-3-haiku-20240307-v1:0")
+                    .modelId(MODEL_ID)
                     .contentType("application/json")
                     .accept("application/json")
                     .body(SdkBytes.fromUtf8String(jsonBody))
                     .build();
 
+            metrics.recordSize("finance.bedrock.request.size",
+                    jsonBody.getBytes(StandardCharsets.UTF_8).length, "model", MODEL_ID);
             InvokeModelResponse response = bedrockClient.invokeModel(request);
             String responseBody = response.body().asUtf8String();
+            metrics.recordSize("finance.bedrock.response.size",
+                    responseBody.getBytes(StandardCharsets.UTF_8).length, "model", MODEL_ID);
 
             log.debug("Response body: {}", responseBody);
 
@@ -85,35 +120,43 @@ public class BedrockAgentService {
             if (content != null && !content.isEmpty()) {
                 String aiResponse = (String) content.get(0).get("text");
                 log.info("AI response received successfully");
+                outcome = "success";
                 return aiResponse;
             }
 
             log.warn("No content in AI response");
+            outcome = "empty";
             return "I apologize, but I couldn't generate a response. Please try again.";
 
         } catch (Exception e) {
             log.error("Error invoking Claude model", e);
-            return "Error: Unable to get AI response. " + e.getMessage();
+            metrics.increment("finance.bedrock.errors", "model", MODEL_ID, "exception", e.getClass().getSimpleName());
+            return ERROR_PREFIX + "Unable to get AI response. " + e.getMessage();
+        } finally {
+            metrics.record("finance.bedrock.invocations", "bedrock", System.nanoTime() - started, outcome,
+                    "model", MODEL_ID);
         }
     }
 
     /**
      * Get personalized financial advice WITH REAL DATA
+     * A rephrasing of a question already answered on the same data is served from {@link QuestionCache}.
      */
     public String getFinancialAdvice(String userId, String query) {
-        // Fetch real data from DynamoDB
-        List<com.vikas.smart.finance.managemnet.model.Transaction> transactions =
-                transactionService.getTransactions(userId);
+        // Read the version before the data so a concurrent write can only make the answer newer than its tag
+        long version = dataVersionService.current(userId);
+        String cached = questionCache.lookup(userId, version, query);
+        metrics.increment("finance.advice.cache", "result", cached != null ? "hit" : "miss");
+        if (cached != null) return cached;
+
+        // Fetch real data: hot rows from DynamoDB, archived history from segment footers
+        TransactionService.SpendTotals totals = transactionService.getSpendTotals(userId);
         List<com.vikas.smart.finance.managemnet.model.Budget> budgets =
                 budgetService.getBudgets(userId);
 
-        // Calculate spending by category
-        Map<String, Double> spendingByCategory = new HashMap<>();
-        double totalSpending = 0.0;
-        for (com.vikas.smart.finance.managemnet.model.Transaction t : transactions) {
-            spendingByCategory.merge(t.getCategory(), t.getAmount(), Double::sum);
-            totalSpending += t.getAmount();
-        }
+        // Spending by category
+        Map<String, Double> spendingByCategory = totals.byCategory();
+        double totalSpending = totals.total();
 
         // Build context-rich prompt
         StringBuilder context = new StringBuilder();
@@ -137,14 +180,18 @@ public class BedrockAgentService {
             }
         }
 
-        context.append("\nTOTAL TRANSACTIONS: ").append(transactions.size()).append("\n\n");
+        context.append("\nTOTAL TRANSACTIONS: ").append(totals.count()).append("\n\n");
         context.append("USER QUESTION: ").append(query).append("\n\n");
         context.append("Provide specific, actionable financial advice based on this real data. ");
         context.append("Be encouraging but honest. Use bullet points for clarity.");
 
         String enhancedPrompt = context.toString();
 
-        return getAIResponse(enhancedPrompt);
+        String advice = getAIResponse(userId, enhancedPrompt);
+        if (!advice.startsWith(ERROR_PREFIX)) {
+            questionCache.put(userId, version, query, advice);
+        }
+        return advice;
     }
 
     /**
@@ -161,7 +208,7 @@ public class BedrockAgentService {
                 userId, formatDataForPrompt(spendingData)
         );
 
-        return getAIResponse(prompt);
+        return getAIResponse(userId, prompt);
     }
 
     /**
@@ -175,7 +222,7 @@ public class BedrockAgentService {
                 userId, formatDataForPrompt(currentData)
         );
 
-        return getAIResponse(prompt);
+        return getAIResponse(userId, prompt);
     }
 
     /**
@@ -202,7 +249,7 @@ public class BedrockAgentService {
                 formatDataForPrompt(insights)
         );
 
-        return getAIResponse(prompt);
+        return getAIResponse(userId, prompt);
     }
 
     /**
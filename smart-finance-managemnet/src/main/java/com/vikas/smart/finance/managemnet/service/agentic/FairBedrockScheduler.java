@@ -0,0 +1,173 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.vikas.smart.finance.managemnet.config.AiLimitsProperties;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fair-share gate in front of the Bedrock invoker.
+ * At most {@code finance.ai.max-concurrent} calls run at once; waiting callers are queued per user
+ * and slots are handed out by weighted round-robin over users, so one user's backlog only ever
+ * takes its own turns. Callers run their call on their own thread once granted a slot.
+ */
+@Service
+public class FairBedrockScheduler {
+
+    private final AiLimitsProperties limits;
+    private final FinanceMetrics metrics;
+
+    private final Map<String, UserQueue> queues = new HashMap<>();
+    private final ArrayDeque<UserQueue> ring = new ArrayDeque<>();   // users with waiting callers
+    private int queued;
+    private int running;
+
+    @Autowired
+    public FairBedrockScheduler(AiLimitsProperties limits, FinanceMetrics metrics) {
+        this.limits = limits;
+        this.metrics = metrics;
+        metrics.gauge("finance.bedrock.queue.depth", this, s -> s.depth());
+        metrics.gauge("finance.bedrock.running", this, s -> s.inFlight());
+    }
+
+    /**
+     * Run {@code call} once this user's turn comes up.
+     *
+     * @throws AiAdmissionService.OverloadedException if the queue is full or the wait runs out
+     */
+    public <T> T call(String userId, Supplier<T> call) {
+        acquire(userId);
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire(String userId) {
+        Ticket ticket = new Ticket(userId);
+        synchronized (this) {
+            UserQueue user = queues.get(userId);
+            int userQueued = user != null ? user.tickets.size() : 0;
+            if (queued >= limits.getMaxQueued() || userQueued >= limits.getMaxQueuedPerUser()) {
+                throw rejected("queue_full", "AI service is busy; try again shortly", 2);
+            }
+            if (user == null) {
+                user = new UserQueue(userId, weight(userId));
+                queues.put(userId, user);
+                ring.addLast(user);
+            }
+            user.tickets.addLast(ticket);
+            queued++;
+            dispatch();
+        }
+
+        boolean granted;
+        try {
+            granted = ticket.latch.await(limits.getMaxQueueWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            granted = false;
+        }
+        if (!granted) {
+            synchronized (this) {
+                // A grant may have raced the timeout
+                granted = ticket.granted;
+                if (!granted) withdraw(ticket);
+            }
+        }
+
+        long waited = System.nanoTime() - ticket.enqueued;
+        metrics.record("finance.bedrock.queue.wait", "queue", waited, granted ? "granted" : "timeout");
+        if (!granted) {
+            throw rejected("queue_timeout", "AI service is busy; try again shortly", 5);
+        }
+    }
+
+    private synchronized void release() {
+        running--;
+        dispatch();
+    }
+
+    /**
+     * Grant free slots: the user at the head of the ring takes up to {@code weight} consecutive
+     * turns, then moves to the back. Called with the monitor held.
+     */
+    private void dispatch() {
+        while (running < limits.getMaxConcurrent() && !ring.isEmpty()) {
+            UserQueue user = ring.peekFirst();
+            Ticket ticket = user.tickets.pollFirst();
+            queued--;
+            running++;
+            ticket.granted = true;
+            ticket.latch.countDown();
+
+            if (user.tickets.isEmpty()) {
+                ring.pollFirst();
+                queues.remove(user.userId);
+            } else if (--user.credits == 0) {
+                user.credits = user.weight;
+                ring.addLast(ring.pollFirst());
+            }
+        }
+    }
+
+    /** Remove a ticket that was never granted. Called with the monitor held. */
+    private void withdraw(Ticket ticket) {
+        UserQueue user = queues.get(ticket.userId);
+        if (user == null || !user.tickets.remove(ticket)) return;
+        queued--;
+        if (user.tickets.isEmpty()) {
+            ring.remove(user);
+            queues.remove(user.userId);
+        }
+    }
+
+    private int weight(String userId) {
+        return Math.max(1, limits.getUserWeights().getOrDefault(userId, 1));
+    }
+
+    private AiAdmissionService.OverloadedException rejected(String reason, String message, long retryAfterSeconds) {
+        metrics.increment("finance.ai.rejected", "reason", reason, "endpoint", "bedrock");
+        return new AiAdmissionService.OverloadedException(reason, message, retryAfterSeconds);
+    }
+
+    synchronized int depth() {
+        return queued;
+    }
+
+    synchronized int inFlight() {
+        return running;
+    }
+
+    private static final class Ticket {
+        final String userId;
+        final long enqueued = System.nanoTime();
+        final CountDownLatch latch = new CountDownLatch(1);
+        boolean granted;                                // guarded by the scheduler monitor
+
+        Ticket(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class UserQueue {
+        final String userId;
+        final int weight;
+        final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        int credits;
+
+        UserQueue(String userId, int weight) {
+            this.userId = userId;
+            this.weight = weight;
+            this.credits = weight;
+        }
+    }
+}
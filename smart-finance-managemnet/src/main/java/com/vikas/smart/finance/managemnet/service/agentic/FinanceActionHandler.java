@@ -5,12 +5,17 @@ import com.vikas.smart.finance.managemnet.model.Budget;
 import com.vikas.smart.finance.managemnet.model.Insight;
 import com.vikas.smart.finance.managemnet.model.Transaction;
 import com.vikas.smart.finance.managemnet.service.BudgetService;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
 import com.vikas.smart.finance.managemnet.service.InsightService;
 import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.service.analytics.BudgetThresholdTracker;
+import com.vikas.smart.finance.managemnet.service.analytics.TrendSketchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -28,30 +33,53 @@ public class FinanceActionHandler {
     @Autowired
     private InsightService insightService;
 
+    @Autowired
+    private TrendSketchService trendSketchService;
+
+    @Autowired
+    private BudgetThresholdTracker budgetThresholdTracker;
+
+    @Autowired
+    private FinanceMetrics metrics;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
-     * Get spending summary for a user
+     * Time an aggregation under {@code finance.aggregations}, tagged by action
      */
-    public Map<String, Object> getSpendingSummary(String userId) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
+    private Map<String, Object> aggregate(String action, Supplier<Map<String, Object>> work) {
+        return metrics.time("finance.aggregations", "aggregation", work, "action", action);
+    }
 
-        Map<String, Double> categorySpending = transactions.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    /**
+     * Time the read feeding an aggregation under {@code finance.aggregations.loads}, so the
+     * aggregation timer only covers work over data already in hand
+     */
+    private <T> T load(String action, Supplier<T> read) {
+        return metrics.time("finance.aggregations.loads", "load", read, "action", action);
+    }
 
-        double totalSpending = categorySpending.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .sum();
+    /**
+     * Get spending summary for a user; archived history comes from segment footers
+     */
+    public Map<String, Object> getSpendingSummary(String userId) {
+        TransactionService.SpendTotals totals = load("spendingSummary", () -> transactionService.getSpendTotals(userId));
+        return aggregate("spendingSummary", () -> spendingSummary(userId, totals));
+    }
 
+    /**
+     * Get spending summary from an already loaded transaction list
+     */
+    public Map<String, Object> getSpendingSummary(String userId, List<Transaction> transactions) {
+        return aggregate("spendingSummary", () -> spendingSummary(userId, TransactionService.SpendTotals.of(transactions)));
+    }
+
+    private static Map<String, Object> spendingSummary(String userId, TransactionService.SpendTotals totals) {
         Map<String, Object> result = new HashMap<>();
         result.put("userId", userId);
-        result.put("totalSpending", Math.round(totalSpending * 100.0) / 100.0);
-        result.put("categoryBreakdown", categorySpending);
-        result.put("transactionCount", transactions.size());
-
+        result.put("totalSpending", Math.round(totals.total() * 100.0) / 100.0);
+        result.put("categoryBreakdown", totals.byCategory());
+        result.put("transactionCount", totals.count());
         return result;
     }
 
@@ -59,117 +87,99 @@ public class FinanceActionHandler {
      * Get budget status for a user
      */
     public Map<String, Object> getBudgetStatus(String userId) {
-        List<Budget> budgets = budgetService.getBudgets(userId);
-        Map<String, Double> spendingRatio = budgetService.calculateSpendingRatio(userId);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("userId", userId);
-        result.put("budgets", budgets);
-        result.put("spendingRatios", spendingRatio);
-
-        // Calculate alerts
-        List<String> alerts = new ArrayList<>();
-        for (Map.Entry<String, Double> entry : spendingRatio.entrySet()) {
-            if (entry.getValue() >= 100) {
-                alerts.add("⚠️ EXCEEDED: " + entry.getKey() + " (" + entry.getValue() + "%)");
-            } else if (entry.getValue() >= 80) {
-                alerts.add("⚡ WARNING: " + entry.getKey() + " (" + entry.getValue() + "%)");
-            }
-        }
-        result.put("alerts", alerts);
+        return getBudgetStatus(userId, load("budgetStatus", () -> budgetService.getBudgets(userId)));
+    }
 
-        return result;
+    /**
+     * Get budget status from an already loaded budget list
+     */
+    public Map<String, Object> getBudgetStatus(String userId, List<Budget> budgets) {
+        return aggregate("budgetStatus", () -> {
+            Map<String, Double> spendingRatio = budgetService.calculateSpendingRatio(userId);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("userId", userId);
+            result.put("budgets", budgets);
+            result.put("spendingRatios", spendingRatio);
+
+            // Threshold levels are kept current per write; no recomputation here
+            List<String> alerts = new ArrayList<>();
+            budgetThresholdTracker.alerts(userId).forEach((category, level) -> alerts.add(
+                    (level == BudgetThresholdTracker.Level.EXCEEDED ? "⚠️ EXCEEDED: " : "⚡ WARNING: ")
+                            + category + " (" + spendingRatio.get(category) + "%)"));
+            result.put("alerts", alerts);
+
+            return result;
+        });
     }
 
     /**
      * Get AI-powered insights for a user
      */
     public Map<String, Object> getFinancialInsights(String userId) {
-        List<Insight> insights = insightService.getInsights(userId);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("userId", userId);
-        result.put("totalInsights", insights.size());
-        result.put("insights", insights);
-
-        // Group by type
-        Map<String, Long> insightsByType = insights.stream()
-                .collect(Collectors.groupingBy(Insight::getType, Collectors.counting()));
-        result.put("insightsByType", insightsByType);
+        return getFinancialInsights(userId, load("financialInsights", () -> insightService.getInsights(userId)));
+    }
 
-        return result;
+    /**
+     * Get insights summary from an already loaded insight list
+     */
+    public Map<String, Object> getFinancialInsights(String userId, List<Insight> insights) {
+        return aggregate("financialInsights", () -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("userId", userId);
+            result.put("totalInsights", insights.size());
+            result.put("insights", insights);
+
+            // Group by type
+            Map<String, Long> insightsByType = insights.stream()
+                    .collect(Collectors.groupingBy(Insight::getType, Collectors.counting()));
+            result.put("insightsByType", insightsByType);
+
+            return result;
+        });
     }
 
     /**
      * Get smart budget recommendations
      */
     public Map<String, Object> getBudgetRecommendations(String userId) {
-        List<Budget> suggestions = budgetService.generateBudgetSuggestions(userId);
+        return aggregate("budgetRecommendations", () -> {
+            List<Budget> suggestions = budgetService.generateBudgetSuggestions(userId);
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("userId", userId);
-        result.put("recommendations", suggestions);
-        result.put("totalCategories", suggestions.size());
+            Map<String, Object> result = new HashMap<>();
+            result.put("userId", userId);
+            result.put("recommendations", suggestions);
+            result.put("totalCategories", suggestions.size());
 
-        return result;
+            return result;
+        });
     }
 
     /**
-     * Get top spending vendors
+     * Get top spending vendors across all history
      */
     public Map<String, Object> getTopVendors(String userId, int limit) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
-
-        Map<String, Double> vendorSpending = transactions.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getVendor,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
-
-        List<Map.Entry<String, Double>> topVendors = vendorSpending.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("userId", userId);
-        result.put("topVendors", topVendors);
+        return getTopVendors(userId, limit, null, null);
+    }
 
-        return result;
+    /**
+     * Get top spending vendors for an inclusive month range
+     */
+    public Map<String, Object> getTopVendors(String userId, int limit, YearMonth from, YearMonth to) {
+        return aggregate("topVendors", () -> trendSketchService.topVendors(userId, limit, from, to));
     }
 
     /**
-     * Analyze spending trends
+     * Analyze spending trends across all months
      */
     public Map<String, Object> analyzeSpendingTrends(String userId) {
-        List<Transaction> transactions = transactionService.getTransactions(userId);
-
-        if (transactions.isEmpty()) {
-            return Map.of("userId", userId, "message", "No transactions found");
-        }
-
-        double avgTransaction = transactions.stream()
-                .mapToDouble(Transaction::getAmount)
-                .average()
-                .orElse(0.0);
-
-        double maxTransaction = transactions.stream()
-                .mapToDouble(Transaction::getAmount)
-                .max()
-                .orElse(0.0);
-
-        double minTransaction = transactions.stream()
-                .mapToDouble(Transaction::getAmount)
-                .min()
-                .orElse(0.0);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("userId", userId);
-        result.put("averageTransaction", Math.round(avgTransaction * 100.0) / 100.0);
-        result.put("maxTransaction", maxTransaction);
-        result.put("minTransaction", minTransaction);
-        result.put("totalTransactions", transactions.size());
+        return analyzeSpendingTrends(userId, null, null);
+    }
 
-        return result;
+    /**
+     * Analyze spending trends for an inclusive month range by merging per-month sketches
+     */
+    public Map<String, Object> analyzeSpendingTrends(String userId, YearMonth from, YearMonth to) {
+        return aggregate("spendingTrends", () -> trendSketchService.summarize(userId, from, to));
     }
-}
\ No newline at end of file
+}
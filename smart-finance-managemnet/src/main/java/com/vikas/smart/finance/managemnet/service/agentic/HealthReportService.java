@@ -0,0 +1,227 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.vikas.smart.finance.managemnet.service.DataVersionService;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Precomputed AI health reports, served from memory.
+ * A data version bump for a user who opened their report in the last week schedules a rebuild
+ * once their writes have been quiet for 30 seconds (or 5 minutes after the first, under steady
+ * writes). A sweep every 10 minutes rebuilds reports six hours old and those whose version was
+ * moved by another instance. Builds are single-flight per user, so a view arriving mid-rebuild
+ * waits for it instead of starting another. Rebuilds run on a small worker pool and share one
+ * turn in the fair Bedrock queue, so they never crowd out interactive calls.
+ */
+@Service
+public class HealthReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(HealthReportService.class);
+
+    private static final long SWEEP_INTERVAL_SECONDS = TimeUnit.MINUTES.toSeconds(10);
+    private static final long QUIET_MS = TimeUnit.SECONDS.toMillis(30);         // after the last data change
+    private static final long MAX_DELAY_MS = TimeUnit.MINUTES.toMillis(5);      // after the first one
+    private static final long MAX_AGE_MS = TimeUnit.HOURS.toMillis(6);          // even without changes
+    private static final long ACTIVE_MS = TimeUnit.DAYS.toMillis(7);
+    private static final int WORKERS = 2;
+    private static final String BACKGROUND_QUEUE = "health-report-refresh";     // fair-queue identity
+
+    private record Report(Map<String, Object> body, long dataVersion, long generatedAt) {}
+
+    private record Change(long first, long last) {}
+
+    @Autowired
+    private FinanceActionHandler financeActionHandler;
+
+    @Autowired
+    private BedrockAgentService bedrockAgentService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private FinanceMetrics metrics;
+
+    private final Map<String, Report> reports = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastViewed = new ConcurrentHashMap<>();
+    private final Map<String, Change> changed = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Report>> building = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "health-report-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, r -> {
+        Thread thread = new Thread(r, "health-report-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public boolean hasReport(String userId) {
+        return reports.containsKey(userId);
+    }
+
+    /**
+     * The stored report with its age and staleness; built in the caller's thread when there is none
+     * yet or {@code regenerate} is set.
+     */
+    public Map<String, Object> getReport(String userId, boolean regenerate) {
+        lastViewed.put(userId, System.currentTimeMillis());
+        Report report = reports.get(userId);
+        if (report == null || regenerate) {
+            report = build(userId, userId, "interactive");
+        }
+        return view(userId, report);
+    }
+
+    /** Only users with a stored report are refreshed; anyone else gets one built on their next view. */
+    @EventListener
+    public void onDataChanged(DataVersionService.Bumped event) {
+        String userId = event.userId();
+        if (!reports.containsKey(userId)) return;
+        long now = System.currentTimeMillis();
+        Change change = changed.merge(userId, new Change(now, now), (old, fresh) -> new Change(old.first(), now));
+        if (change.first() == now) {
+            sweeper.schedule(() -> refreshWhenQuiet(userId), QUIET_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refreshWhenQuiet(String userId) {
+        Change change = changed.get(userId);
+        if (change == null) return;
+        long now = System.currentTimeMillis();
+        long wait = Math.min(change.last() + QUIET_MS, change.first() + MAX_DELAY_MS) - now;
+        // A bump replacing the entry after the read keeps it here, so look again later
+        if (wait > 0 || !changed.remove(userId, change)) {
+            sweeper.schedule(() -> refreshWhenQuiet(userId), Math.max(wait, 1), TimeUnit.MILLISECONDS);
+            return;
+        }
+        Report report = reports.get(userId);
+        if (report != null && dataVersionService.current(userId) != report.dataVersion()) {
+            refreshInBackground(userId);
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        lastViewed.forEach((userId, viewed) -> {
+            if (now - viewed > ACTIVE_MS) {
+                lastViewed.remove(userId, viewed);
+                reports.remove(userId);
+                return;
+            }
+            Report report = reports.get(userId);
+            if (report == null || changed.containsKey(userId)) return;
+            // Bumps on other instances raise no event here, so compare versions as well
+            if (now - report.generatedAt() >= MAX_AGE_MS
+                    || dataVersionService.current(userId) != report.dataVersion()) {
+                refreshInBackground(userId);
+            }
+        });
+    }
+
+    private void refreshInBackground(String userId) {
+        if (building.containsKey(userId)) return;
+        workers.execute(() -> {
+            try {
+                build(userId, BACKGROUND_QUEUE, "background");
+            } catch (AiAdmissionService.OverloadedException e) {
+                log.debug("Bedrock busy, health report for '{}' retried on the next change or sweep", userId);
+            } catch (Exception e) {
+                log.warn("Background health report failed for user '{}'", userId, e);
+            }
+        });
+    }
+
+    /** Generate, or wait for the build already running for this user. */
+    private Report build(String userId, String queue, String trigger) {
+        CompletableFuture<Report> mine = new CompletableFuture<>();
+        CompletableFuture<Report> running = building.putIfAbsent(userId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        try {
+            Report report = generate(userId, queue, trigger);
+            mine.complete(report);
+            return report;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(userId, mine);
+        }
+    }
+
+    private Report generate(String userId, String queue, String trigger) {
+        return metrics.time("finance.reports.generation", "report", () -> {
+            // Read the version before the data so a concurrent write can only make the report newer than its tag
+            long version = dataVersionService.current(userId);
+            Map<String, Object> spending = financeActionHandler.getSpendingSummary(userId);
+            Map<String, Object> budget = financeActionHandler.getBudgetStatus(userId);
+            Map<String, Object> insights = financeActionHandler.getFinancialInsights(userId);
+            Map<String, Object> trends = financeActionHandler.analyzeSpendingTrends(userId);
+
+            String prompt = String.format(
+                    "Generate a comprehensive financial health report for user %s. " +
+                            "Spending: %s, Budget Status: %s, Insights: %s, Trends: %s. " +
+                            "Provide actionable advice and highlight concerns.",
+                    userId, spending, budget, insights, trends
+            );
+            String healthReport = bedrockAgentService.getAIResponse(queue, prompt);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("userId", userId);
+            body.put("spending", spending);
+            body.put("budget", budget);
+            body.put("insights", insights);
+            body.put("trends", trends);
+            body.put("aiHealthReport", healthReport);
+
+            Report report = new Report(body, version, System.currentTimeMillis());
+            if (healthReport.startsWith(BedrockAgentService.ERROR_PREFIX)) {
+                // Keep serving the last good report rather than caching a failure
+                Report previous = reports.get(userId);
+                return previous != null ? previous : report;
+            }
+            reports.put(userId, report);
+            return report;
+        }, "trigger", trigger);
+    }
+
+    private Map<String, Object> view(String userId, Report report) {
+        Map<String, Object> response = new LinkedHashMap<>(report.body());
+        response.put("timestamp", report.generatedAt());
+        response.put("generatedAt", Instant.ofEpochMilli(report.generatedAt()).toString());
+        response.put("ageSeconds", (System.currentTimeMillis() - report.generatedAt()) / 1000);
+        response.put("stale", dataVersionService.current(userId) != report.dataVersion());
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        workers.shutdownNow();
+    }
+}
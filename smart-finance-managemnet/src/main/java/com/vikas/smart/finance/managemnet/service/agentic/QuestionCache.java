@@ -0,0 +1,203 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In-process cache of advisor answers keyed by question similarity.
+ * Questions are normalized, split into word unigrams and bigrams, and summarized by a 64-value
+ * MinHash signature; an LSH index (16 bands of 4 rows) finds candidates, and a candidate is a hit
+ * when the exact Jaccard similarity of the shingle sets reaches 0.8. Entries are scoped to one
+ * user and one data version, so any write for that user empties their cache.
+ */
+@Service
+public class QuestionCache {
+
+    static final int HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = HASHES / BANDS;
+    static final double THRESHOLD = 0.8;
+
+    private static final int MAX_ENTRIES_PER_USER = 50;
+    private static final int MAX_USERS = 10_000;
+
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_CAFEL);
+        for (int i = 0; i < HASHES; i++) SEEDS[i] = random.nextLong();
+    }
+
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9 ]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Map<String, String> CONTRACTIONS = Map.of(
+            "'s", " is", "'re", " are", "'m", " am", "n't", " not", "'ve", " have", "'ll", " will", "'d", " would");
+
+    private final Map<String, UserEntries> users = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, UserEntries> eldest) {
+                    return size() > MAX_USERS;
+                }
+            });
+
+    /** The stored answer to a similar enough question at this data version, or null. */
+    public String lookup(String userId, long version, String question) {
+        UserEntries entries = users.get(userId);
+        if (entries == null) return null;
+        long[] shingles = shingles(question);
+        if (shingles.length == 0) return null;
+
+        synchronized (entries) {
+            if (entries.version != version) return null;
+            Entry match = entries.find(shingles, signature(shingles));
+            return match != null ? match.answer : null;
+        }
+    }
+
+    public void put(String userId, long version, String question, String answer) {
+        long[] shingles = shingles(question);
+        if (shingles.length == 0) return;
+
+        UserEntries entries = users.computeIfAbsent(userId, id -> new UserEntries(version));
+        synchronized (entries) {
+            if (entries.version != version) {
+                // Data changed since the cached answers were generated
+                if (version < entries.version) return;
+                entries.clear(version);
+            }
+            entries.add(new Entry(shingles, signature(shingles), answer));
+        }
+    }
+
+    static String normalize(String text) {
+        String s = text.toLowerCase(Locale.ROOT).replace('’', '\'');
+        for (Map.Entry<String, String> contraction : CONTRACTIONS.entrySet()) {
+            s = s.replace(contraction.getKey(), contraction.getValue());
+        }
+        s = NON_WORD.matcher(s).replaceAll(" ");
+        return SPACES.matcher(s).replaceAll(" ").trim();
+    }
+
+    /** Sorted, distinct hashes of the normalized question's words and adjacent word pairs. */
+    static long[] shingles(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) return new long[0];
+        String[] words = normalized.split(" ");
+        long[] hashes = new long[words.length * 2 - 1];
+        int n = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = hash(words[i]);
+            hashes[n++] = word;
+            if (i > 0) hashes[n++] = mix(hash(words[i - 1]) * 31 + word);
+        }
+        return Arrays.stream(hashes, 0, n).sorted().distinct().toArray();
+    }
+
+    static long[] signature(long[] shingles) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < HASHES; i++) {
+                long h = mix(shingle ^ SEEDS[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    /** Jaccard similarity of two sorted, distinct hash arrays. */
+    static double jaccard(long[] a, long[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+            key = mix(key * 31 + signature[r]);
+        }
+        return key;
+    }
+
+    private static long hash(String word) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < word.length(); i++) {
+            h = 31 * h + word.charAt(i);
+        }
+        return mix(h);
+    }
+
+    /** SplitMix64 finalizer */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Entry(long[] shingles, long[] signature, String answer) {}
+
+    private static final class UserEntries {
+        long version;
+        final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        final Map<Long, List<Entry>> buckets = new HashMap<>();
+
+        UserEntries(long version) {
+            this.version = version;
+        }
+
+        void clear(long newVersion) {
+            version = newVersion;
+            entries.clear();
+            buckets.clear();
+        }
+
+        void add(Entry entry) {
+            if (entries.size() == MAX_ENTRIES_PER_USER) {
+                Entry oldest = entries.pollFirst();
+                for (int band = 0; band < BANDS; band++) {
+                    long key = bandKey(oldest.signature(), band);
+                    List<Entry> bucket = buckets.get(key);
+                    bucket.remove(oldest);
+                    if (bucket.isEmpty()) buckets.remove(key);
+                }
+            }
+            entries.addLast(entry);
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bandKey(entry.signature(), band), k -> new ArrayList<>(1)).add(entry);
+            }
+        }
+
+        Entry find(long[] shingles, long[] signature) {
+            Entry best = null;
+            double bestSimilarity = THRESHOLD;
+            for (int band = 0; band < BANDS; band++) {
+                List<Entry> bucket = buckets.get(bandKey(signature, band));
+                if (bucket == null) continue;
+                for (Entry candidate : bucket) {
+                    if (candidate == best) continue;
+                    double similarity = jaccard(shingles, candidate.shingles());
+                    if (similarity >= bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+}
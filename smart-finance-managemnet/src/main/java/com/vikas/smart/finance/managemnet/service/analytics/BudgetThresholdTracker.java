@@ -0,0 +1,237 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.BudgetService;
+import com.vikas.smart.finance.managemnet.service.InsightService;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.service.archive.ColdArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Running spend per user and category next to the cached budget limits.
+ * A user is loaded once (one transaction query, one budget query, one read of their current budget
+ * alerts) by insight regeneration or a read, never by a write; after that a saved transaction adds
+ * to one counter and re-checks only its own category's 75%/100% thresholds.
+ * Each category's level starts at the last alert actually emitted, so spend that crossed a
+ * threshold while the user was not loaded (a CSV import, seeding, a restart) alerts once on the
+ * next {@link #evaluateAll}, and repeated writes past a threshold stay quiet.
+ */
+@Service
+public class BudgetThresholdTracker {
+
+    public enum Level { OK, WARNING, EXCEEDED }
+
+    private static final double WARNING_PERCENT = 75;
+    private static final double EXCEEDED_PERCENT = 100;
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    @Autowired
+    @Lazy
+    private BudgetService budgetService;
+
+    @Autowired
+    @Lazy
+    private InsightService insightService;
+
+    @Autowired
+    private ColdArchiveService coldArchive;
+
+    private record History(List<Transaction> hot, Map<String, Double> archived, List<Budget> budgets,
+                           Map<String, Level> emitted) {}
+
+    private final UserStateCache<History, UserBudgets> users = new UserStateCache<>(this::fetch,
+            (history, raced) -> build(history.hot(), history.archived(), history.budgets(), history.emitted(), raced));
+
+    /**
+     * Add a saved transaction to its category.
+     *
+     * Users that are not loaded are skipped: the load that follows sees the write in history.
+     *
+     * @return a "Budget Warning" or "Budget Exceeded" insight if this write crossed a threshold, otherwise null
+     */
+    public Insight record(Transaction t) {
+        if (t.getCategory() == null) return null;
+
+        UserStateCache.Recorded<UserBudgets> recorded = users.record(t.getUserId(), t, false);
+        if (recorded == null) return null;
+        UserBudgets user = recorded.state();
+        synchronized (user) {
+            CategoryState state = user.category(t.getCategory());
+            if (!recorded.applied()) state.spent += t.getAmount();
+            return evaluate(t.getUserId(), t.getCategory(), state);
+        }
+    }
+
+    /**
+     * Replace a cached limit; lowering a budget below current spend counts as a crossing.
+     * Users that are not loaded pick the new limit up on their next load.
+     */
+    public Insight updateBudget(Budget budget) {
+        UserBudgets user = users.getIfLoaded(budget.getUserId());
+        if (user == null || budget.getCategory() == null) return null;
+        synchronized (user) {
+            CategoryState state = user.category(budget.getCategory());
+            state.limit = budget.getAmount();
+            return evaluate(budget.getUserId(), budget.getCategory(), state);
+        }
+    }
+
+    /**
+     * Alerts for every category whose level rose above the last alert emitted, loading the user if
+     * needed. Called from insight regeneration, off the request path.
+     */
+    public List<Insight> evaluateAll(String userId) {
+        UserBudgets user = users.get(userId);
+        List<Insight> insights = new ArrayList<>();
+        synchronized (user) {
+            user.categories.forEach((category, state) -> {
+                Insight insight = evaluate(userId, category, state);
+                if (insight != null) insights.add(insight);
+            });
+        }
+        return insights;
+    }
+
+    /** Seed a user from full history (both tiers) the caller already loaded; no-op if the user is cached. */
+    public void preload(String userId, List<Transaction> history, List<Budget> budgets) {
+        if (users.getIfLoaded(userId) != null) return;
+        users.preload(userId, build(history, Map.of(), budgets, emitted(userId), List.of()));
+    }
+
+    /** Drop a user's counters, e.g. after a delete or bulk write. */
+    public void invalidate(String userId) {
+        users.invalidate(userId);
+    }
+
+    /** Percent of budget used per budgeted category, rounded to 2 decimals. */
+    public Map<String, Double> spendingRatios(String userId) {
+        UserBudgets user = users.get(userId);
+        Map<String, Double> ratios = new HashMap<>();
+        synchronized (user) {
+            user.categories.forEach((category, state) -> {
+                if (state.limit > 0) ratios.put(category, round(percent(state.spent, state.limit)));
+            });
+        }
+        return ratios;
+    }
+
+    /** Budgeted categories at or above the warning threshold. */
+    public Map<String, Level> alerts(String userId) {
+        UserBudgets user = users.get(userId);
+        Map<String, Level> alerts = new TreeMap<>();
+        synchronized (user) {
+            user.categories.forEach((category, state) -> {
+                Level level = level(state.spent, state.limit);
+                if (level != Level.OK) alerts.put(category, level);
+            });
+        }
+        return alerts;
+    }
+
+    private History fetch(String userId) {
+        return new History(transactionService.getHotTransactions(userId), coldArchive.totals(userId).byCategory(),
+                budgetService.getBudgets(userId), emitted(userId));
+    }
+
+    /** Highest current budget alert per category, from the stored insights. */
+    private Map<String, Level> emitted(String userId) {
+        Map<String, Level> levels = new HashMap<>();
+        insightService.currentBudgetAlerts(userId).forEach((category, types) ->
+                levels.put(category, types.contains("Budget Exceeded") ? Level.EXCEEDED : Level.WARNING));
+        return levels;
+    }
+
+    /**
+     * Sum a user's history (hot rows plus archived per-category totals) against their budgets.
+     * Levels start at {@code emitted}, the last alert raised per category, so a crossing made while
+     * the user was not loaded still alerts once. {@code pending}, the writes recorded while the
+     * history was read, are counted once whether or not the history already holds them.
+     */
+    static UserBudgets build(List<Transaction> history, Map<String, Double> archived, List<Budget> budgets,
+                             Map<String, Level> emitted, List<Transaction> pending) {
+        UserBudgets user = new UserBudgets();
+        archived.forEach((category, spent) -> {
+            if (category != null) user.category(category).spent += spent;
+        });
+        Map<String, Transaction> recorded = new HashMap<>();
+        for (Transaction t : pending) {
+            if (t.getCategory() != null) recorded.put(t.getTransactionId(), t);
+        }
+        for (Transaction t : history) {
+            // The query may or may not see the writes recorded during it; those are added below
+            if (t.getCategory() == null || recorded.containsKey(t.getTransactionId())) continue;
+            user.category(t.getCategory()).spent += t.getAmount();
+        }
+        recorded.values().forEach(t -> user.category(t.getCategory()).spent += t.getAmount());
+        for (Budget b : budgets) {
+            user.category(b.getCategory()).limit = b.getAmount();
+        }
+        emitted.forEach((category, level) -> user.category(category).level = level);
+        return user;
+    }
+
+    static Insight evaluate(String userId, String category, CategoryState state) {
+        Level previous = state.level;
+        state.level = level(state.spent, state.limit);
+        if (state.level.compareTo(previous) <= 0) return null;
+        return alert(userId, category, state);
+    }
+
+    static Level level(double spent, double limit) {
+        if (limit <= 0) return Level.OK;
+        double percent = percent(spent, limit);
+        if (percent >= EXCEEDED_PERCENT) return Level.EXCEEDED;
+        if (percent >= WARNING_PERCENT) return Level.WARNING;
+        return Level.OK;
+    }
+
+    private static Insight alert(String userId, String category, CategoryState state) {
+        double spent = round(state.spent);
+        Insight insight = new Insight();
+        insight.setUserId(userId);
+        insight.setSubject(category);
+        if (state.level == Level.EXCEEDED) {
+            insight.setType("Budget Exceeded");
+            insight.setMessage("🚨 Exceeded budget for " + category +
+                    " (Spent: " + spent + ", Limit: " + state.limit + ")");
+        } else {
+            insight.setType("Budget Warning");
+            insight.setMessage("⚠️ Used " + Math.round(percent(state.spent, state.limit)) + "% of " + category +
+                    " budget (" + spent + "/" + state.limit + ")");
+        }
+        insight.setDate(LocalDate.now());
+        return insight;
+    }
+
+    private static double percent(double spent, double limit) {
+        return spent / limit * 100.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    static final class CategoryState {
+        double spent;
+        double limit;           // 0 when the category has no budget
+        Level level = Level.OK;
+    }
+
+    static final class UserBudgets {
+        final Map<String, CategoryState> categories = new HashMap<>(8);
+
+        CategoryState category(String name) {
+            return categories.computeIfAbsent(name, c -> new CategoryState());
+        }
+    }
+}
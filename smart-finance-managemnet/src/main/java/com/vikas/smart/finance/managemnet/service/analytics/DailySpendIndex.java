@@ -0,0 +1,302 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.service.archive.ColdArchiveService;
+import com.vikas.smart.finance.managemnet.service.archive.ColdSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Per-user daily spend as cumulative prefix sums, one series per category plus a total.
+ * A series is a dense run of 64-day chunks between its first and last spend, each holding prefix
+ * sums over its own days, plus the running total before each chunk; so storage follows the days
+ * that have spend and a date-range total or count is two lookups. A write adds to the rest of its
+ * chunk and to the running totals after it, which for the usual recent-dated write is a handful.
+ * Dates outside 1970..2100 are not indexed and are logged as dropped. Archived history is loaded
+ * from the cold segments' per-day footers, not from rows.
+ * At most MAX_USERS users are kept, dropping the least recently used.
+ */
+@Service
+public class DailySpendIndex {
+
+    public enum GroupBy { DAY, WEEK, MONTH }
+
+    private static final Logger log = LoggerFactory.getLogger(DailySpendIndex.class);
+
+    private static final String TOTAL = "";
+    private static final int MAX_USERS = 20_000;
+    static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    static final LocalDate LATEST = LocalDate.of(2100, 12, 31);
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    @Autowired
+    private ColdArchiveService coldArchive;
+
+    private record History(List<Transaction> hot, List<ColdSegment.DailyTotal> archived) {}
+
+    private final UserStateCache<History, UserIndex> users = new UserStateCache<>(
+            id -> new History(transactionService.getHotTransactions(id), coldArchive.dailyTotals(id)),
+            (history, raced) -> build(history.hot(), history.archived(), raced), MAX_USERS);
+
+    /**
+     * Add a saved transaction to a loaded or loading user; anything else is picked up on the next
+     * load.
+     */
+    public void record(Transaction t) {
+        if (t.getDate() == null || t.getCategory() == null) return;
+        UserStateCache.Recorded<UserIndex> recorded = users.record(t.getUserId(), t, false);
+        if (recorded == null || recorded.applied()) return;
+        UserIndex user = recorded.state();
+        synchronized (user) {
+            if (!user.add(t)) {
+                log.warn("Dropped transaction {} for user {} from the daily index: dated {}", t.getTransactionId(), t.getUserId(), t.getDate());
+            }
+        }
+    }
+
+    public void invalidate(String userId) {
+        users.invalidate(userId);
+    }
+
+    /** Spend per category over an inclusive date range. */
+    public Map<String, Double> categoryTotals(String userId, LocalDate from, LocalDate to) {
+        UserIndex user = index(userId);
+        synchronized (user) {
+            return user.categoryTotals(from, to);
+        }
+    }
+
+    /**
+     * Totals, daily average and per-category spend over an inclusive range, plus one bucket per
+     * day, ISO week or calendar month (edge buckets are clipped to the range).
+     */
+    public Map<String, Object> rangeSummary(String userId, LocalDate from, LocalDate to, GroupBy groupBy) {
+        UserIndex user = index(userId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("groupBy", groupBy.name().toLowerCase());
+
+        synchronized (user) {
+            double total = user.sum(TOTAL, from, to);
+            long days = to.toEpochDay() - from.toEpochDay() + 1;
+            result.put("total", round(total));
+            result.put("dailyAverage", round(total / days));
+            result.put("transactionCount", user.count(TOTAL, from, to));
+            result.put("categories", user.categoryTotals(from, to));
+
+            List<Map<String, Object>> buckets = new ArrayList<>();
+            for (LocalDate start = from; !start.isAfter(to); ) {
+                LocalDate end = bucketEnd(start, groupBy);
+                if (end.isAfter(to)) end = to;
+
+                Map<String, Object> bucket = new LinkedHashMap<>();
+                bucket.put("start", start.toString());
+                bucket.put("end", end.toString());
+                bucket.put("total", round(user.sum(TOTAL, start, end)));
+                bucket.put("transactionCount", user.count(TOTAL, start, end));
+                bucket.put("categories", user.categoryTotals(start, end));
+                buckets.add(bucket);
+                start = end.plusDays(1);
+            }
+            result.put("buckets", buckets);
+        }
+        return result;
+    }
+
+    private UserIndex index(String userId) {
+        return users.get(userId);
+    }
+
+    static UserIndex build(List<Transaction> history) {
+        return build(history, List.of(), List.of());
+    }
+
+    /**
+     * @param raced writes recorded while {@code history} was read; each replaces the history row
+     *              with its id, if the read already saw it
+     */
+    static UserIndex build(List<Transaction> history, List<ColdSegment.DailyTotal> archived, List<Transaction> raced) {
+        Map<String, Transaction> recorded = new LinkedHashMap<>();
+        raced.forEach(t -> recorded.put(t.getTransactionId(), t));
+        List<ColdSegment.DailyTotal> days = new ArrayList<>(archived.size() + history.size() + recorded.size());
+        archived.stream().filter(d -> d.category() != null).forEach(days::add);
+        for (Transaction t : history) {
+            if (t.getDate() != null && t.getCategory() != null && !recorded.containsKey(t.getTransactionId())) {
+                days.add(new ColdSegment.DailyTotal(t.getDate(), t.getCategory(), t.getAmount(), 1));
+            }
+        }
+        for (Transaction t : recorded.values()) {
+            if (t.getDate() != null && t.getCategory() != null) {
+                days.add(new ColdSegment.DailyTotal(t.getDate(), t.getCategory(), t.getAmount(), 1));
+            }
+        }
+        // In date order each write only touches the running totals of the chunk it opens
+        days.sort(Comparator.comparing(ColdSegment.DailyTotal::date));
+        UserIndex user = new UserIndex();
+        int dropped = 0;
+        for (ColdSegment.DailyTotal d : days) {
+            if (!user.add(d.date(), d.category(), d.amount(), d.count())) dropped += d.count();
+        }
+        if (dropped > 0) {
+            log.warn("Dropped {} transactions dated outside {}..{} from the daily index", dropped, EARLIEST, LATEST);
+        }
+        return user;
+    }
+
+    private static LocalDate bucketEnd(LocalDate start, GroupBy groupBy) {
+        switch (groupBy) {
+            case WEEK:
+                return start.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH:
+                return start.with(TemporalAdjusters.lastDayOfMonth());
+            default:
+                return start;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    static final class UserIndex {
+        final Map<String, Series> series = new HashMap<>();  // category -> series; TOTAL for all
+
+        /** False if the transaction is dated outside the indexed window and was skipped. */
+        boolean add(Transaction t) {
+            return add(t.getDate(), t.getCategory(), t.getAmount(), 1);
+        }
+
+        boolean add(LocalDate date, String category, double amount, int count) {
+            if (date.isBefore(EARLIEST) || date.isAfter(LATEST)) return false;
+            long day = date.toEpochDay();
+            series.computeIfAbsent(TOTAL, c -> new Series()).add(day, amount, count);
+            series.computeIfAbsent(category, c -> new Series()).add(day, amount, count);
+            return true;
+        }
+
+        double sum(String category, LocalDate from, LocalDate to) {
+            Series s = series.get(category);
+            return s == null ? 0 : s.sum(from.toEpochDay(), to.toEpochDay());
+        }
+
+        long count(String category, LocalDate from, LocalDate to) {
+            Series s = series.get(category);
+            return s == null ? 0 : s.count(from.toEpochDay(), to.toEpochDay());
+        }
+
+        Map<String, Double> categoryTotals(LocalDate from, LocalDate to) {
+            Map<String, Double> totals = new TreeMap<>();
+            long start = from.toEpochDay();
+            long end = to.toEpochDay();
+            series.forEach((category, s) -> {
+                if (category.equals(TOTAL)) return;
+                double sum = round(s.sum(start, end));
+                if (sum != 0) totals.put(category, sum);
+            });
+            return totals;
+        }
+    }
+
+    /**
+     * Chunks of CHUNK_DAYS days keyed by epochDay / CHUNK_DAYS, stored densely from firstKey; in
+     * each, prefix[i] is the spend on the chunk's days [0, i), and before[k] is the spend in all
+     * chunks ahead of chunk k. Chunks without spend inside the run are null.
+     */
+    static final class Series {
+        static final int CHUNK_DAYS = 64;
+
+        private static final class Chunk {
+            final double[] prefix = new double[CHUNK_DAYS + 1];
+            final int[] counts = new int[CHUNK_DAYS + 1];
+        }
+
+        private long firstKey;
+        private Chunk[] chunks = new Chunk[0];
+        private double[] before = new double[1];
+        private long[] countsBefore = new long[1];
+
+        void add(long epochDay, double amount, int count) {
+            int index = slot(Math.floorDiv(epochDay, CHUNK_DAYS));
+            Chunk chunk = chunks[index];
+            if (chunk == null) chunk = chunks[index] = new Chunk();
+            for (int i = (int) Math.floorMod(epochDay, CHUNK_DAYS) + 1; i <= CHUNK_DAYS; i++) {
+                chunk.prefix[i] += amount;
+                chunk.counts[i] += count;
+            }
+            for (int k = index + 1; k < before.length; k++) {
+                before[k] += amount;
+                countsBefore[k] += count;
+            }
+        }
+
+        /** Inclusive epoch-day range. */
+        double sum(long from, long to) {
+            return to < from ? 0 : spendBefore(to + 1) - spendBefore(from);
+        }
+
+        long count(long from, long to) {
+            return to < from ? 0 : countBefore(to + 1) - countBefore(from);
+        }
+
+        private double spendBefore(long day) {
+            long key = Math.floorDiv(day, CHUNK_DAYS);
+            if (key < firstKey) return 0;
+            if (key - firstKey >= chunks.length) return before[chunks.length];
+            int index = (int) (key - firstKey);
+            Chunk chunk = chunks[index];
+            return before[index] + (chunk == null ? 0 : chunk.prefix[(int) Math.floorMod(day, CHUNK_DAYS)]);
+        }
+
+        private long countBefore(long day) {
+            long key = Math.floorDiv(day, CHUNK_DAYS);
+            if (key < firstKey) return 0;
+            if (key - firstKey >= chunks.length) return countsBefore[chunks.length];
+            int index = (int) (key - firstKey);
+            Chunk chunk = chunks[index];
+            return countsBefore[index] + (chunk == null ? 0 : chunk.counts[(int) Math.floorMod(day, CHUNK_DAYS)]);
+        }
+
+        /** Position of the chunk for {@code key}, widening the run to cover it. */
+        private int slot(long key) {
+            if (chunks.length == 0) {
+                firstKey = key;
+                widen(0, 1);
+            } else if (key < firstKey) {
+                widen((int) (firstKey - key), (int) (firstKey - key) + chunks.length);
+                firstKey = key;
+            } else if (key - firstKey >= chunks.length) {
+                widen(0, (int) (key - firstKey) + 1);
+            }
+            return (int) (key - firstKey);
+        }
+
+        /** Chunks added ahead of the run have nothing before them; those after it have everything. */
+        private void widen(int shift, int length) {
+            Chunk[] grown = new Chunk[length];
+            System.arraycopy(chunks, 0, grown, shift, chunks.length);
+            double[] grownBefore = new double[length + 1];
+            long[] grownCounts = new long[length + 1];
+            System.arraycopy(before, 0, grownBefore, shift, before.length);
+            System.arraycopy(countsBefore, 0, grownCounts, shift, countsBefore.length);
+            Arrays.fill(grownBefore, shift + before.length, length + 1, before[chunks.length]);
+            Arrays.fill(grownCounts, shift + countsBefore.length, length + 1, countsBefore[chunks.length]);
+            chunks = grown;
+            before = grownBefore;
+            countsBefore = grownCounts;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.VendorRecurrence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Incremental recurring-payment detector.
+ * Keeps one small {@link VendorRecurrence} row per user and vendor (last-seen date,
+ * inter-arrival histogram, amount mean/variance) and updates it in O(1) per transaction.
+ * A charge dated before the vendor's last-seen date has no known neighbours, so it only marks the
+ * state for a rebuild from sorted history on the next {@link #reconcile}.
+ */
+@Service
+public class RecurrenceDetector {
+
+    /** Inter-arrival buckets; OTHER collects every gap that matches no billing cycle. */
+    public enum Period {
+        OTHER(0, 0),
+        WEEKLY(5, 9),
+        BIWEEKLY(12, 16),
+        MONTHLY(26, 35),
+        QUARTERLY(85, 97),
+        YEARLY(355, 375);
+
+        private final int minDays;
+        private final int maxDays;
+
+        Period(int minDays, int maxDays) {
+            this.minDays = minDays;
+            this.maxDays = maxDays;
+        }
+
+        static Period of(long days) {
+            for (Period p : values()) {
+                if (p != OTHER && days >= p.minDays && days <= p.maxDays) return p;
+            }
+            return OTHER;
+        }
+
+        LocalDate next(LocalDate from) {
+            return switch (this) {
+                case WEEKLY -> from.plusWeeks(1);
+                case BIWEEKLY -> from.plusWeeks(2);
+                case MONTHLY -> from.plusMonths(1);
+                case QUARTERLY -> from.plusMonths(3);
+                case YEARLY -> from.plusYears(1);
+                case OTHER -> from;
+            };
+        }
+    }
+
+    /** A vendor whose charges follow a stable cycle, with the predicted next charge. */
+    public record RecurringPayment(String vendor, Period period, boolean subscription,
+                                   LocalDate nextChargeDate, double expectedAmount, int occurrences) {}
+
+    private static final int MIN_OCCURRENCES = 3;
+    private static final double MIN_DOMINANT_SHARE = 2.0 / 3.0;
+    private static final double MAX_RECURRING_CV = 0.25;     // amount coefficient of variation
+    private static final double MAX_SUBSCRIPTION_CV = 0.05;
+    private static final int MAX_MISSED_CYCLES = 2;
+    private static final int LOCK_STRIPES = 64;
+
+    private final DynamoDbTable<VendorRecurrence> recurrenceTable;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @Autowired
+    public RecurrenceDetector(DynamoDbEnhancedClient enhancedClient) {
+        this.recurrenceTable = enhancedClient.table("VendorRecurrence", TableSchema.fromBean(VendorRecurrence.class));
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+    }
+
+    /**
+     * Fold a single transaction into its vendor state: one point read, one write.
+     */
+    public void record(Transaction t) {
+        if (t.getVendor() == null || t.getDate() == null) return;
+
+        synchronized (lockFor(t.getUserId(), t.getVendor())) {
+            VendorRecurrence state = recurrenceTable.getItem(Key.builder()
+                    .partitionValue(t.getUserId())
+                    .sortValue(t.getVendor())
+                    .build());
+            if (state == null) state = newState(t.getUserId(), t.getVendor());
+            update(state, t.getDate(), t.getAmount());
+            recurrenceTable.putItem(state);
+        }
+    }
+
+    /**
+     * Rebuild state from history when the tracked count differs from the rows the detector counts
+     * (data written before it was deployed, or deleted since) or a charge arrived out of order;
+     * vendors left without rows are removed. Each vendor is written under its lock; a charge recorded
+     * after {@code history} was read is overwritten, and the count check repairs it next time.
+     */
+    public void reconcile(String userId, List<Transaction> history) {
+        List<VendorRecurrence> states = getStates(userId);
+        long tracked = states.stream().mapToLong(VendorRecurrence::getCount).sum();
+        long tracking = history.stream().filter(t -> t.getVendor() != null && t.getDate() != null).count();
+        boolean unordered = states.stream().anyMatch(VendorRecurrence::isNeedsRebuild);
+        if (tracked == tracking && !unordered) return;
+
+        Map<String, VendorRecurrence> rebuilt = rebuild(userId, history, null);
+        rebuilt.forEach((vendor, state) -> {
+            synchronized (lockFor(userId, vendor)) {
+                recurrenceTable.putItem(state);
+            }
+        });
+        for (VendorRecurrence state : states) {
+            if (rebuilt.containsKey(state.getVendor())) continue;
+            synchronized (lockFor(userId, state.getVendor())) {
+                recurrenceTable.deleteItem(state);
+            }
+        }
+    }
+
+    /**
+     * Recompute one vendor from its remaining charges, e.g. after one was deleted; other vendors'
+     * rows in {@code history} are ignored.
+     */
+    public void rebuildVendor(String userId, String vendor, List<Transaction> history) {
+        if (vendor == null) return;
+        synchronized (lockFor(userId, vendor)) {
+            VendorRecurrence state = rebuild(userId, history, vendor).get(vendor);
+            if (state != null) {
+                recurrenceTable.putItem(state);
+            } else {
+                recurrenceTable.deleteItem(Key.builder().partitionValue(userId).sortValue(vendor).build());
+            }
+        }
+    }
+
+    /** Drop all of a user's vendor state. */
+    public void deleteAll(String userId) {
+        getStates(userId).forEach(recurrenceTable::deleteItem);
+    }
+
+    /** State per vendor from history in date order; only {@code vendor} when it is not null. */
+    static Map<String, VendorRecurrence> rebuild(String userId, List<Transaction> history, String vendor) {
+        Map<String, VendorRecurrence> rebuilt = new HashMap<>();
+        history.stream()
+                .filter(t -> t.getVendor() != null && t.getDate() != null)
+                .filter(t -> vendor == null || vendor.equals(t.getVendor()))
+                .sorted(Comparator.comparing(Transaction::getDate))
+                .forEach(t -> update(rebuilt.computeIfAbsent(t.getVendor(), v -> newState(userId, v)),
+                        t.getDate(), t.getAmount()));
+        return rebuilt;
+    }
+
+    /**
+     * Vendors whose stored state currently qualifies as recurring.
+     */
+    public List<RecurringPayment> findRecurring(String userId) {
+        LocalDate today = LocalDate.now();
+        List<RecurringPayment> result = new ArrayList<>();
+        for (VendorRecurrence state : getStates(userId)) {
+            RecurringPayment payment = classify(state, today);
+            if (payment != null) result.add(payment);
+        }
+        return result;
+    }
+
+    private List<VendorRecurrence> getStates(String userId) {
+        List<VendorRecurrence> states = new ArrayList<>();
+        recurrenceTable.query(QueryConditional.keyEqualTo(k -> k.partitionValue(userId)))
+                .items()
+                .forEach(states::add);
+        return states;
+    }
+
+    static VendorRecurrence newState(String userId, String vendor) {
+        VendorRecurrence state = new VendorRecurrence();
+        state.setUserId(userId);
+        state.setVendor(vendor);
+        state.setIntervalHistogram(new ArrayList<>(Collections.nCopies(Period.values().length, 0)));
+        return state;
+    }
+
+    /**
+     * Welford update of amount statistics plus one histogram increment for the gap since the
+     * last-seen date. An earlier date than that adds no gap and marks the state for a rebuild.
+     */
+    static void update(VendorRecurrence state, LocalDate date, double amount) {
+        if (state.getCount() > 0 && state.getLastSeen() != null) {
+            long gap = ChronoUnit.DAYS.between(state.getLastSeen(), date);
+            if (gap >= 0) {
+                List<Integer> histogram = state.getIntervalHistogram();
+                int bucket = Period.of(gap).ordinal();
+                histogram.set(bucket, histogram.get(bucket) + 1);
+            } else {
+                state.setNeedsRebuild(true);
+            }
+        }
+        if (state.getLastSeen() == null || !date.isBefore(state.getLastSeen())) {
+            state.setLastSeen(date);
+            state.setLastAmount(amount);
+        }
+
+        int count = state.getCount() + 1;
+        double delta = amount - state.getAmountMean();
+        double mean = state.getAmountMean() + delta / count;
+        state.setAmountM2(state.getAmountM2() + delta * (amount - mean));
+        state.setAmountMean(mean);
+        state.setCount(count);
+    }
+
+    static RecurringPayment classify(VendorRecurrence state, LocalDate today) {
+        if (state.getCount() < MIN_OCCURRENCES || state.getIntervalHistogram() == null) return null;
+
+        List<Integer> histogram = state.getIntervalHistogram();
+        int intervals = histogram.stream().mapToInt(Integer::intValue).sum();
+        Period dominant = Period.OTHER;
+        int dominantCount = 0;
+        for (Period p : Period.values()) {
+            if (p != Period.OTHER && p.ordinal() < histogram.size() && histogram.get(p.ordinal()) > dominantCount) {
+                dominant = p;
+                dominantCount = histogram.get(p.ordinal());
+            }
+        }
+        if (dominant == Period.OTHER || dominantCount < intervals * MIN_DOMINANT_SHARE) return null;
+
+        double mean = state.getAmountMean();
+        double stdDev = Math.sqrt(state.getAmountM2() / (state.getCount() - 1));
+        double cv = mean > 0 ? stdDev / mean : Double.MAX_VALUE;
+        if (cv > MAX_RECURRING_CV) return null;
+
+        // Roll the prediction forward past today; a vendor that skipped too many cycles has lapsed
+        LocalDate next = dominant.next(state.getLastSeen());
+        int missed = 0;
+        while (next.isBefore(today)) {
+            if (++missed > MAX_MISSED_CYCLES) return null;
+            next = dominant.next(next);
+        }
+
+        boolean subscription = cv <= MAX_SUBSCRIPTION_CV;
+        double expected = subscription ? state.getLastAmount() : mean;
+        return new RecurringPayment(state.getVendor(), dominant, subscription, next,
+                Math.round(expected * 100.0) / 100.0, state.getCount());
+    }
+
+    private Object lockFor(String userId, String vendor) {
+        return locks[Math.floorMod(Objects.hash(userId, vendor), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,160 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Online per-category spending anomaly detector.
+ * Keeps an EWMA mean/variance per user and category plus a per-user day-of-week profile,
+ * updated once per saved transaction. State is a few floats per category so it stays in memory.
+ * A user's profile is seeded from their hot history in date order on first use, so a restart
+ * does not reopen the warm-up; at most MAX_USERS users are kept, dropping the least recently used.
+ */
+@Service
+public class SpendingAnomalyDetector {
+
+    private static final float ALPHA = 0.1f;           // EWMA smoothing factor
+    private static final int WARMUP = 5;               // observations before a category can alert
+    private static final double Z_THRESHOLD = 3.0;
+    private static final double MIN_EXCESS = 20.0;     // ignore tiny absolute deviations
+    private static final int DOW_WARMUP = 3;
+    private static final float MIN_DOW_FACTOR = 0.5f;
+    private static final float MAX_DOW_FACTOR = 2.0f;
+    private static final int MAX_USERS = 20_000;
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    private final UserStateCache<List<Transaction>, UserProfile> profiles;
+
+    public SpendingAnomalyDetector() {
+        this(null);
+    }
+
+    /** @param history a user's hot transactions; defaults to the transaction service */
+    SpendingAnomalyDetector(Function<String, List<Transaction>> history) {
+        profiles = new UserStateCache<>(
+                history != null ? history : userId -> transactionService.getHotTransactions(userId),
+                SpendingAnomalyDetector::build, MAX_USERS);
+    }
+
+    /**
+     * Score the saved transaction against the current profile, then fold it in.
+     *
+     * @return an "Unusual Spend" insight if the amount is an outlier, otherwise null
+     */
+    public Insight observe(Transaction t) {
+        if (t.getCategory() == null || t.getDate() == null) return null;
+
+        UserStateCache.Recorded<UserProfile> recorded = profiles.record(t.getUserId(), t, true);
+        if (recorded == null) return null;
+        UserProfile profile = recorded.state();
+        synchronized (profile) {
+            // A write that raced the load was scored by the build
+            return recorded.applied() ? profile.unclaimed.remove(t.getTransactionId()) : score(profile, t);
+        }
+    }
+
+    /** Drop a user's profile, e.g. after their history was deleted; it is reseeded on next use. */
+    public void reset(String userId) {
+        profiles.invalidate(userId);
+    }
+
+    /**
+     * Fold history in date order, skipping rows the read already saw among {@code raced}, then
+     * score the raced writes and keep their insights for the callers waiting on the load.
+     */
+    private static UserProfile build(List<Transaction> history, List<Transaction> raced) {
+        Map<String, Transaction> recorded = new LinkedHashMap<>();
+        raced.forEach(t -> recorded.put(t.getTransactionId(), t));
+        UserProfile profile = new UserProfile();
+        history.stream()
+                .filter(t -> t.getCategory() != null && t.getDate() != null && !recorded.containsKey(t.getTransactionId()))
+                .sorted(Comparator.comparing(Transaction::getDate))
+                .forEach(t -> score(profile, t));
+        for (Transaction t : recorded.values()) {
+            Insight insight = score(profile, t);
+            if (insight != null) profile.unclaimed.put(t.getTransactionId(), insight);
+        }
+        return profile;
+    }
+
+    /** Caller holds the profile's monitor. */
+    private static Insight score(UserProfile profile, Transaction t) {
+        int dow = t.getDate().getDayOfWeek().getValue() - 1;
+        double amount = t.getAmount();
+
+        CategoryStats stats = profile.categories.computeIfAbsent(t.getCategory(), c -> new CategoryStats());
+        double expected = stats.mean * profile.dowFactor(dow);
+        double stdDev = Math.sqrt(stats.variance);
+        double z = stdDev > 0 ? (amount - expected) / stdDev : 0;
+        boolean outlier = stats.count >= WARMUP && z > Z_THRESHOLD && amount - expected > MIN_EXCESS;
+
+        // Clip outliers before folding them in so one spike does not mask the next
+        double folded = outlier ? expected + Z_THRESHOLD * stdDev : amount;
+        stats.update((float) folded);
+        profile.updateDayOfWeek(dow, (float) folded);
+
+        if (!outlier) return null;
+        return unusualSpend(t, expected, z);
+    }
+
+    private static Insight unusualSpend(Transaction t, double expected, double z) {
+        Insight insight = new Insight();
+        insight.setUserId(t.getUserId());
+        insight.setType("Unusual Spend");
+        insight.setSubject(t.getCategory());
+        insight.setMessage("🔍 Unusual " + t.getCategory() + " spend at " + t.getVendor() +
+                ": " + t.getAmount() + " (typical ~" + Math.round(expected * 100.0) / 100.0 +
+                ", " + String.format("%.1f", z) + "σ above normal)");
+        insight.setDate(LocalDate.now());
+        return insight;
+    }
+
+    private static final class CategoryStats {
+        float mean;
+        float variance;
+        int count;
+
+        void update(float x) {
+            if (count++ == 0) {
+                mean = x;
+                return;
+            }
+            float diff = x - mean;
+            float incr = ALPHA * diff;
+            mean += incr;
+            variance = (1 - ALPHA) * (variance + diff * incr);
+        }
+    }
+
+    private static final class UserProfile {
+        final Map<String, CategoryStats> categories = new HashMap<>(8);
+        final Map<String, Insight> unclaimed = new HashMap<>(2);   // raced writes' insights, by transaction id
+        final float[] dowMean = new float[7];
+        final byte[] dowCount = new byte[7];
+        float overallMean;
+        int overallCount;
+
+        /** Ratio of this weekday's typical spend to the overall typical spend, clamped. */
+        float dowFactor(int dow) {
+            if (dowCount[dow] < DOW_WARMUP || overallMean <= 0) return 1f;
+            return Math.max(MIN_DOW_FACTOR, Math.min(MAX_DOW_FACTOR, dowMean[dow] / overallMean));
+        }
+
+        void updateDayOfWeek(int dow, float x) {
+            dowMean[dow] = dowCount[dow] == 0 ? x : dowMean[dow] + ALPHA * (x - dowMean[dow]);
+            if (dowCount[dow] < Byte.MAX_VALUE) dowCount[dow]++;
+            overallMean = overallCount++ == 0 ? x : overallMean + ALPHA * (x - overallMean);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Month-end spend projection per category.
+ * Each user is held as compact per-day series (current month, split into recurring and discretionary
+ * spend) plus daily mean/variance of the previous months. Forecasting reads only these arrays:
+ * discretionary run-rate, shrunk towards the prior months early in the month, plus the recurring
+ * charges still due, with normal confidence bands that widen with the days remaining. Rows dated
+ * later this month count as committed spend. At most MAX_USERS users are kept, dropping the least
+ * recently used.
+ */
+@Service
+public class SpendingForecaster {
+
+    public record CategoryForecast(String category, double spentToDate, double projected,
+                                   double low80, double high80, double low95, double high95,
+                                   double recurringRemaining, Double budget, Double overspendProbability) {}
+
+    private static final int PRIOR_MONTHS = 3;
+    private static final double PRIOR_WEIGHT_DAYS = 7;     // prior months count as this many observed days
+    private static final double Z80 = 1.2816;
+    private static final double Z95 = 1.96;
+    private static final int MAX_USERS = 20_000;
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    @Autowired
+    @Lazy
+    private RecurrenceDetector recurrenceDetector;
+
+    private record History(List<Transaction> transactions, List<RecurrenceDetector.RecurringPayment> recurring,
+                           LocalDate today) {}
+
+    private final UserStateCache<History, UserSeries> series = new UserStateCache<>(
+            userId -> new History(transactionService.getTransactions(userId),
+                    recurrenceDetector.findRecurring(userId), LocalDate.now()),
+            (history, raced) -> build(withRaced(history.transactions(), raced), history.recurring(), history.today()),
+            MAX_USERS);
+    // Loading a user reads DynamoDB, so forecasts get their own threads rather than a ForkJoinPool
+    private final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread thread = new Thread(r, "forecast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Add a saved transaction to a loaded user's current month; anything else forces a rebuild. */
+    public void record(Transaction t) {
+        if (t.getDate() == null || t.getCategory() == null) return;
+        UserStateCache.Recorded<UserSeries> recorded = series.record(t.getUserId(), t, false);
+        if (recorded == null || recorded.applied()) return;
+        UserSeries user = recorded.state();
+        synchronized (user) {
+            if (!YearMonth.from(t.getDate()).equals(user.month)) {
+                series.invalidate(t.getUserId(), user);
+                return;
+            }
+            user.add(t);
+        }
+    }
+
+    public void invalidate(String userId) {
+        series.invalidate(userId);
+    }
+
+    /**
+     * Forecasts for every category with spend this month, prior history or a budget.
+     *
+     * @param budgets category to monthly limit
+     */
+    public List<CategoryForecast> forecast(String userId, Map<String, Double> budgets) {
+        LocalDate today = LocalDate.now();
+        YearMonth month = YearMonth.from(today);
+        UserSeries user = series.get(userId);
+        if (!user.month.equals(month)) {
+            // Built last month; rebuild once for the new one
+            series.invalidate(userId, user);
+            user = series.get(userId);
+        }
+
+        synchronized (user) {
+            return user.forecast(today, budgets);
+        }
+    }
+
+    /**
+     * Forecast many users in parallel; budgets are looked up per user on the worker threads.
+     */
+    public Map<String, List<CategoryForecast>> forecastAll(Collection<String> userIds,
+                                                           Function<String, Map<String, Double>> budgets) {
+        Map<String, Future<List<CategoryForecast>>> pending = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            pending.computeIfAbsent(userId, id -> pool.submit(() -> forecast(id, budgets.apply(id))));
+        }
+        Map<String, List<CategoryForecast>> forecasts = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<List<CategoryForecast>>> entry : pending.entrySet()) {
+                forecasts.put(entry.getKey(), entry.getValue().get());
+            }
+            return forecasts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Forecast interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Forecast failed", e.getCause());
+        } finally {
+            pending.values().forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** History with the saves recorded while it was read, each once; a save replaces the row it rewrote. */
+    static List<Transaction> withRaced(List<Transaction> history, List<Transaction> raced) {
+        if (raced.isEmpty()) return history;
+        Map<String, Transaction> recorded = new LinkedHashMap<>();
+        raced.forEach(t -> recorded.put(t.getTransactionId(), t));
+        List<Transaction> merged = new ArrayList<>(history.size() + recorded.size());
+        for (Transaction t : history) {
+            if (!recorded.containsKey(t.getTransactionId())) merged.add(t);
+        }
+        merged.addAll(recorded.values());
+        return merged;
+    }
+
+    static UserSeries build(List<Transaction> history, List<RecurrenceDetector.RecurringPayment> recurring,
+                            LocalDate today) {
+        YearMonth month = YearMonth.from(today);
+        UserSeries user = new UserSeries(month);
+        recurring.forEach(p -> user.recurringVendors.add(p.vendor()));
+
+        YearMonth earliest = month;
+        Map<String, Transaction> latestByVendor = new HashMap<>();
+        for (Transaction t : history) {
+            if (t.getDate() == null || t.getCategory() == null) continue;
+            YearMonth ym = YearMonth.from(t.getDate());
+            if (ym.isBefore(earliest)) earliest = ym;
+            latestByVendor.merge(t.getVendor() != null ? t.getVendor() : "", t,
+                    (a, b) -> b.getDate().isAfter(a.getDate()) ? b : a);
+        }
+
+        // Prior months start no earlier than the user's first transaction, so new users are not diluted by zeros
+        YearMonth priorStart = month.minusMonths(PRIOR_MONTHS);
+        if (priorStart.isBefore(earliest)) priorStart = earliest;
+        int priorMonths = (int) priorStart.until(month, ChronoUnit.MONTHS);
+        Map<String, float[]> priorDaily = new HashMap<>();
+
+        for (Transaction t : history) {
+            if (t.getDate() == null || t.getCategory() == null) continue;
+            YearMonth ym = YearMonth.from(t.getDate());
+            if (ym.equals(month)) {
+                user.add(t);
+            } else if (!ym.isBefore(priorStart) && ym.isBefore(month) && !user.recurringVendors.contains(t.getVendor())) {
+                int index = (int) priorStart.until(ym, ChronoUnit.MONTHS) * 31 + t.getDate().getDayOfMonth() - 1;
+                priorDaily.computeIfAbsent(t.getCategory(), c -> new float[priorMonths * 31])[index] += (float) t.getAmount();
+            }
+        }
+
+        for (Map.Entry<String, float[]> entry : priorDaily.entrySet()) {
+            CategorySeries category = user.category(entry.getKey());
+            float[] days = entry.getValue();
+            for (int m = 0; m < priorMonths; m++) {
+                int length = priorStart.plusMonths(m).lengthOfMonth();
+                for (int d = 0; d < length; d++) {
+                    double v = days[m * 31 + d];
+                    category.priorDays++;
+                    category.priorSum += v;
+                    category.priorSumSq += v * v;
+                }
+            }
+        }
+
+        LocalDate monthEnd = month.atEndOfMonth();
+        for (RecurrenceDetector.RecurringPayment payment : recurring) {
+            Transaction last = latestByVendor.get(payment.vendor());
+            if (last == null) continue;
+            // Overdue charges have not posted yet; expect them tomorrow
+            LocalDate date = payment.nextChargeDate().isAfter(today) ? payment.nextChargeDate() : today.plusDays(1);
+            while (!date.isAfter(monthEnd)) {
+                user.upcoming.add(new UpcomingCharge(payment.vendor(), last.getCategory(), date, payment.expectedAmount()));
+                LocalDate next = payment.period().next(date);
+                if (!next.isAfter(date)) break;
+                date = next;
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Project one category from its series. Rows already dated after today are committed spend,
+     * added to the projection and its floor on top of the run-rate.
+     *
+     * @param elapsed days of the month observed so far, today included
+     */
+    static CategoryForecast project(String name, CategorySeries series, int elapsed, int monthDays,
+                                    double recurringRemaining, Double budget) {
+        double spent = 0;
+        double discretionary = 0;
+        double discretionarySq = 0;
+        for (int d = 0; d < elapsed; d++) {
+            spent += series.daily[d];
+            double x = series.daily[d] - series.fixed[d];
+            discretionary += x;
+            discretionarySq += x * x;
+        }
+        double scheduled = 0;
+        for (int d = elapsed; d < monthDays; d++) scheduled += series.daily[d];
+
+        double mean = discretionary / elapsed;
+        double variance = elapsed > 1 ? Math.max(0, (discretionarySq - elapsed * mean * mean) / (elapsed - 1)) : mean * mean;
+        double weight = 0;
+        if (series.priorDays > 0) {
+            double priorMean = series.priorSum / series.priorDays;
+            double priorVariance = Math.max(0, series.priorSumSq / series.priorDays - priorMean * priorMean);
+            weight = PRIOR_WEIGHT_DAYS;
+            mean = (discretionary + weight * priorMean) / (elapsed + weight);
+            variance = ((elapsed - 1) * variance + weight * priorVariance) / (elapsed - 1 + weight);
+        }
+
+        int remaining = monthDays - elapsed;
+        double projected = spent + scheduled + remaining * mean + recurringRemaining;
+        // Day-to-day noise over the remaining days plus uncertainty in the run-rate itself
+        double sd = Math.sqrt(variance * (remaining + (double) remaining * remaining / (elapsed + weight)));
+        double floor = spent + scheduled + recurringRemaining;
+
+        Double probability = null;
+        if (budget != null && budget > 0) {
+            probability = sd > 0 ? 1 - normalCdf((budget - projected) / sd) : (projected > budget ? 1.0 : 0.0);
+            probability = round(probability);
+        }
+        return new CategoryForecast(name, round(spent), round(projected),
+                round(Math.max(floor, projected - Z80 * sd)), round(projected + Z80 * sd),
+                round(Math.max(floor, projected - Z95 * sd)), round(projected + Z95 * sd),
+                round(recurringRemaining), budget, probability);
+    }
+
+    /** Standard normal CDF via the Abramowitz-Stegun erf approximation (error below 1.5e-7). */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    record UpcomingCharge(String vendor, String category, LocalDate date, double amount) {}
+
+    static final class CategorySeries {
+        final float[] daily = new float[31];    // all spend per day of the current month
+        final float[] fixed = new float[31];    // the part charged by recurring vendors
+        int priorDays;
+        double priorSum;                        // discretionary daily spend over prior months
+        double priorSumSq;
+    }
+
+    static final class UserSeries {
+        final YearMonth month;
+        final Map<String, CategorySeries> categories = new HashMap<>();
+        final Set<String> recurringVendors = new HashSet<>();
+        final List<UpcomingCharge> upcoming = new ArrayList<>();
+
+        UserSeries(YearMonth month) {
+            this.month = month;
+        }
+
+        CategorySeries category(String name) {
+            return categories.computeIfAbsent(name, c -> new CategorySeries());
+        }
+
+        void add(Transaction t) {
+            int day = t.getDate().getDayOfMonth() - 1;
+            CategorySeries category = category(t.getCategory());
+            category.daily[day] += (float) t.getAmount();
+            if (recurringVendors.contains(t.getVendor())) {
+                category.fixed[day] += (float) t.getAmount();
+                // The charge we were expecting has posted
+                upcoming.stream()
+                        .filter(c -> c.vendor().equals(t.getVendor()))
+                        .findFirst()
+                        .ifPresent(upcoming::remove);
+            }
+        }
+
+        List<CategoryForecast> forecast(LocalDate today, Map<String, Double> budgets) {
+            Map<String, Double> recurringRemaining = new HashMap<>();
+            for (UpcomingCharge charge : upcoming) {
+                if (charge.date().isAfter(today)) recurringRemaining.merge(charge.category(), charge.amount(), Double::sum);
+            }
+
+            Set<String> names = new TreeSet<>(categories.keySet());
+            names.addAll(budgets.keySet());
+            names.addAll(recurringRemaining.keySet());
+            List<CategoryForecast> result = new ArrayList<>(names.size());
+            for (String name : names) {
+                result.add(project(name, categories.getOrDefault(name, new CategorySeries()),
+                        today.getDayOfMonth(), month.lengthOfMonth(),
+                        recurringRemaining.getOrDefault(name, 0.0), budgets.get(name)));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.util.HyperLogLog;
+import com.vikas.smart.finance.managemnet.util.TDigest;
+import com.vikas.smart.finance.managemnet.util.TopKTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Per-user, per-month mergeable sketches of transaction sizes (t-digest), distinct vendors
+ * (HyperLogLog) and vendor spend (top-K), plus an all-time vendor ranking.
+ * A user's sketches are built from history once, then kept current on every save;
+ * a date-range question merges a handful of month sketches instead of scanning transactions.
+ * History is read outside any lock, and saves that land during the read are folded in once.
+ */
+@Service
+public class TrendSketchService {
+
+    private static final double DIGEST_COMPRESSION = 50;
+    private static final int HLL_PRECISION = 10;
+    private static final int VENDOR_CAPACITY = 64;
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    private final UserStateCache<List<Transaction>, UserSketches> sketches = new UserStateCache<>(
+            userId -> transactionService.getTransactions(userId), TrendSketchService::build);
+
+    /** Fold a saved transaction into its month; users not loaded yet pick it up on first read. */
+    public void record(Transaction t) {
+        if (t.getDate() == null) return;
+        UserStateCache.Recorded<UserSketches> recorded = sketches.record(t.getUserId(), t, false);
+        if (recorded == null || recorded.applied()) return;
+        UserSketches user = recorded.state();
+        synchronized (user) {
+            user.add(t);
+        }
+    }
+
+    /** Forget a user's sketches; they are rebuilt on next access (used after deletes). */
+    public void invalidate(String userId) {
+        sketches.invalidate(userId);
+    }
+
+    /** Build a user's sketches from already-fetched history unless they are loaded (startup warm-up, batch views). */
+    public void preload(String userId, List<Transaction> history) {
+        if (isLoaded(userId)) return;
+        sketches.preload(userId, build(history, List.of()));
+    }
+
+    /** Whether the user's sketches are built, so a read will not fetch history. */
+    public boolean isLoaded(String userId) {
+        return sketches.getIfLoaded(userId) != null;
+    }
+
+    /**
+     * Trend statistics over the inclusive month range; null bounds mean unbounded.
+     */
+    public Map<String, Object> summarize(String userId, YearMonth from, YearMonth to) {
+        UserSketches user = sketches.get(userId);
+
+        MonthSketch merged = new MonthSketch();
+        int monthsMerged = 0;
+        synchronized (user) {
+            for (MonthSketch month : user.range(from, to).values()) {
+                merged.merge(month);
+                monthsMerged++;
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("userId", userId);
+        if (merged.count == 0) {
+            result.put("message", "No transactions found");
+            return result;
+        }
+        result.put("averageTransaction", round(merged.sum / merged.count));
+        result.put("maxTransaction", merged.max);
+        result.put("minTransaction", merged.min);
+        result.put("medianTransaction", round(merged.amounts.quantile(0.5)));
+        result.put("p90Transaction", round(merged.amounts.quantile(0.9)));
+        result.put("p99Transaction", round(merged.amounts.quantile(0.99)));
+        result.put("distinctVendors", merged.vendors.cardinality());
+        result.put("totalTransactions", merged.count);
+        result.put("monthsCovered", monthsMerged);
+        return result;
+    }
+
+    /**
+     * Top vendors by spend; the all-time ranking is read directly, a month range merges month rankings.
+     */
+    public Map<String, Object> topVendors(String userId, int limit, YearMonth from, YearMonth to) {
+        UserSketches user = sketches.get(userId);
+
+        TopKTracker ranking;
+        synchronized (user) {
+            if (from == null && to == null) {
+                ranking = user.allTimeVendors;
+            } else {
+                ranking = new TopKTracker(VENDOR_CAPACITY);
+                for (MonthSketch month : user.range(from, to).values()) {
+                    ranking.merge(month.vendorSpend);
+                }
+            }
+
+            List<Map.Entry<String, Double>> topVendors = new ArrayList<>();
+            for (Map.Entry<String, Double> e : ranking.top(limit)) {
+                topVendors.add(Map.entry(e.getKey(), round(e.getValue())));
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("userId", userId);
+            result.put("topVendors", topVendors);
+            result.put("approximate", ranking.isApproximate());
+            return result;
+        }
+    }
+
+    /** Sketches are additive, so a save the read already saw is skipped and replayed from {@code raced}. */
+    private static UserSketches build(List<Transaction> history, List<Transaction> raced) {
+        Map<String, Transaction> recorded = new LinkedHashMap<>();
+        raced.forEach(t -> recorded.put(t.getTransactionId(), t));
+        UserSketches user = new UserSketches();
+        for (Transaction t : history) {
+            if (t.getDate() != null && !recorded.containsKey(t.getTransactionId())) user.add(t);
+        }
+        for (Transaction t : recorded.values()) {
+            if (t.getDate() != null) user.add(t);
+        }
+        return user;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class UserSketches {
+        final SortedMap<YearMonth, MonthSketch> months = new TreeMap<>();
+        final TopKTracker allTimeVendors = new TopKTracker(VENDOR_CAPACITY);
+
+        void add(Transaction t) {
+            months.computeIfAbsent(YearMonth.from(t.getDate()), m -> new MonthSketch()).add(t);
+            if (t.getVendor() != null) allTimeVendors.add(t.getVendor(), t.getAmount());
+        }
+
+        SortedMap<YearMonth, MonthSketch> range(YearMonth from, YearMonth to) {
+            SortedMap<YearMonth, MonthSketch> range = months;
+            if (from != null) range = range.tailMap(from);
+            if (to != null) range = range.headMap(to.plusMonths(1));
+            return range;
+        }
+    }
+
+    private static final class MonthSketch {
+        final TDigest amounts = new TDigest(DIGEST_COMPRESSION);
+        final HyperLogLog vendors = new HyperLogLog(HLL_PRECISION);
+        final TopKTracker vendorSpend = new TopKTracker(VENDOR_CAPACITY);
+        long count;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(Transaction t) {
+            amounts.add(t.getAmount());
+            if (t.getVendor() != null) {
+                vendors.add(t.getVendor());
+                vendorSpend.add(t.getVendor(), t.getAmount());
+            }
+            count++;
+            sum += t.getAmount();
+            min = Math.min(min, t.getAmount());
+            max = Math.max(max, t.getAmount());
+        }
+
+        void merge(MonthSketch other) {
+            amounts.merge(other.amounts);
+            vendors.merge(other.vendors);
+            vendorSpend.merge(other.vendorSpend);
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Per-user derived state loaded from history on first use, for the analytics caches.
+ * Loads run outside any map lock and once per user at a time: concurrent readers wait for the
+ * running load. A write recorded while its user is loading is handed to the build, which sees
+ * the fetched history and every such write and decides itself which ones the fetch already
+ * covered, so no write is lost or counted twice. Beyond maxUsers loaded users the least
+ * recently used tenth is dropped in one pass.
+ *
+ * @param <H> what {@code fetch} reads (the slow part, typically DynamoDB queries)
+ * @param <S> the state built from it; callers guard its mutation themselves
+ */
+final class UserStateCache<H, S> {
+
+    /** A recorded write and the state it belongs to; {@code applied} when the build already included it. */
+    record Recorded<S>(S state, boolean applied) {}
+
+    private static final class Slot<S> {
+        final CompletableFuture<S> future = new CompletableFuture<>();
+        final List<Transaction> raced = new ArrayList<>();
+        S state;                                // set once, under the slot's monitor
+        boolean failed;
+        volatile long lastUsed = System.nanoTime();
+    }
+
+    private record Idle<S>(String userId, Slot<S> slot, long lastUsed) {}
+
+    private final Function<String, H> fetch;
+    private final BiFunction<H, List<Transaction>, S> build;
+    private final int maxUsers;
+    private final Map<String, Slot<S>> slots = new ConcurrentHashMap<>();
+
+    UserStateCache(Function<String, H> fetch, BiFunction<H, List<Transaction>, S> build) {
+        this(fetch, build, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param fetch    reads a user's history; called without locks
+     * @param build    makes the state from the history and the writes recorded during the fetch
+     * @param maxUsers loaded users kept before the least recently used are dropped
+     */
+    UserStateCache(Function<String, H> fetch, BiFunction<H, List<Transaction>, S> build, int maxUsers) {
+        this.fetch = fetch;
+        this.build = build;
+        this.maxUsers = maxUsers;
+    }
+
+    /** The user's state, loading it first if needed. */
+    S get(String userId) {
+        Slot<S> slot = slots.get(userId);
+        if (slot == null) {
+            Slot<S> mine = new Slot<>();
+            slot = slots.putIfAbsent(userId, mine);
+            if (slot == null) return fill(userId, mine);
+        }
+        slot.lastUsed = System.nanoTime();
+        synchronized (slot) {
+            if (slot.state != null) return slot.state;
+        }
+        return await(slot);
+    }
+
+    /** The user's state if it is loaded, otherwise null. */
+    S getIfLoaded(String userId) {
+        Slot<S> slot = slots.get(userId);
+        if (slot == null) return null;
+        synchronized (slot) {
+            return slot.state;
+        }
+    }
+
+    /**
+     * Route a saved write. If the user is loaded the caller applies it to the returned state; if
+     * a load is running (or {@code loadIfAbsent} starts one) the build applies it.
+     *
+     * @return null when the user is not loaded and {@code loadIfAbsent} is false
+     */
+    Recorded<S> record(String userId, Transaction t, boolean loadIfAbsent) {
+        Slot<S> slot = slots.get(userId);
+        if (slot == null) {
+            if (!loadIfAbsent) return null;
+            Slot<S> mine = new Slot<>();
+            mine.raced.add(t);
+            slot = slots.putIfAbsent(userId, mine);
+            if (slot == null) return new Recorded<>(fill(userId, mine), true);
+        }
+        slot.lastUsed = System.nanoTime();
+        synchronized (slot) {
+            if (slot.state != null) return new Recorded<>(slot.state, false);
+            if (slot.failed) return null;
+            slot.raced.add(t);
+        }
+        return new Recorded<>(await(slot), true);
+    }
+
+    /** Install a state built by the caller, unless the user is loaded or loading. */
+    void preload(String userId, S state) {
+        Slot<S> slot = new Slot<>();
+        slot.state = state;
+        slot.future.complete(state);
+        if (slots.putIfAbsent(userId, slot) == null) evictIfFull();
+    }
+
+    /** Forget the user; a load still running completes for its waiters but is not kept. */
+    void invalidate(String userId) {
+        slots.remove(userId);
+    }
+
+    /** Forget the user only if {@code state} is still the one cached. */
+    void invalidate(String userId, S state) {
+        Slot<S> slot = slots.get(userId);
+        if (slot != null && getIfLoaded(userId) == state) slots.remove(userId, slot);
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /** Users whose state is loaded. */
+    Map<String, S> loaded() {
+        Map<String, S> loaded = new HashMap<>();
+        slots.forEach((userId, slot) -> {
+            synchronized (slot) {
+                if (slot.state != null) loaded.put(userId, slot.state);
+            }
+        });
+        return loaded;
+    }
+
+    private S fill(String userId, Slot<S> slot) {
+        try {
+            H history = fetch.apply(userId);
+            S state;
+            synchronized (slot) {
+                state = build.apply(history, List.copyOf(slot.raced));
+                slot.raced.clear();
+                slot.state = state;
+            }
+            slot.future.complete(state);
+            evictIfFull();
+            return state;
+        } catch (RuntimeException e) {
+            synchronized (slot) {
+                slot.failed = true;
+            }
+            slots.remove(userId, slot);
+            slot.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        if (slots.size() <= maxUsers) return;
+        synchronized (slots) {
+            int excess = slots.size() - maxUsers * 9 / 10;
+            if (slots.size() <= maxUsers || excess <= 0) return;
+            // Snapshot the times first; they keep moving while the list is sorted
+            List<Idle<S>> idle = new ArrayList<>(slots.size());
+            slots.forEach((userId, slot) -> idle.add(new Idle<>(userId, slot, slot.lastUsed)));
+            idle.sort(Comparator.comparingLong(Idle::lastUsed));
+            for (int i = 0; i < excess && i < idle.size(); i++) {
+                slots.remove(idle.get(i).userId(), idle.get(i).slot());
+            }
+        }
+    }
+
+    private static <S> S await(Slot<S> slot) {
+        try {
+            return slot.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
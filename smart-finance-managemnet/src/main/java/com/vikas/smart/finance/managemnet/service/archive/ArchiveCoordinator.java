@@ -0,0 +1,191 @@
+package com.vikas.smart.finance.managemnet.service.archive;
+
+import com.vikas.smart.finance.managemnet.config.ArchiveProperties;
+import com.vikas.smart.finance.managemnet.model.ArchiveLease;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the cold archive consistent when several instances run.
+ * Every instance heartbeats an {@code instance#<uuid>} item in the ArchiveLease table. With a
+ * node-local dir a second live instance is an error: startup is refused, and a running sweeper
+ * stops archiving when one shows up, since rows moved to one node's disk would vanish for the
+ * others. With a shared dir the instances take turns through the {@code sweeper} lease, held
+ * while a sweep runs and renewed with the heartbeat.
+ */
+@Service
+public class ArchiveCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveCoordinator.class);
+
+    private static final String INSTANCE_PREFIX = "instance#";
+    private static final String SWEEPER = "sweeper";
+
+    private final ArchiveProperties properties;
+    private final FinanceMetrics metrics;
+    private final DynamoDbTable<ArchiveLease> leaseTable;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean sweeping;
+    private volatile boolean holdsLease;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "archive-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ArchiveCoordinator(DynamoDbEnhancedClient enhancedClient, ArchiveProperties properties, FinanceMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.leaseTable = enhancedClient.table("ArchiveLease", TableSchema.fromBean(ArchiveLease.class));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) return;
+        if (!properties.isSharedDir()) {
+            List<String> others = otherInstances();
+            if (!others.isEmpty()) {
+                throw new IllegalStateException("finance.archive.dir '" + properties.getDir() + "' is node-local but "
+                        + others.size() + " other instance(s) are running; set finance.archive.shared-dir=true"
+                        + " on a volume every instance mounts, or disable the archive");
+            }
+        }
+        beat();
+        long period = Math.max(1, properties.getLeaseTtl().toMillis() / 3);
+        heartbeat.scheduleWithFixedDelay(this::beat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Claim the right to sweep: the lease on a shared dir, or being the only live instance on a
+     * node-local one. Pair with {@link #endSweep()}.
+     */
+    public boolean beginSweep() {
+        if (!properties.isSharedDir()) {
+            List<String> others = otherInstances();
+            if (!others.isEmpty()) {
+                log.error("Skipping archive sweep: finance.archive.dir is node-local and instances {} are also running", others);
+                metrics.increment("finance.archive.sweep.skipped", "reason", "instances");
+                return false;
+            }
+            sweeping = true;
+            return true;
+        }
+        if (!renewLease()) {
+            metrics.increment("finance.archive.sweep.skipped", "reason", "lease");
+            return false;
+        }
+        sweeping = true;
+        return true;
+    }
+
+    /** Whether archiving may go on; false once the lease is lost mid-sweep. */
+    public boolean maySweep() {
+        return sweeping && (!properties.isSharedDir() || holdsLease);
+    }
+
+    public void endSweep() {
+        sweeping = false;
+        if (properties.isSharedDir() && holdsLease) releaseLease();
+    }
+
+    private void beat() {
+        try {
+            ArchiveLease item = new ArchiveLease();
+            item.setId(INSTANCE_PREFIX + instanceId);
+            item.setOwner(instanceId);
+            item.setExpiresAt(System.currentTimeMillis() + properties.getLeaseTtl().toMillis());
+            leaseTable.putItem(item);
+            if (sweeping && properties.isSharedDir()) renewLease();
+        } catch (Exception e) {
+            log.warn("Archive heartbeat failed", e);
+        }
+    }
+
+    /** Take or extend the sweeper lease: free, expired or already ours. */
+    private boolean renewLease() {
+        long now = System.currentTimeMillis();
+        ArchiveLease lease = new ArchiveLease();
+        lease.setId(SWEEPER);
+        lease.setOwner(instanceId);
+        lease.setExpiresAt(now + properties.getLeaseTtl().toMillis());
+        Expression condition = Expression.builder()
+                .expression("attribute_not_exists(id) OR expiresAt < :now OR #owner = :me")
+                .putExpressionName("#owner", "owner")
+                .putExpressionValue(":now", AttributeValue.fromN(String.valueOf(now)))
+                .putExpressionValue(":me", AttributeValue.fromS(instanceId))
+                .build();
+        try {
+            leaseTable.putItem(PutItemEnhancedRequest.builder(ArchiveLease.class)
+                    .item(lease)
+                    .conditionExpression(condition)
+                    .build());
+            holdsLease = true;
+        } catch (ConditionalCheckFailedException e) {
+            if (holdsLease) log.warn("Lost the archive sweeper lease to another instance");
+            holdsLease = false;
+        }
+        return holdsLease;
+    }
+
+    private void releaseLease() {
+        holdsLease = false;
+        try {
+            leaseTable.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(SWEEPER).build())
+                    .conditionExpression(Expression.builder()
+                            .expression("#owner = :me")
+                            .putExpressionName("#owner", "owner")
+                            .putExpressionValue(":me", AttributeValue.fromS(instanceId))
+                            .build())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // already taken over after expiring
+        }
+    }
+
+    /** Other instances whose heartbeat has not lapsed; the table holds a handful of items. */
+    private List<String> otherInstances() {
+        long now = System.currentTimeMillis();
+        ScanEnhancedRequest request = ScanEnhancedRequest.builder().consistentRead(true).build();
+        return leaseTable.scan(request).items().stream()
+                .filter(l -> l.getId().startsWith(INSTANCE_PREFIX))
+                .filter(l -> !instanceId.equals(l.getOwner()) && l.getExpiresAt() > now)
+                .map(ArchiveLease::getOwner)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        if (!properties.isEnabled()) return;
+        try {
+            if (holdsLease) releaseLease();
+            leaseTable.deleteItem(Key.builder().partitionValue(INSTANCE_PREFIX + instanceId).build());
+        } catch (Exception e) {
+            log.warn("Could not remove archive heartbeat; it lapses after {}", properties.getLeaseTtl(), e);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.vikas.smart.finance.managemnet.service.archive;
+
+import com.vikas.smart.finance.managemnet.config.ArchiveProperties;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.util.LazyIterators;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for transactions older than finance.archive.hot-days.
+ * A periodic sweep finds users with old rows in DynamoDB, writes them to a new {@link ColdSegment}
+ * under the user's directory and then deletes them from the table. Reads merge the two tiers:
+ * row readers get hot rows plus decoded segments, aggregations get hot rows plus segment footers.
+ * A row present in both tiers (an archive run interrupted before its deletes) is served from the
+ * archive and deleted from DynamoDB by the next sweep.
+ * Segments are fsynced before their rows are deleted. Deleting an archived row appends it to the
+ * user's deletes log, and reads and totals leave it out; segments are rewritten without deleted rows
+ * once {@value #COMPACT_AFTER} have collected, or by the next sweep of the user.
+ * {@link ArchiveCoordinator} decides which instance may sweep; every change also rewrites the user's
+ * version file, and on a shared dir a cached user archive is reloaded when that file changes, since
+ * another instance may have written to it. At most maxCachedUsers archives stay open; the least
+ * recently used is closed, unmapping its segments.
+ */
+@Service
+public class ColdArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdArchiveService.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".col";
+    private static final String DELETES_FILE = "deleted.log";
+    private static final String VERSION_FILE = "version";
+    private static final int COMPACT_AFTER = 256;
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    private final ArchiveProperties properties;
+    private final ArchiveCoordinator coordinator;
+    private final FinanceMetrics metrics;
+    private final Path root;
+    private final Map<String, UserArchive> users;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "archive-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ColdArchiveService(ArchiveProperties properties, ArchiveCoordinator coordinator, FinanceMetrics metrics) {
+        this.properties = properties;
+        this.coordinator = coordinator;
+        this.metrics = metrics;
+        this.root = Path.of(properties.getDir());
+        this.users = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserArchive> eldest) {
+                if (size() <= properties.getMaxCachedUsers()) return false;
+                eldest.getValue().close();
+                return true;
+            }
+        });
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) return;
+        long interval = properties.getSweepInterval().toMinutes();
+        sweeper.scheduleWithFixedDelay(this::sweep, Math.min(interval, 10), interval, TimeUnit.MINUTES);
+    }
+
+    /** Every archived row for the user, decoded from the segments. */
+    public List<Transaction> rows(String userId) {
+        UserArchive archive = archive(userId);
+        if (archive.segments.isEmpty()) return List.of();
+        List<Transaction> rows = new ArrayList<>(archive.rowCount());
+        try {
+            for (ColdSegment segment : archive.segments) rows.addAll(archive.live(segment.rows(userId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /** Archived rows one segment at a time, each decoded only when iteration reaches it. */
+    public Iterator<Transaction> iterate(String userId) {
+        UserArchive archive = archive(userId);
+        List<Supplier<Iterator<Transaction>>> sources = new ArrayList<>();
+        for (ColdSegment segment : archive.segments) {
+            sources.add(() -> {
+                try {
+                    return archive.live(segment.rows(userId)).iterator();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return LazyIterators.concat(sources);
+    }
+
+    /** Ids of every archived row for the user; empty when nothing is archived. */
+    public Set<String> archivedIds(String userId) {
+        UserArchive archive = archive(userId);
+        return archive.segments.isEmpty() ? Set.of() : archive.ids();
+    }
+
+    /** Archived spend and row count per category, from the segment footers alone. */
+    public TransactionService.SpendTotals totals(String userId) {
+        UserArchive archive = archive(userId);
+        Map<String, Double> byCategory = new HashMap<>();
+        for (ColdSegment segment : archive.segments) {
+            for (ColdSegment.DailyTotal total : segment.dailyTotals()) {
+                byCategory.merge(total.category(), total.amount(), Double::sum);
+            }
+        }
+        for (Transaction t : archive.deleted.values()) byCategory.merge(t.getCategory(), -t.getAmount(), Double::sum);
+        return new TransactionService.SpendTotals(byCategory, archive.rowCount());
+    }
+
+    /** Archived spend per day and category from the segment footers; deleted rows come as negative entries. */
+    public List<ColdSegment.DailyTotal> dailyTotals(String userId) {
+        UserArchive archive = archive(userId);
+        if (archive.segments.size() == 1 && archive.deleted.isEmpty()) return archive.segments.get(0).dailyTotals();
+        List<ColdSegment.DailyTotal> totals = new ArrayList<>();
+        archive.segments.forEach(s -> totals.addAll(s.dailyTotals()));
+        for (Transaction t : archive.deleted.values()) {
+            totals.add(new ColdSegment.DailyTotal(t.getDate(), t.getCategory(), -t.getAmount(), -1));
+        }
+        return totals;
+    }
+
+    /** Hot rows without those already archived; only rows dated inside the archive are checked. */
+    public List<Transaction> withoutArchived(String userId, List<Transaction> hot) {
+        UserArchive archive = archive(userId);
+        if (archive.segments.isEmpty()) return hot;
+        boolean overlaps = hot.stream().anyMatch(t -> t.getDate() != null && !t.getDate().isAfter(archive.lastDate()));
+        if (!overlaps) return hot;
+        Set<String> archived = archive.ids();
+        return hot.stream()
+                .filter(t -> !archived.contains(t.getTransactionId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Move the user's DynamoDB rows dated before the hot window into a new segment, once there
+     * are at least minRows of them, and delete them from the table.
+     *
+     * @return rows written to the archive
+     */
+    public int archive(String userId, LocalDate cutoff) throws IOException {
+        List<Transaction> old = transactionService.getStoredTransactionsBefore(userId, cutoff);
+        if (old.isEmpty()) return 0;
+
+        List<Transaction> delete = new ArrayList<>();
+        int written = 0;
+        synchronized (lock(userId)) {
+            // A deleted id written again must not stay hidden by its tombstone
+            UserArchive current = archive(userId);
+            if (!current.deleted.isEmpty()) current = compact(userId, current);
+            Set<String> archived = current.segments.isEmpty() ? Set.of() : current.ids();
+            List<Transaction> fresh = new ArrayList<>();
+            for (Transaction t : old) {
+                if (archived.contains(t.getTransactionId())) delete.add(t);
+                else if (t.getDate() != null) fresh.add(t);
+            }
+            if (fresh.size() >= properties.getMinRows()) {
+                LocalDate first = fresh.stream().map(Transaction::getDate).min(Comparator.naturalOrder()).get();
+                LocalDate last = fresh.stream().map(Transaction::getDate).max(Comparator.naturalOrder()).get();
+                Path dir = userDir(userId);
+                Files.createDirectories(dir);
+                Path path = dir.resolve(SEGMENT_PREFIX + first + "_" + last + "_" + System.currentTimeMillis() + SEGMENT_SUFFIX);
+
+                List<ColdSegment> segments = new ArrayList<>(current.segments);
+                segments.add(ColdSegment.write(path, fresh));
+                users.put(userId, new UserArchive(segments, Map.of(), touch(userId)));
+                delete.addAll(fresh);
+                written = fresh.size();
+            }
+        }
+        if (delete.isEmpty()) return 0;
+
+        // Rows already visible in the archive; a failed delete is retried by the next sweep
+        List<Transaction> failed = transactionService.deleteBatch(delete);
+        metrics.increment("finance.archive.rows", written);
+        if (!failed.isEmpty()) {
+            log.warn("{} archived transactions for user '{}' are still in DynamoDB", failed.size(), userId);
+        }
+        return written;
+    }
+
+    /**
+     * Drop one archived row: it is logged as deleted at once, and its segment is rewritten with the
+     * next batch of deletes.
+     *
+     * @return the removed row, or null if it was not archived
+     */
+    public Transaction remove(String userId, String transactionId) {
+        if (archive(userId).segments.isEmpty()) return null;
+        synchronized (lock(userId)) {
+            UserArchive current = archive(userId);
+            if (!current.ids().contains(transactionId)) return null;
+            try {
+                Transaction removed = null;
+                for (ColdSegment segment : current.segments) {
+                    if (!segment.ids().contains(transactionId)) continue;
+                    for (Transaction t : segment.rows(userId)) {
+                        if (transactionId.equals(t.getTransactionId())) removed = t;
+                    }
+                    break;
+                }
+                if (removed == null) return null;
+                appendDeleted(userId, removed);
+                Map<String, Transaction> deleted = new HashMap<>(current.deleted);
+                deleted.put(transactionId, removed);
+                UserArchive updated = new UserArchive(current.segments, deleted, touch(userId));
+                users.put(userId, updated);
+                if (deleted.size() >= COMPACT_AFTER) compact(userId, updated);
+                return removed;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Rewrite every segment holding a deleted row without it, then clear the deletes log. Called
+     * under the user's lock.
+     */
+    private UserArchive compact(String userId, UserArchive current) throws IOException {
+        List<ColdSegment> segments = new ArrayList<>(current.segments.size());
+        List<Path> replaced = new ArrayList<>();
+        for (ColdSegment segment : current.segments) {
+            Set<String> ids = segment.ids();
+            if (current.deleted.keySet().stream().noneMatch(ids::contains)) {
+                segments.add(segment);
+                continue;
+            }
+            List<Transaction> kept = current.live(segment.rows(userId));
+            if (!kept.isEmpty()) {
+                Path rewritten = segment.path().resolveSibling(SEGMENT_PREFIX + kept.get(0).getDate() + "_" +
+                        kept.get(kept.size() - 1).getDate() + "_" + System.currentTimeMillis() + SEGMENT_SUFFIX);
+                segments.add(ColdSegment.write(rewritten, kept));
+            }
+            replaced.add(segment.path());
+        }
+        for (Path path : replaced) Files.deleteIfExists(path);
+        Files.deleteIfExists(userDir(userId).resolve(DELETES_FILE));
+        UserArchive compacted = new UserArchive(segments, Map.of(), touch(userId));
+        users.put(userId, compacted);
+        metrics.increment("finance.archive.compactions", 1);
+        return compacted;
+    }
+
+    /** Delete every archived row for the user. */
+    public boolean deleteAll(String userId) {
+        synchronized (lock(userId)) {
+            boolean any = !archive(userId).segments.isEmpty();
+            try {
+                for (Path file : listSegments(userId)) Files.deleteIfExists(file);
+                Files.deleteIfExists(userDir(userId).resolve(DELETES_FILE));
+                users.put(userId, new UserArchive(List.of(), Map.of(), any ? touch(userId) : version(userId)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return any;
+        }
+    }
+
+    private void sweep() {
+        LocalDate cutoff = LocalDate.now().minusDays(properties.getHotDays());
+        if (!coordinator.beginSweep()) return;
+        try {
+            metrics.run("finance.archive.sweep", "archive", () -> {
+                Set<String> candidates = transactionService.findUsersWithTransactionsBefore(
+                        cutoff, properties.getMaxUsersPerSweep(), properties.getMaxScannedPerSweep());
+                int archived = 0;
+                for (String userId : candidates) {
+                    if (!coordinator.maySweep()) break;
+                    try {
+                        archived += archive(userId, cutoff);
+                    } catch (Exception e) {
+                        log.warn("Archiving failed for user '{}'", userId, e);
+                    }
+                }
+                if (archived > 0) log.info("Archived {} transactions dated before {}", archived, cutoff);
+            });
+        } catch (Exception e) {
+            log.warn("Archive sweep failed", e);
+        } finally {
+            coordinator.endSweep();
+        }
+    }
+
+    private UserArchive archive(String userId) {
+        UserArchive cached = users.get(userId);
+        if (cached != null && (!properties.isSharedDir() || cached.version.equals(version(userId)))) return cached;
+        UserArchive loaded = load(userId);
+        if (properties.isSharedDir()) {
+            // A stale load racing a local write is caught by the version check on the next read
+            users.put(userId, loaded);
+            return loaded;
+        }
+        UserArchive raced = users.putIfAbsent(userId, loaded);
+        if (raced == null) return loaded;
+        loaded.close();
+        return raced;
+    }
+
+    /** Contents of the user's version file, rewritten on every change; empty before the first. */
+    private String version(String userId) {
+        try {
+            return Files.readString(userDir(userId).resolve(VERSION_FILE));
+        } catch (NoSuchFileException e) {
+            return "";
+        } catch (IOException e) {
+            log.warn("Could not read the archive version of user '{}'", userId, e);
+            return "";
+        }
+    }
+
+    /** Give the user's archive a new version, replacing the file atomically. */
+    private String touch(String userId) throws IOException {
+        String version = UUID.randomUUID().toString();
+        Path dir = userDir(userId);
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(VERSION_FILE + "." + version + ".tmp");
+        Files.writeString(temp, version);
+        Files.move(temp, dir.resolve(VERSION_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return version;
+    }
+
+    /** One line per deleted row, forced to disk before the delete is acknowledged. */
+    private void appendDeleted(String userId, Transaction t) throws IOException {
+        String line = String.join("\t", encode(t.getTransactionId()), t.getDate().toString(),
+                encode(t.getCategory()), Double.toString(t.getAmount())) + "\n";
+        Path file = userDir(userId).resolve(DELETES_FILE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+    }
+
+    private Map<String, Transaction> readDeleted(String userId) throws IOException {
+        Path file = userDir(userId).resolve(DELETES_FILE);
+        if (!Files.exists(file)) return Map.of();
+        Map<String, Transaction> deleted = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            // A torn last line is a delete that was never acknowledged
+            if (fields.length != 4) continue;
+            Transaction t = new Transaction();
+            t.setUserId(userId);
+            t.setTransactionId(URLDecoder.decode(fields[0], StandardCharsets.UTF_8));
+            t.setDate(LocalDate.parse(fields[1]));
+            t.setCategory(fields[2].isEmpty() ? null : URLDecoder.decode(fields[2], StandardCharsets.UTF_8));
+            t.setAmount(Double.parseDouble(fields[3]));
+            deleted.put(t.getTransactionId(), t);
+        }
+        return deleted;
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private UserArchive load(String userId) {
+        String version = version(userId);
+        List<ColdSegment> segments = new ArrayList<>();
+        try {
+            for (Path file : listSegments(userId)) {
+                try {
+                    segments.add(ColdSegment.open(file));
+                } catch (IOException e) {
+                    log.error("Skipping unreadable archive segment {}", file, e);
+                }
+            }
+            Map<String, Transaction> deleted = readDeleted(userId);
+            if (!deleted.isEmpty()) {
+                // A compaction interrupted after its rewrites leaves entries for rows already gone
+                Set<String> ids = new HashSet<>();
+                for (ColdSegment segment : segments) ids.addAll(segment.ids());
+                deleted.keySet().retainAll(ids);
+            }
+            return new UserArchive(segments, deleted, version);
+        } catch (IOException e) {
+            segments.forEach(ColdSegment::close);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> listSegments(String userId) throws IOException {
+        Path dir = userDir(userId);
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path userDir(String userId) {
+        // Prefixed so no encoded id can be "." or ".."
+        return root.resolve("u-" + URLEncoder.encode(userId, StandardCharsets.UTF_8));
+    }
+
+    private Object lock(String userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /** Immutable view of one user's segments and deleted rows; replaced whole on every change. */
+    private static final class UserArchive {
+        final List<ColdSegment> segments;
+        final Map<String, Transaction> deleted;
+        final String version;
+        private volatile Set<String> ids;
+
+        UserArchive(List<ColdSegment> segments, Map<String, Transaction> deleted, String version) {
+            this.segments = List.copyOf(segments);
+            this.deleted = Map.copyOf(deleted);
+            this.version = version;
+        }
+
+        int rowCount() {
+            return segments.stream().mapToInt(ColdSegment::rowCount).sum() - deleted.size();
+        }
+
+        /** Rows not logged as deleted. */
+        List<Transaction> live(List<Transaction> rows) {
+            if (deleted.isEmpty()) return rows;
+            List<Transaction> live = new ArrayList<>(rows.size());
+            for (Transaction t : rows) {
+                if (!deleted.containsKey(t.getTransactionId())) live.add(t);
+            }
+            return live;
+        }
+
+        /** Unmap the segments; readers still holding this view map them again as needed. */
+        void close() {
+            segments.forEach(ColdSegment::close);
+        }
+
+        LocalDate lastDate() {
+            return segments.stream().map(ColdSegment::lastDate).max(Comparator.naturalOrder()).orElse(LocalDate.MIN);
+        }
+
+        Set<String> ids() {
+            Set<String> loaded = ids;
+            if (loaded == null) {
+                synchronized (this) {
+                    if (ids == null) {
+                        Set<String> all = new HashSet<>();
+                        try {
+                            for (ColdSegment segment : segments) all.addAll(segment.ids());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        all.removeAll(deleted.keySet());
+                        ids = all;
+                    }
+                    loaded = ids;
+                }
+            }
+            return loaded;
+        }
+    }
+}
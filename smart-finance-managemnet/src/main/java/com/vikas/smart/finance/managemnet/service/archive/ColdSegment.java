@@ -0,0 +1,460 @@
+package com.vikas.smart.finance.managemnet.service.archive;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable file of archived transactions for a single user, stored by column.
+ * Rows are sorted by date; each column (ids, date deltas, amounts, vendor dictionary and codes,
+ * category codes) is varint-encoded and deflated on its own. A checksummed footer holds the row
+ * count, date span, column offsets, category dictionary and per-day, per-category totals, so
+ * aggregations read only the footer and never inflate rows.
+ * Files are memory-mapped read-only; columns are decoded on demand. {@link #close()} unmaps the
+ * file once no read is using it; a read after that maps the file again for its own duration.
+ * <pre>
+ * [column 0..4: deflated bytes] [footer] [footer offset:int][footer length:int][footer crc:int][MAGIC:int]
+ * </pre>
+ */
+public final class ColdSegment {
+
+    /** Spend and transaction count for one category on one day. */
+    public record DailyTotal(LocalDate date, String category, double amount, int count) {}
+
+    static final int MAGIC = 0x46434F4C;   // "FCOL"
+    private static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 16;
+    private static final int COLUMNS = 5;
+    private static final byte AMOUNTS_CENTS = 0;
+    private static final byte AMOUNTS_DOUBLE = 1;
+
+    // Unmapping a buffer at once rather than at GC needs Unsafe.invokeCleaner; absent, GC does it
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path path;
+    private MappedByteBuffer mapped;       // null once closed and unmapped
+    private int reading;
+    private boolean closed;
+    private final int rows;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final String[] categories;
+    private final List<DailyTotal> dailyTotals;
+    private final int[] columnOffsets = new int[COLUMNS];
+    private final int[] columnLengths = new int[COLUMNS];
+
+    private ColdSegment(Path path, MappedByteBuffer mapped) throws IOException {
+        this.path = path;
+        this.mapped = mapped;
+
+        int size = mapped.capacity();
+        if (size < TRAILER_BYTES || mapped.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        int footerOffset = mapped.getInt(size - 16);
+        int footerLength = mapped.getInt(size - 12);
+        if (footerOffset < 0 || footerLength < 0 || footerOffset + footerLength > size - TRAILER_BYTES) {
+            throw new IOException("Corrupt archive segment trailer: " + path);
+        }
+        ByteBuffer footer = mapped.slice(footerOffset, footerLength);
+        CRC32C crc = new CRC32C();
+        crc.update(footer.duplicate());
+        if ((int) crc.getValue() != mapped.getInt(size - 8)) {
+            throw new IOException("Archive segment footer checksum mismatch: " + path);
+        }
+
+        if (footer.get() != VERSION) throw new IOException("Unsupported archive segment version: " + path);
+        rows = readVarInt(footer);
+        firstDate = LocalDate.ofEpochDay(readVarLong(footer));
+        lastDate = LocalDate.ofEpochDay(readVarLong(footer));
+        for (int c = 0; c < COLUMNS; c++) {
+            columnOffsets[c] = readVarInt(footer);
+            columnLengths[c] = readVarInt(footer);
+        }
+        categories = readDictionary(footer);
+        int entries = readVarInt(footer);
+        List<DailyTotal> totals = new ArrayList<>(entries);
+        long day = firstDate.toEpochDay();
+        for (int i = 0; i < entries; i++) {
+            day += readVarLong(footer);
+            String category = categories[readVarInt(footer)];
+            double amount = footer.getDouble();
+            totals.add(new DailyTotal(LocalDate.ofEpochDay(day), category, amount, readVarInt(footer)));
+        }
+        dailyTotals = Collections.unmodifiableList(totals);
+    }
+
+    /** Map an existing segment file and read its footer. */
+    public static ColdSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ColdSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write rows (dated, with category) to {@code path} through a temporary file and an atomic
+     * rename, so a reader never maps a half-written segment. The file and the directory are
+     * forced to disk before returning, since callers delete the hot copies right after.
+     */
+    public static ColdSegment write(Path path, List<Transaction> transactions) throws IOException {
+        if (transactions.isEmpty()) throw new IllegalArgumentException("Empty segment");
+        List<Transaction> sorted = new ArrayList<>(transactions);
+        sorted.sort(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getTransactionId));
+        long firstDay = sorted.get(0).getDate().toEpochDay();
+        long lastDay = sorted.get(sorted.size() - 1).getDate().toEpochDay();
+
+        Dictionary categories = new Dictionary();
+        Dictionary vendors = new Dictionary();
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        ByteArrayOutputStream dates = new ByteArrayOutputStream();
+        ByteArrayOutputStream categoryCodes = new ByteArrayOutputStream();
+        ByteArrayOutputStream vendorCodes = new ByteArrayOutputStream();
+        boolean cents = sorted.stream().allMatch(t -> Math.abs(t.getAmount() * 100 - Math.round(t.getAmount() * 100)) < 1e-6);
+        ByteArrayOutputStream amounts = new ByteArrayOutputStream();
+        amounts.write(cents ? AMOUNTS_CENTS : AMOUNTS_DOUBLE);
+
+        // Per-day totals in (day, category code) order; rows are already sorted by day
+        TreeMap<Long, double[]> daily = new TreeMap<>();
+        long previousDay = firstDay;
+        for (Transaction t : sorted) {
+            writeString(ids, t.getTransactionId());
+            long day = t.getDate().toEpochDay();
+            writeVarLong(dates, day - previousDay);
+            previousDay = day;
+            if (cents) {
+                writeVarLong(amounts, zigzag(Math.round(t.getAmount() * 100)));
+            } else {
+                byte[] bits = ByteBuffer.allocate(8).putDouble(t.getAmount()).array();
+                amounts.write(bits, 0, 8);
+            }
+            int category = categories.code(t.getCategory());
+            writeVarLong(categoryCodes, category);
+            writeVarLong(vendorCodes, vendors.code(t.getVendor()));
+
+            double[] total = daily.computeIfAbsent((day - firstDay) << 20 | category, k -> new double[2]);
+            total[0] += t.getAmount();
+            total[1]++;
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        int[] offsets = new int[COLUMNS];
+        int[] lengths = new int[COLUMNS];
+        byte[][] columns = {
+                ids.toByteArray(), dates.toByteArray(), amounts.toByteArray(),
+                withDictionary(vendors.values, vendorCodes), categoryCodes.toByteArray()
+        };
+        for (int c = 0; c < COLUMNS; c++) {
+            byte[] deflated = deflate(columns[c]);
+            offsets[c] = file.size();
+            lengths[c] = deflated.length;
+            file.write(deflated, 0, deflated.length);
+        }
+
+        ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        footer.write(VERSION);
+        writeVarLong(footer, sorted.size());
+        writeVarLong(footer, firstDay);
+        writeVarLong(footer, lastDay);
+        for (int c = 0; c < COLUMNS; c++) {
+            writeVarLong(footer, offsets[c]);
+            writeVarLong(footer, lengths[c]);
+        }
+        writeDictionary(footer, categories.values);
+        writeVarLong(footer, daily.size());
+        long previous = 0;
+        for (Map.Entry<Long, double[]> entry : daily.entrySet()) {
+            long dayOffset = entry.getKey() >>> 20;
+            writeVarLong(footer, dayOffset - previous);
+            previous = dayOffset;
+            writeVarLong(footer, entry.getKey() & 0xFFFFF);
+            footer.write(ByteBuffer.allocate(8).putDouble(entry.getValue()[0]).array(), 0, 8);
+            writeVarLong(footer, (long) entry.getValue()[1]);
+        }
+
+        byte[] footerBytes = footer.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(footerBytes);
+        int footerOffset = file.size();
+        file.write(footerBytes, 0, footerBytes.length);
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES)
+                .putInt(footerOffset).putInt(footerBytes.length).putInt((int) crc.getValue()).putInt(MAGIC);
+        file.write(trailer.array(), 0, TRAILER_BYTES);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(file.toByteArray());
+            while (bytes.hasRemaining()) channel.write(bytes);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.toAbsolutePath().getParent());
+        return open(path);
+    }
+
+    /** Make the rename durable; directories cannot be opened as channels on every platform (Windows). */
+    static void forceDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (UnsupportedOperationException | AccessDeniedException e) {
+            // best effort where the platform does not support it
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public LocalDate firstDate() {
+        return firstDate;
+    }
+
+    public LocalDate lastDate() {
+        return lastDate;
+    }
+
+    public List<DailyTotal> dailyTotals() {
+        return dailyTotals;
+    }
+
+    /** Transaction ids only; inflates one column. */
+    public Set<String> ids() throws IOException {
+        ByteBuffer in = column(0);
+        Set<String> ids = new HashSet<>(rows * 2);
+        for (int i = 0; i < rows; i++) ids.add(readString(in));
+        return ids;
+    }
+
+    /** Decode every row for {@code userId}. */
+    public List<Transaction> rows(String userId) throws IOException {
+        ByteBuffer ids = column(0);
+        ByteBuffer dates = column(1);
+        ByteBuffer amounts = column(2);
+        ByteBuffer vendorColumn = column(3);
+        ByteBuffer categoryColumn = column(4);
+        String[] vendors = readDictionary(vendorColumn);
+        boolean cents = amounts.get() == AMOUNTS_CENTS;
+
+        List<Transaction> result = new ArrayList<>(rows);
+        long day = firstDate.toEpochDay();
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            t.setUserId(userId);
+            t.setTransactionId(readString(ids));
+            day += readVarLong(dates);
+            t.setDate(LocalDate.ofEpochDay(day));
+            t.setAmount(cents ? unzigzag(readVarLong(amounts)) / 100.0 : amounts.getDouble());
+            t.setVendor(vendors[readVarInt(vendorColumn)]);
+            t.setCategory(categories[readVarInt(categoryColumn)]);
+            result.add(t);
+        }
+        return result;
+    }
+
+    /**
+     * Unmap the file as soon as no read is using it. The footer fields stay readable; column reads
+     * still work, each mapping the file anew.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            if (reading > 0) return;
+        }
+        unmap();
+    }
+
+    private ByteBuffer acquire() throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                reading++;
+                return mapped;
+            }
+        }
+        // Closed after the caller picked this segment up; the mapping is left to GC
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private void release(ByteBuffer buffer) {
+        synchronized (this) {
+            if (buffer != mapped || --reading > 0 || !closed) return;
+        }
+        unmap();
+    }
+
+    private void unmap() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            buffer = mapped;
+            mapped = null;
+        }
+        if (buffer == null || INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // left to GC
+        }
+    }
+
+    private ByteBuffer column(int c) throws IOException {
+        ByteBuffer file = acquire();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(file.slice(columnOffsets[c], columnLengths[c]));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(columnLengths[c] * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated column " + c + " in " + path);
+                }
+                out.write(chunk, 0, n);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column " + c + " in " + path, e);
+        } finally {
+            inflater.end();
+            release(file);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] withDictionary(List<String> dictionary, ByteArrayOutputStream codes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(codes.size() + 64);
+        writeDictionary(out, dictionary);
+        out.write(codes.toByteArray(), 0, codes.size());
+        return out.toByteArray();
+    }
+
+    private static void writeDictionary(ByteArrayOutputStream out, List<String> values) {
+        writeVarLong(out, values.size());
+        for (String value : values) writeString(out, value);
+    }
+
+    private static String[] readDictionary(ByteBuffer in) {
+        String[] values = new String[readVarInt(in)];
+        for (int i = 0; i < values.length; i++) values[i] = readString(in);
+        return values;
+    }
+
+    /** Null is written as length 0 with a marker byte, so it survives the round trip. */
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            out.write(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        if (bytes.length == 0) out.write(1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length == 0) return in.get() == 0 ? null : "";
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Insertion-ordered string dictionary; null is a valid value. */
+    private static final class Dictionary {
+        final List<String> values = new ArrayList<>();
+        final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+}
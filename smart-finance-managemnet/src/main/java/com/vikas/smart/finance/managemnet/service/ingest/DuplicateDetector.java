@@ -0,0 +1,121 @@
+package com.vikas.smart.finance.managemnet.service.ingest;
+
+import com.vikas.smart.finance.managemnet.config.IngestProperties;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import com.vikas.smart.finance.managemnet.util.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory duplicate screen for incoming transactions, checked before any DynamoDB call.
+ * Every accepted write is remembered by its key (user + transaction id) and, when content
+ * detection is on, by its content (user, vendor, amount in cents, date), in a time-windowed exact
+ * index (insertion ordered, expired from the head, at most {@value #MAX_RECENT} entries). A key seen
+ * before the window is left to the conditional write in
+ * {@link com.vikas.smart.finance.managemnet.service.TransactionService}.
+ */
+@Service
+public class DuplicateDetector {
+
+    public enum Reason { IDEMPOTENCY_KEY, CONTENT }
+
+    public record Duplicate(Reason reason, String transactionId) {}
+
+    private record Entry(String transactionId, long otherKey, long at) {}
+
+    private static final int MAX_RECENT = 1_000_000;
+
+    private final IngestProperties properties;
+    private final FinanceMetrics metrics;
+    private final LinkedHashMap<Long, Entry> recent = new LinkedHashMap<>();
+
+    @Autowired
+    public DuplicateDetector(IngestProperties properties, FinanceMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Check a transaction (with its final id) and, if it is new, remember it in the same step so
+     * two concurrent copies cannot both pass.
+     *
+     * @return the duplicate it matches, or null if the caller should write it
+     */
+    public Duplicate claim(Transaction t) {
+        return claim(t, false);
+    }
+
+    /**
+     * As {@link #claim(Transaction)}; with {@code allowContentMatch} only the key is checked, for a
+     * repeat charge the client has confirmed is real. The write is still remembered by both.
+     * Content matching is off unless finance.ingest.detect-content-duplicates is set.
+     */
+    public Duplicate claim(Transaction t, boolean allowContentMatch) {
+        if (!properties.isDetectDuplicates()) return null;
+        boolean byContent = properties.isDetectContentDuplicates();
+        long keyHash = keyHash(t.getUserId(), t.getTransactionId());
+        long contentHash = byContent ? contentHash(t) : 0;
+        long now = System.currentTimeMillis();
+
+        Duplicate duplicate = null;
+        synchronized (this) {
+            expire(now);
+            Entry entry = recent.get(keyHash);
+            if (entry != null) duplicate = new Duplicate(Reason.IDEMPOTENCY_KEY, entry.transactionId());
+            if (duplicate == null && byContent && !allowContentMatch) {
+                entry = recent.get(contentHash);
+                if (entry != null && !entry.transactionId().equals(t.getTransactionId())) {
+                    duplicate = new Duplicate(Reason.CONTENT, entry.transactionId());
+                }
+            }
+            if (duplicate == null) {
+                recent.put(keyHash, new Entry(t.getTransactionId(), contentHash, now));
+                if (byContent) {
+                    // Re-inserted rather than overwritten, so arrival order (and expiry from the head) holds
+                    recent.remove(contentHash);
+                    recent.put(contentHash, new Entry(t.getTransactionId(), keyHash, now));
+                }
+            }
+        }
+        metrics.increment("finance.ingest.dedupe", "outcome", duplicate != null ? "duplicate" : "new");
+        return duplicate;
+    }
+
+    /** Release a transaction's entries after a failed write or a delete, so it can be written again. */
+    public void forget(String userId, String transactionId) {
+        long keyHash = keyHash(userId, transactionId);
+        synchronized (this) {
+            Entry entry = recent.remove(keyHash);
+            if (entry == null) return;
+            Entry content = recent.get(entry.otherKey());
+            if (content != null && content.transactionId().equals(transactionId)) recent.remove(entry.otherKey());
+        }
+    }
+
+    /** Entries are in arrival order, so expired ones are always at the head. */
+    private void expire(long now) {
+        long cutoff = now - properties.getDuplicateWindow().toMillis();
+        Iterator<Map.Entry<Long, Entry>> it = recent.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.at() >= cutoff && recent.size() <= MAX_RECENT) break;
+            it.remove();
+        }
+    }
+
+    private static long keyHash(String userId, String transactionId) {
+        return Hashing.hash64("key|" + userId + "|" + transactionId);
+    }
+
+    static long contentHash(Transaction t) {
+        String vendor = t.getVendor() == null ? "" : t.getVendor().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return Hashing.hash64("content|" + t.getUserId() + "|" + t.getDate() + "|" +
+                Math.round(t.getAmount() * 100) + "|" + vendor);
+    }
+}
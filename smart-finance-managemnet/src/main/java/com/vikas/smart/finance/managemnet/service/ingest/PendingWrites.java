@@ -0,0 +1,128 @@
+package com.vikas.smart.finance.managemnet.service.ingest;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Transactions acknowledged from the write-ahead log but not yet in DynamoDB, by lsn for the
+ * flusher and by user for reads. Empty unless write-behind ingest is enabled.
+ * Node-local: only the instance that took a write sees it here, so reads served by other
+ * instances miss it until it is flushed (within flushInterval, or maxLag under backlog).
+ */
+@Service
+public class PendingWrites {
+
+    /** One unflushed write; {@code cancelled} is set when the transaction is deleted first. */
+    static final class Pending {
+        final long lsn;
+        final Transaction transaction;
+        final long appendedAt;
+        volatile boolean cancelled;
+        int failures;                                   // non-retryable write errors; flusher thread only
+
+        Pending(long lsn, Transaction transaction, long appendedAt) {
+            this.lsn = lsn;
+            this.transaction = transaction;
+            this.appendedAt = appendedAt;
+        }
+    }
+
+    private final ConcurrentNavigableMap<Long, Pending> byLsn = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<String, Pending>> byUser = new ConcurrentHashMap<>();
+
+    void add(long lsn, Transaction t) {
+        Pending pending = new Pending(lsn, t, System.currentTimeMillis());
+        byLsn.put(lsn, pending);
+        Pending[] replaced = new Pending[1];
+        byUser.compute(t.getUserId(), (id, user) -> {
+            if (user == null) user = new ConcurrentHashMap<>();
+            replaced[0] = user.put(t.getTransactionId(), pending);
+            return user;
+        });
+        // Same key written again before the flush: only the newer version needs to reach DynamoDB
+        if (replaced[0] != null) byLsn.remove(replaced[0].lsn, replaced[0]);
+    }
+
+    /**
+     * A user's unflushed writes by transaction id. Take it before reading DynamoDB: anything flushed
+     * in between is then in the read, and anything not yet flushed is in the snapshot.
+     */
+    public Map<String, Transaction> snapshot(String userId) {
+        Map<String, Pending> user = byUser.get(userId);
+        if (user == null || user.isEmpty()) return Map.of();
+        Map<String, Transaction> snapshot = new HashMap<>();
+        user.forEach((id, pending) -> snapshot.put(id, pending.transaction));
+        return snapshot;
+    }
+
+    /** Rows read from DynamoDB with a snapshot of unflushed writes laid over them. */
+    public static List<Transaction> merge(List<Transaction> stored, Map<String, Transaction> snapshot) {
+        if (snapshot.isEmpty()) return stored;
+        Map<String, Transaction> unseen = new LinkedHashMap<>(snapshot);
+        List<Transaction> merged = new ArrayList<>(stored.size() + snapshot.size());
+        for (Transaction t : stored) {
+            Transaction newer = unseen.remove(t.getTransactionId());
+            merged.add(newer != null ? newer : t);
+        }
+        merged.addAll(unseen.values());
+        return merged;
+    }
+
+    /**
+     * Drop an unflushed write for a deleted transaction; the flusher skips or undoes it.
+     *
+     * @return the dropped write, or null if none was pending
+     */
+    public Transaction cancel(String userId, String transactionId) {
+        Transaction[] cancelled = new Transaction[1];
+        byUser.computeIfPresent(userId, (id, user) -> {
+            Pending pending = user.remove(transactionId);
+            if (pending != null) {
+                pending.cancelled = true;
+                cancelled[0] = pending.transaction;
+            }
+            return user.isEmpty() ? null : user;
+        });
+        return cancelled[0];
+    }
+
+    /** Up to {@code max} of the oldest unflushed writes, cancelled ones included. */
+    List<Pending> oldest(int max) {
+        List<Pending> batch = new ArrayList<>(Math.min(max, byLsn.size()));
+        for (Pending pending : byLsn.values()) {
+            if (batch.size() == max) break;
+            batch.add(pending);
+        }
+        return batch;
+    }
+
+    /** The write is in DynamoDB (or was cancelled) and no longer needs the log. */
+    void flushed(Pending pending) {
+        byLsn.remove(pending.lsn, pending);
+        byUser.computeIfPresent(pending.transaction.getUserId(), (id, user) -> {
+            user.remove(pending.transaction.getTransactionId(), pending);
+            return user.isEmpty() ? null : user;
+        });
+    }
+
+    /** Lowest lsn not yet flushed, or -1 when everything is. */
+    long oldestLsn() {
+        Map.Entry<Long, Pending> first = byLsn.firstEntry();
+        return first != null ? first.getKey() : -1;
+    }
+
+    public int size() {
+        return byLsn.size();
+    }
+
+    /** Milliseconds the oldest unflushed write has been waiting. */
+    public long lagMillis() {
+        Map.Entry<Long, Pending> first = byLsn.firstEntry();
+        return first != null ? System.currentTimeMillis() - first.getValue().appendedAt : 0;
+    }
+}
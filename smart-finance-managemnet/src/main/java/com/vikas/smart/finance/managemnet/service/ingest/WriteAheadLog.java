@@ -0,0 +1,184 @@
+package com.vikas.smart.finance.managemnet.service.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log in fixed-size memory-mapped segment files, named by their first sequence number.
+ * A record is [length][crc32c][lsn][payload]; the CRC covers lsn and payload and the length is
+ * written last, so a record torn by a crash is either invisible or fails its checksum, and recovery
+ * stops at it. The checkpoint file holds the highest lsn stored elsewhere; segments entirely at or
+ * below it are deleted.
+ */
+public class WriteAheadLog implements Closeable {
+
+    public record Entry(long lsn, byte[] payload) {}
+
+    static final int HEADER_BYTES = 16;
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean sync;
+    private final List<Entry> recovered = new ArrayList<>();
+    private final List<Long> segments = new ArrayList<>();   // first lsn of each segment file, oldest first
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextLsn;
+    private long checkpoint;
+
+    private WriteAheadLog(Path dir, int segmentBytes, boolean sync) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.sync = sync;
+    }
+
+    /** Open the log in {@code dir}, reading back every intact record above the checkpoint. */
+    public static WriteAheadLog open(Path dir, int segmentBytes, boolean sync) throws IOException {
+        Files.createDirectories(dir);
+        WriteAheadLog wal = new WriteAheadLog(dir, segmentBytes, sync);
+        wal.recover();
+        return wal;
+    }
+
+    /** Records written but not yet checkpointed when the log was opened, in lsn order. */
+    public List<Entry> recovered() {
+        return recovered;
+    }
+
+    /** Highest lsn handed out so far. */
+    public synchronized long lastLsn() {
+        return nextLsn - 1;
+    }
+
+    /** Append one record and return its lsn; the record is recoverable once this returns. */
+    public synchronized long append(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (buffer == null || buffer.remaining() < size) roll();
+
+        long lsn = nextLsn++;
+        int start = buffer.position();
+        buffer.putLong(start + 8, lsn);
+        buffer.put(start + HEADER_BYTES, payload);
+        buffer.putInt(start + 4, crc(lsn, payload));
+        buffer.putInt(start, payload.length);
+        buffer.position(start + size);
+        if (sync) buffer.force(start, size);
+        return lsn;
+    }
+
+    /** Everything up to and including {@code lsn} is stored elsewhere and need not be replayed. */
+    public synchronized void checkpoint(long lsn) throws IOException {
+        if (lsn <= checkpoint) return;
+        checkpoint = lsn;
+
+        Path temp = dir.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer bytes = ByteBuffer.allocate(12).putLong(lsn).putInt(crc(lsn, new byte[0]));
+        Files.write(temp, bytes.array());
+        Files.move(temp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // A segment is done when the next one starts at or below checkpoint + 1; the live one never is
+        while (segments.size() > 1 && segments.get(1) <= checkpoint + 1) {
+            Files.deleteIfExists(segmentPath(segments.remove(0)));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) buffer.force();
+        if (channel != null) channel.close();
+        buffer = null;
+        channel = null;
+    }
+
+    private void recover() throws IOException {
+        checkpoint = readCheckpoint();
+        long last = checkpoint;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        for (long first : segments) {
+            last = Math.max(last, scan(segmentPath(first)));
+        }
+        nextLsn = last + 1;
+    }
+
+    /**
+     * Collect the intact records of one segment above the checkpoint, stopping at the first torn
+     * one or one out of order within the file. Records at or below the checkpoint are skipped, not
+     * a reason to stop: a checkpoint usually falls in the middle of a segment.
+     *
+     * @return the highest lsn in the file, or 0
+     */
+    private long scan(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer in = ByteBuffer.wrap(content);
+        long last = 0;
+        while (in.remaining() >= HEADER_BYTES) {
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length <= 0 || length > in.remaining() - HEADER_BYTES) break;
+            int crc = in.getInt(start + 4);
+            long lsn = in.getLong(start + 8);
+            byte[] payload = new byte[length];
+            in.get(start + HEADER_BYTES, payload);
+            if (crc != crc(lsn, payload) || lsn <= last) break;
+
+            if (lsn > checkpoint) recovered.add(new Entry(lsn, payload));
+            last = lsn;
+            in.position(start + HEADER_BYTES + length);
+        }
+        return last;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file)) return 0;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 12) return 0;
+        long lsn = in.getLong();
+        return in.getInt() == crc(lsn, new byte[0]) ? lsn : 0;
+    }
+
+    /**
+     * Start a fresh segment; older ones stay on disk until checkpointed. A recovered segment with
+     * the same name holds nothing intact at or above nextLsn, so it is overwritten.
+     */
+    private void roll() throws IOException {
+        close();
+        long first = nextLsn;
+        channel = FileChannel.open(segmentPath(first), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        if (!segments.contains(first)) segments.add(first);
+    }
+
+    private Path segmentPath(long first) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, first, SUFFIX));
+    }
+
+    private static int crc(long lsn, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, lsn));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
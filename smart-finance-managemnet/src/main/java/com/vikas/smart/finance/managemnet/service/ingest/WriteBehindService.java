@@ -0,0 +1,370 @@
+package com.vikas.smart.finance.managemnet.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vikas.smart.finance.managemnet.config.IngestProperties;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.service.DataVersionService;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for single transaction writes (finance.ingest.write-behind).
+ * A write is appended to the local write-ahead log, becomes visible to reads through
+ * {@link PendingWrites}, runs the usual derived-state hooks and is acknowledged; a flusher thread
+ * sends the oldest writes to DynamoDB in BatchWriteItem calls and checkpoints the log behind them.
+ * On startup anything logged but never checkpointed is replayed. When the backlog reaches
+ * maxPending writes or its oldest write is maxLag old, appends wait for the flusher and are
+ * eventually refused. The derived-state hooks run on a separate hooks thread, so the
+ * acknowledgement does not wait for them. The data version is bumped twice, each coalesced per
+ * user while one is queued: on append, for this instance's readers, which see the row through
+ * {@link PendingWrites}; and once the flush has stored it, so other instances that cached
+ * DynamoDB without the row under the first version read it again. Insights regenerate after the
+ * flush. A write DynamoDB keeps refusing with a non-retryable error (validation, item size) is
+ * moved to {@code dead-letter.ndjson} in the log directory after maxFlushAttempts rounds, so it
+ * cannot hold back the checkpoint and the backlog. When disabled, writes go straight to DynamoDB.
+ * Either way a write first passes the {@link DuplicateDetector}.
+ */
+@Service
+public class WriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindService.class);
+
+    private static final int FLUSH_BATCH = 200;           // per saveBatch call, split into 25-item requests
+    private static final String DEAD_LETTER = "dead-letter.ndjson";
+    private static final int HOOK_QUEUE = 10_000;         // beyond this the request thread runs the hooks itself
+
+    /** The backlog stayed over its bounds for maxAppendWait; the caller should retry later. */
+    public static class BackpressureException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        BackpressureException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private final IngestProperties properties;
+    private final TransactionService transactionService;
+    private final PendingWrites pendingWrites;
+    private final DuplicateDetector duplicateDetector;
+    private final DataVersionService dataVersionService;
+    private final FinanceMetrics metrics;
+    private final ObjectMapper objectMapper;
+
+    private final Object appendLock = new Object();
+    private final Object capacity = new Object();
+    private WriteAheadLog wal;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "write-behind-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // One thread keeps the in-memory derived state updated in log order
+    private final ExecutorService hooks = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(HOOK_QUEUE), r -> {
+                Thread thread = new Thread(r, "write-behind-hooks");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    private final Set<String> bumpQueued = ConcurrentHashMap.newKeySet();
+    private final Set<String> refreshQueued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WriteBehindService(IngestProperties properties,
+                              TransactionService transactionService,
+                              PendingWrites pendingWrites,
+                              DuplicateDetector duplicateDetector,
+                              DataVersionService dataVersionService,
+                              FinanceMetrics metrics,
+                              ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.transactionService = transactionService;
+        this.pendingWrites = pendingWrites;
+        this.duplicateDetector = duplicateDetector;
+        this.dataVersionService = dataVersionService;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isWriteBehind()) return;
+
+        long segmentSize = properties.getSegmentSize().toBytes();
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("finance.ingest.segment-size must be between 1B and 2GB, was "
+                    + properties.getSegmentSize());
+        }
+        wal = WriteAheadLog.open(Path.of(properties.getWalDir()), (int) segmentSize, properties.isSyncOnAppend());
+        synchronized (appendLock) {
+            for (WriteAheadLog.Entry entry : wal.recovered()) {
+                pendingWrites.add(entry.lsn(), objectMapper.readValue(entry.payload(), Transaction.class));
+            }
+        }
+        if (!wal.recovered().isEmpty()) {
+            log.info("Replaying {} unflushed transactions from the write-ahead log", wal.recovered().size());
+        }
+
+        metrics.gauge("finance.ingest.pending", pendingWrites, PendingWrites::size);
+        metrics.gauge("finance.ingest.lag.seconds", pendingWrites, p -> p.lagMillis() / 1000.0);
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Store a transaction: durably logged and readable when this returns in write-behind mode,
+     * written to DynamoDB otherwise. Without a transaction id, the id is derived from
+     * {@code idempotencyKey} when given (so a retry maps to the same item) or generated.
+     *
+     * @param allowDuplicate store it even if it matches a recent transaction's content
+     * @return the transaction this one duplicates, or null if it was stored
+     */
+    public DuplicateDetector.Duplicate save(Transaction transaction, String idempotencyKey, boolean allowDuplicate) {
+        if (transaction.getTransactionId() == null || transaction.getTransactionId().isBlank()) {
+            transaction.setTransactionId(idempotencyKey != null && !idempotencyKey.isBlank()
+                    ? UUID.nameUUIDFromBytes((transaction.getUserId() + "|" + idempotencyKey)
+                            .getBytes(StandardCharsets.UTF_8)).toString()
+                    : UUID.randomUUID().toString());
+        }
+        DuplicateDetector.Duplicate duplicate = duplicateDetector.claim(transaction, allowDuplicate);
+        if (duplicate != null) return duplicate;
+
+        if (wal == null) return writeThrough(transaction);
+        try {
+            awaitCapacity();
+        } catch (RuntimeException e) {
+            duplicateDetector.forget(transaction.getUserId(), transaction.getTransactionId());
+            throw e;
+        }
+
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(transaction);
+            // Log order and pending order must agree, or a checkpoint could pass an unflushed write
+            synchronized (appendLock) {
+                pendingWrites.add(wal.append(payload), transaction);
+            }
+        } catch (IOException e) {
+            log.error("Write-ahead log append failed, writing transaction through", e);
+            metrics.increment("finance.ingest.wal.errors");
+            return writeThrough(transaction);
+        }
+        metrics.increment("finance.ingest.appended");
+        hooks.execute(() -> applyHooks(transaction));
+        return null;
+    }
+
+    private void applyHooks(Transaction transaction) {
+        try {
+            transactionService.applyDerivedState(transaction);
+        } catch (RuntimeException e) {
+            log.warn("Derived-state update failed for transaction '{}'", transaction.getTransactionId(), e);
+        }
+        String userId = transaction.getUserId();
+        if (!bumpQueued.add(userId)) return;
+        hooks.execute(() -> {
+            bumpQueued.remove(userId);
+            try {
+                dataVersionService.bump(userId);
+            } catch (RuntimeException e) {
+                log.warn("Version bump failed for user '{}'", userId, e);
+            }
+        });
+    }
+
+    /** Bump and regenerate once the user's rows are in DynamoDB and every instance can read them. */
+    private void afterFlush(String userId) {
+        if (!refreshQueued.add(userId)) return;
+        hooks.execute(() -> {
+            refreshQueued.remove(userId);
+            try {
+                dataVersionService.bump(userId);
+                transactionService.generateInsightsAsync(userId);
+            } catch (RuntimeException e) {
+                log.warn("Version bump or insight regeneration failed for user '{}'", userId, e);
+            }
+        });
+    }
+
+    private DuplicateDetector.Duplicate writeThrough(Transaction transaction) {
+        boolean saved;
+        try {
+            saved = transactionService.saveTransaction(transaction);
+        } catch (RuntimeException e) {
+            // Not written, so a retry must not be mistaken for a duplicate
+            duplicateDetector.forget(transaction.getUserId(), transaction.getTransactionId());
+            throw e;
+        }
+        if (saved) return null;
+        // Same id written before the duplicate window: DynamoDB's condition caught it
+        metrics.increment("finance.ingest.dedupe", "outcome", "conditional");
+        return new DuplicateDetector.Duplicate(DuplicateDetector.Reason.IDEMPOTENCY_KEY, transaction.getTransactionId());
+    }
+
+    private void awaitCapacity() {
+        long deadline = System.currentTimeMillis() + properties.getMaxAppendWait().toMillis();
+        synchronized (capacity) {
+            while (overLimit()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    metrics.increment("finance.ingest.rejected");
+                    throw new BackpressureException("Write backlog is full, retry shortly",
+                            Math.max(1, properties.getFlushInterval().toSeconds()));
+                }
+                try {
+                    capacity.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BackpressureException("Interrupted while waiting for the write backlog", 1);
+                }
+            }
+        }
+    }
+
+    private boolean overLimit() {
+        return pendingWrites.size() >= properties.getMaxPending()
+                || pendingWrites.lagMillis() >= properties.getMaxLag().toMillis();
+    }
+
+    /** Drain the backlog oldest first; a batch DynamoDB does not fully accept ends the round. */
+    private void flush() {
+        try {
+            while (true) {
+                List<PendingWrites.Pending> batch = pendingWrites.oldest(FLUSH_BATCH);
+                if (batch.isEmpty()) break;
+                if (!flushBatch(batch)) break;
+            }
+        } catch (Exception e) {
+            log.warn("Write-behind flush failed, retrying next round", e);
+        }
+    }
+
+    private boolean flushBatch(List<PendingWrites.Pending> batch) throws IOException {
+        List<Transaction> writes = new ArrayList<>(batch.size());
+        for (PendingWrites.Pending pending : batch) {
+            if (!pending.cancelled) writes.add(pending.transaction);
+        }
+        Set<Transaction> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        long started = System.nanoTime();
+        if (!writes.isEmpty()) {
+            try {
+                failed.addAll(transactionService.saveBatch(writes));
+            } catch (RuntimeException e) {
+                // One bad item fails the whole request; write them one by one to isolate it
+                log.warn("Write-behind batch failed, retrying its items one by one", e);
+                failed.addAll(flushSingly(batch));
+            }
+        }
+        metrics.record("finance.ingest.flush", "flush", System.nanoTime() - started,
+                failed.isEmpty() ? "success" : "partial");
+
+        Set<String> stored = new HashSet<>();
+        for (PendingWrites.Pending pending : batch) {
+            if (failed.contains(pending.transaction)) continue;
+            pendingWrites.flushed(pending);
+            if (!pending.cancelled) stored.add(pending.transaction.getUserId());
+            // Deleted while the batch was in flight: the put may have landed after the delete
+            if (pending.cancelled && writes.contains(pending.transaction)) {
+                transactionService.deleteTransaction(pending.transaction.getUserId(),
+                        pending.transaction.getTransactionId());
+            }
+        }
+        synchronized (appendLock) {
+            long oldest = pendingWrites.oldestLsn();
+            wal.checkpoint(oldest < 0 ? wal.lastLsn() : oldest - 1);
+        }
+        synchronized (capacity) {
+            capacity.notifyAll();
+        }
+        stored.forEach(this::afterFlush);
+        if (!failed.isEmpty()) {
+            log.warn("{} transactions not accepted by DynamoDB, retrying next round", failed.size());
+        }
+        return failed.isEmpty();
+    }
+
+    /** @return the writes still to retry; dead-lettered ones are not among them */
+    private List<Transaction> flushSingly(List<PendingWrites.Pending> batch) throws IOException {
+        List<Transaction> failed = new ArrayList<>();
+        for (PendingWrites.Pending pending : batch) {
+            if (pending.cancelled) continue;
+            try {
+                failed.addAll(transactionService.saveBatch(List.of(pending.transaction)));
+            } catch (RuntimeException e) {
+                boolean retryable = e instanceof SdkException sdk && sdk.retryable();
+                if (!retryable && ++pending.failures >= properties.getMaxFlushAttempts()) {
+                    deadLetter(pending, e);
+                } else {
+                    failed.add(pending.transaction);
+                }
+            }
+        }
+        return failed;
+    }
+
+    /** Park a write DynamoDB will not take; the caller then treats it as flushed so the checkpoint can pass it. */
+    private void deadLetter(PendingWrites.Pending pending, Exception error) throws IOException {
+        Transaction t = pending.transaction;
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("lsn", pending.lsn);
+        entry.put("failedAt", System.currentTimeMillis());
+        entry.put("error", error.getClass().getSimpleName() + ": " + error.getMessage());
+        entry.put("transaction", t);
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel out = FileChannel.open(Path.of(properties.getWalDir(), DEAD_LETTER),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            out.write(ByteBuffer.wrap(line));
+            out.force(true);
+        }
+        log.error("Transaction '{}' for user '{}' refused {} times, moved to {}", t.getTransactionId(),
+                t.getUserId(), pending.failures, DEAD_LETTER, error);
+        metrics.increment("finance.ingest.dead.letter");
+        // Never stored: allow a corrected retry and drop it from the derived state
+        duplicateDetector.forget(t.getUserId(), t.getTransactionId());
+        transactionService.refreshAfterBulkWrite(t.getUserId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hooks.shutdown();
+        if (wal == null) return;
+        flusher.shutdown();
+        try {
+            hooks.awaitTermination(5, TimeUnit.SECONDS);
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            // Best effort; whatever is left is replayed on the next start
+            flush();
+            wal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the write-ahead log", e);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.vikas.smart.finance.managemnet.service.shard;
+
+import com.vikas.smart.finance.managemnet.config.ShardingProperties;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.UserShardLayout;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import com.vikas.smart.finance.managemnet.service.TransactionService;
+import com.vikas.smart.finance.managemnet.util.Hashing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Places a user's transactions on one or more Transaction partitions (finance.sharding.*).
+ * Shard 0 is the plain userId, shard k the partition {@code userId#k}; a row lives on shard
+ * hash(transactionId) mod shards, so a retried write lands where the first one did.
+ * Layouts are kept in the TransactionShards table and cached for layoutCacheTtl. Write rates are
+ * tracked per user and a user writing more than writesPerShard per shard is resharded to twice
+ * as many shards in the background, up to maxShards; layouts never shrink on their own.
+ * A reshard that failed or died with its instance leaves the layout migrating; once it has not
+ * changed for layoutCacheTtl plus {@value #STALLED_RESHARD_MINUTES} minutes, the next write or the
+ * periodic sweep restarts it, and the move picks up whatever rows are still on their old shard.
+ * User ids ending in '#' and digits cannot be told apart from shard partitions; with sharding on
+ * the write entry points refuse them through {@link #checkUserId(String)}.
+ */
+@Service
+public class ShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    /** Shard count, and while a reshard is moving rows the count it is moving them from. */
+    public record Layout(int shards, int previousShards) {
+
+        public static final Layout SINGLE = new Layout(1, 1);
+
+        public boolean migrating() {
+            return shards != previousShards;
+        }
+
+        /** Shards a reader has to cover to see every row. */
+        public int readShards() {
+            return Math.max(shards, previousShards);
+        }
+    }
+
+    private record Cached(Layout layout, long updatedAt, long loadedAt) {}
+
+    private static final class Heat {
+        double rate;                                    // writes/second, exponentially weighted
+        long lastNanos;
+
+        Heat(long now) {
+            this.lastNanos = now;
+        }
+    }
+
+    private static final char SEPARATOR = '#';
+    private static final Pattern SHARD_SUFFIX = Pattern.compile("#\\d+$");
+    private static final double HEAT_WINDOW_SECONDS = 10;
+    private static final long HEAT_PRUNE_MINUTES = 5;
+    private static final long STALLED_RESHARD_MINUTES = 15;
+    private static final Comparator<Transaction> ORDER =
+            Comparator.comparing(Transaction::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(Transaction::getTransactionId);
+
+    @Autowired
+    @Lazy
+    private TransactionService transactionService;
+
+    private final ShardingProperties properties;
+    private final FinanceMetrics metrics;
+    private final DynamoDbTable<UserShardLayout> layoutTable;
+    private final Map<String, Cached> layouts = new ConcurrentHashMap<>();
+    private final Map<String, Heat> heat = new ConcurrentHashMap<>();
+    private final Set<String> resharding = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService gatherers;
+    private final ScheduledExecutorService migrations = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "shard-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ShardRouter(DynamoDbEnhancedClient enhancedClient, ShardingProperties properties, FinanceMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.layoutTable = enhancedClient.table("TransactionShards", TableSchema.fromBean(UserShardLayout.class));
+        this.gatherers = Executors.newFixedThreadPool(Math.max(1, properties.getGatherThreads()), r -> {
+            Thread thread = new Thread(r, "shard-gather");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) return;
+        migrations.scheduleWithFixedDelay(this::pruneHeat, HEAT_PRUNE_MINUTES, HEAT_PRUNE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int getMaxShards() {
+        return properties.getMaxShards();
+    }
+
+    public Duration getLayoutCacheTtl() {
+        return properties.getLayoutCacheTtl();
+    }
+
+    public static String partition(String userId, int shard) {
+        return shard == 0 ? userId : userId + SEPARATOR + shard;
+    }
+
+    public static int shardOf(String transactionId, int shards) {
+        return shards <= 1 ? 0 : (int) Math.floorMod(Hashing.hash64(transactionId), (long) shards);
+    }
+
+    /**
+     * Reject a user id that reads as a shard partition ({@code bob#1} would be user bob's shard 1).
+     *
+     * @throws IllegalArgumentException when sharding is on and the id ends in '#' and digits
+     */
+    public void checkUserId(String userId) {
+        if (properties.isEnabled() && userId != null && SHARD_SUFFIX.matcher(userId).find()) {
+            throw new IllegalArgumentException("userId must not end in '" + SEPARATOR + "' and digits while sharding is enabled");
+        }
+    }
+
+    /** The user id a partition key belongs to; unchanged when sharding is off. */
+    public String userIdOf(String partition) {
+        if (!properties.isEnabled() || partition == null) return partition;
+        int at = partition.lastIndexOf(SEPARATOR);
+        if (at < 0 || at == partition.length() - 1) return partition;
+        for (int i = at + 1; i < partition.length(); i++) {
+            if (!Character.isDigit(partition.charAt(i))) return partition;
+        }
+        return partition.substring(0, at);
+    }
+
+    /** The user's layout, read through the cache; a user without a stored layout has one shard. */
+    public Layout layout(String userId) {
+        if (!properties.isEnabled()) return Layout.SINGLE;
+        long now = System.currentTimeMillis();
+        Cached cached = layouts.get(userId);
+        if (cached != null && now - cached.loadedAt() < properties.getLayoutCacheTtl().toMillis()) {
+            return cached.layout();
+        }
+        return load(userId);
+    }
+
+    /** The user's layout read from the table, bypassing the cache. */
+    public Layout load(String userId) {
+        if (!properties.isEnabled()) return Layout.SINGLE;
+        UserShardLayout stored = layoutTable.getItem(Key.builder().partitionValue(userId).build());
+        Layout layout = stored == null ? Layout.SINGLE
+                : new Layout(Math.max(1, stored.getShards()), Math.max(1, stored.getPreviousShards()));
+        layouts.put(userId, new Cached(layout, stored == null ? 0 : stored.getUpdatedAt(), System.currentTimeMillis()));
+        return layout;
+    }
+
+    /** Partition a row with this transaction id is written to under the current layout. */
+    public String writePartition(String userId, String transactionId) {
+        return partition(userId, shardOf(transactionId, layout(userId).shards()));
+    }
+
+    /** Every partition that may hold one of the user's rows. */
+    public List<String> readPartitions(String userId) {
+        int shards = layout(userId).readShards();
+        List<String> partitions = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) partitions.add(partition(userId, shard));
+        return partitions;
+    }
+
+    /** Partitions that may hold this row: its place under the current layout and, mid-reshard, the previous one. */
+    public List<String> partitionsFor(String userId, String transactionId) {
+        Layout layout = layout(userId);
+        String current = partition(userId, shardOf(transactionId, layout.shards()));
+        if (!layout.migrating()) return List.of(current);
+        String previous = partition(userId, shardOf(transactionId, layout.previousShards()));
+        return current.equals(previous) ? List.of(current) : List.of(current, previous);
+    }
+
+    /**
+     * Run {@code query} against each partition in parallel and merge the results: rows get the
+     * logical user id back, a row seen twice (on both sides of a move) is kept once, and rows are
+     * ordered by date, then transaction id. A single partition is queried in the caller's thread.
+     */
+    public List<Transaction> gather(String userId, List<String> partitions, Function<String, List<Transaction>> query) {
+        if (partitions.size() == 1) {
+            List<Transaction> rows = new ArrayList<>(query.apply(partitions.get(0)));
+            rows.forEach(t -> t.setUserId(userId));
+            rows.sort(ORDER);
+            return rows;
+        }
+        return metrics.time("finance.shard.gather", "gather", () -> {
+            List<CompletableFuture<List<Transaction>>> parts = new ArrayList<>(partitions.size());
+            for (String partition : partitions.subList(1, partitions.size())) {
+                parts.add(CompletableFuture.supplyAsync(() -> query.apply(partition), gatherers));
+            }
+            Map<String, Transaction> merged = new HashMap<>();
+            query.apply(partitions.get(0)).forEach(t -> merged.putIfAbsent(t.getTransactionId(), t));
+            try {
+                for (CompletableFuture<List<Transaction>> part : parts) {
+                    part.join().forEach(t -> merged.putIfAbsent(t.getTransactionId(), t));
+                }
+            } catch (CompletionException e) {
+                parts.forEach(p -> p.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+            List<Transaction> rows = new ArrayList<>(merged.values());
+            rows.forEach(t -> t.setUserId(userId));
+            rows.sort(ORDER);
+            return rows;
+        }, "partitions", String.valueOf(partitions.size()));
+    }
+
+    /**
+     * Count writes towards the user's heat and start a reshard to twice the shards once the
+     * weighted rate passes writesPerShard per shard. A stalled reshard is restarted instead.
+     */
+    public void recordWrites(String userId, int count) {
+        if (!properties.isEnabled() || count <= 0) return;
+        long now = System.nanoTime();
+        Heat h = heat.computeIfAbsent(userId, id -> new Heat(now));
+        double rate;
+        synchronized (h) {
+            double elapsed = Math.max(0, now - h.lastNanos) / 1e9;
+            h.rate = h.rate * Math.exp(-elapsed / HEAT_WINDOW_SECONDS) + count / HEAT_WINDOW_SECONDS;
+            h.lastNanos = now;
+            rate = h.rate;
+        }
+        Layout layout = layout(userId);
+        if (layout.migrating()) {
+            if (stalled(layouts.get(userId))) requestReshard(userId, layout.shards());
+            return;
+        }
+        if (layout.shards() >= properties.getMaxShards()) return;
+        if (rate > layout.shards() * properties.getWritesPerShard()) {
+            requestReshard(userId, Math.min(layout.shards() * 2, properties.getMaxShards()));
+        }
+    }
+
+    /**
+     * Queue a reshard of the user to {@code shards} shards on the migration thread.
+     *
+     * @return false if one is already queued or running on this instance
+     */
+    public boolean requestReshard(String userId, int shards) {
+        if (!resharding.add(userId)) return false;
+        try {
+            migrations.execute(() -> {
+                try {
+                    int moved = transactionService.reshard(userId, shards);
+                    if (moved >= 0) log.info("Resharded user '{}' to {} shards, {} transactions moved", userId, shards, moved);
+                } catch (Exception e) {
+                    log.warn("Resharding user '{}' to {} shards failed; it restarts after {} minutes without progress",
+                            userId, shards, properties.getLayoutCacheTtl().toMinutes() + STALLED_RESHARD_MINUTES, e);
+                } finally {
+                    resharding.remove(userId);
+                }
+            });
+        } catch (RuntimeException e) {
+            resharding.remove(userId);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Record the start of a reshard from {@code from} to {@code shards}; conditional on the stored
+     * layout still being {@code from} and not mid-reshard.
+     *
+     * @return false if another reshard got there first
+     */
+    public boolean beginReshard(String userId, Layout from, int shards) {
+        UserShardLayout layout = stored(userId, shards, from.shards());
+        Expression condition = Expression.builder()
+                .expression("attribute_not_exists(userId) OR (shards = :from AND previousShards = :from)")
+                .putExpressionValue(":from", AttributeValue.fromN(String.valueOf(from.shards())))
+                .build();
+        return put(userId, layout, condition);
+    }
+
+    /**
+     * Claim a migrating layout to restart its reshard, restamping updatedAt so other instances
+     * (and a restart that fails again) wait a full stall period before trying.
+     *
+     * @return false if the layout changed since {@code current} was read
+     */
+    public boolean resumeReshard(String userId, Layout current) {
+        Expression condition = Expression.builder()
+                .expression("shards = :to AND previousShards = :from AND updatedAt = :at")
+                .putExpressionValue(":to", AttributeValue.fromN(String.valueOf(current.shards())))
+                .putExpressionValue(":from", AttributeValue.fromN(String.valueOf(current.previousShards())))
+                .putExpressionValue(":at", AttributeValue.fromN(String.valueOf(updatedAt(userId))))
+                .build();
+        return put(userId, stored(userId, current.shards(), current.previousShards()), condition);
+    }
+
+    private long updatedAt(String userId) {
+        Cached cached = layouts.get(userId);
+        return cached != null ? cached.updatedAt() : 0;
+    }
+
+    /** Record that every row is on its shard under {@code shards}; readers stop covering the previous layout. */
+    public boolean finishReshard(String userId, int shards) {
+        Expression condition = Expression.builder()
+                .expression("shards = :to")
+                .putExpressionValue(":to", AttributeValue.fromN(String.valueOf(shards)))
+                .build();
+        return put(userId, stored(userId, shards, shards), condition);
+    }
+
+    private boolean put(String userId, UserShardLayout layout, Expression condition) {
+        try {
+            layoutTable.putItem(PutItemEnhancedRequest.builder(UserShardLayout.class)
+                    .item(layout)
+                    .conditionExpression(condition)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            layouts.remove(userId);
+            return false;
+        }
+        layouts.put(userId, new Cached(new Layout(layout.getShards(), layout.getPreviousShards()),
+                layout.getUpdatedAt(), System.currentTimeMillis()));
+        metrics.increment("finance.shard.layout", "state", layout.getShards() == layout.getPreviousShards() ? "stable" : "migrating");
+        return true;
+    }
+
+    private static UserShardLayout stored(String userId, int shards, int previousShards) {
+        UserShardLayout layout = new UserShardLayout();
+        layout.setUserId(userId);
+        layout.setShards(shards);
+        layout.setPreviousShards(previousShards);
+        layout.setUpdatedAt(System.currentTimeMillis());
+        return layout;
+    }
+
+    /** A migrating layout nobody has advanced for longer than a reshard waits on caches plus the stall margin. */
+    private boolean stalled(Cached cached) {
+        if (cached == null || !cached.layout().migrating()) return false;
+        long stalledAfter = properties.getLayoutCacheTtl().toMillis() + TimeUnit.MINUTES.toMillis(STALLED_RESHARD_MINUTES);
+        return System.currentTimeMillis() - cached.updatedAt() > stalledAfter;
+    }
+
+    /** Restart stalled reshards of cached users, then forget cold users' heat and cached layouts. */
+    private void pruneHeat() {
+        layouts.forEach((userId, cached) -> {
+            if (!stalled(cached)) return;
+            try {
+                // The cached copy may predate another instance's progress
+                Layout layout = load(userId);
+                if (stalled(layouts.get(userId))) requestReshard(userId, layout.shards());
+            } catch (RuntimeException e) {
+                log.warn("Could not check the stalled reshard of user '{}'", userId, e);
+            }
+        });
+        long now = System.nanoTime();
+        long idle = TimeUnit.MINUTES.toNanos(HEAT_PRUNE_MINUTES);
+        heat.entrySet().removeIf(e -> {
+            synchronized (e.getValue()) {
+                return now - e.getValue().lastNanos > idle;
+            }
+        });
+        long expired = System.currentTimeMillis() - properties.getLayoutCacheTtl().toMillis();
+        layouts.values().removeIf(c -> c.loadedAt() < expired);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migrations.shutdownNow();
+        gatherers.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fast non-cryptographic hashing shared by the in-memory sketches and indexes.
+ */
+public final class Hashing {
+
+    private Hashing() {}
+
+    /** FNV-1a over UTF-8 bytes followed by the MurmurHash3 fmix64 finalizer. */
+    public static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    public static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
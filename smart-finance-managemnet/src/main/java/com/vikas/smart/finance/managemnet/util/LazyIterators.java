@@ -0,0 +1,62 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Iterator combinators that never read ahead: each source is opened only once the previous one
+ * is exhausted, and each element is pulled only when asked for. Stream.flatMap does not give this
+ * through iterator(); it buffers each inner stream whole.
+ */
+public final class LazyIterators {
+
+    private LazyIterators() {}
+
+    /** The sources one after another; a source is opened when iteration reaches it. */
+    public static <T> Iterator<T> concat(List<Supplier<Iterator<T>>> sources) {
+        Iterator<Supplier<Iterator<T>>> pending = sources.iterator();
+        return new Iterator<>() {
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (!pending.hasNext()) return false;
+                    current = pending.next().get();
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    /** Elements passed through {@code mapper}, skipping those it maps to null. */
+    public static <T, R> Iterator<R> mapNotNull(Iterator<T> source, Function<? super T, ? extends R> mapper) {
+        return new Iterator<>() {
+            private R next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && source.hasNext()) next = mapper.apply(source.next());
+                return next != null;
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                R value = next;
+                next = null;
+                return value;
+            }
+        };
+    }
+}
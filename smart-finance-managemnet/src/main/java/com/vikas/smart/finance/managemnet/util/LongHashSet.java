@@ -0,0 +1,64 @@
+package com.vikas.smart.finance.managemnet.util;
+
+/**
+ * Open-addressing set of primitive longs (8 bytes per slot, no boxing).
+ * Zero is reserved as the empty marker, so callers should pass well-mixed hashes.
+ */
+public class LongHashSet {
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        this.slots = new long[capacity];
+    }
+
+    /** @return true if the value was not already present */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if ((size + 1) * 2 > slots.length) grow();
+        if (insert(slots, value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+        int mask = slots.length - 1;
+        for (int i = (int) Hashing.fmix64(value) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == value) return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int i = (int) Hashing.fmix64(value) & mask;
+        while (table[i] != 0) {
+            if (table[i] == value) return false;
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        return true;
+    }
+
+    private void grow() {
+        long[] bigger = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != 0) insert(bigger, value);
+        }
+        slots = bigger;
+    }
+}
@@ -0,0 +1,55 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request time breakdown rendered as a {@code Server-Timing} header.
+ * Bound to the request thread; work done on other threads is not attributed.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    /** name -> {total nanos, count}, in first-seen order */
+    private final Map<String, long[]> steps = new LinkedHashMap<>();
+
+    private ServerTiming() {
+    }
+
+    public static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** Add time to a step of the current request; a no-op outside a request. */
+    public static void record(String step, long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) return;
+        long[] entry = timing.steps.computeIfAbsent(step, k -> new long[2]);
+        entry[0] += nanos;
+        entry[1]++;
+    }
+
+    /** e.g. {@code dynamodb;dur=12.4;desc="3 calls", total;dur=15.0} */
+    public String header(long totalNanos) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, long[]> step : steps.entrySet()) {
+            long[] entry = step.getValue();
+            sb.append(step.getKey()).append(";dur=").append(millis(entry[0]));
+            if (entry[1] > 1) sb.append(";desc=\"").append(entry[1]).append(" calls\"");
+            sb.append(", ");
+        }
+        return sb.append("total;dur=").append(millis(totalNanos)).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
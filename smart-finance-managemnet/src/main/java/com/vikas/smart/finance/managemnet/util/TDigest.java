@@ -0,0 +1,150 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import java.util.Arrays;
+
+/**
+ * Small mergeable t-digest for streaming quantile estimates.
+ * Centroids near the tails stay small so p90/p99 remain accurate while the
+ * whole sketch holds at most a few dozen centroids.
+ */
+public class TDigest {
+
+    private static final int BUFFER_SIZE = 32;
+
+    private final double compression;
+
+    private double[] means = new double[8];
+    private double[] weights = new double[8];
+    private int centroids;
+
+    private final double[] bufferMeans = new double[BUFFER_SIZE];
+    private final double[] bufferWeights = new double[BUFFER_SIZE];
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        this.compression = compression;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * Fold another digest into this one. The other digest is only read, centroids and buffered
+     * points alike, so callers need no more than a read lock on it.
+     */
+    public void merge(TDigest other) {
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        for (int i = 0; i < other.buffered; i++) {
+            add(other.bufferMeans[i], other.bufferWeights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long size() {
+        return Math.round(totalWeight + bufferedWeight());
+    }
+
+    /**
+     * Estimate the value at quantile {@code q} (0..1), or NaN when empty.
+     */
+    public double quantile(double q) {
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1) return means[0];
+
+        double index = q * totalWeight;
+        if (index <= weights[0] / 2) {
+            return min + (means[0] - min) * (index / (weights[0] / 2));
+        }
+
+        double cumulative = weights[0] / 2;   // position of the current centroid's center
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= index) {
+                double fraction = (index - cumulative) / step;
+                return means[i] + (means[i + 1] - means[i]) * fraction;
+            }
+            cumulative += step;
+        }
+
+        int last = centroids - 1;
+        double tail = weights[last] / 2;
+        double fraction = Math.min(1, (index - cumulative) / tail);
+        return means[last] + (max - means[last]) * fraction;
+    }
+
+    private void add(double value, double weight) {
+        if (buffered == BUFFER_SIZE) compress();
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private double bufferedWeight() {
+        double w = 0;
+        for (int i = 0; i < buffered; i++) w += bufferWeights[i];
+        return w;
+    }
+
+    /** Merge buffered points into the centroid list, respecting the size bound q(1-q)·4n/δ. */
+    private void compress() {
+        if (buffered == 0) return;
+
+        int n = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        totalWeight += bufferedWeight();
+        buffered = 0;
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] newMeans = new double[n];
+        double[] newWeights = new double[n];
+        int out = 0;
+        double soFar = 0;
+        double curMean = allMeans[order[0]];
+        double curWeight = allWeights[order[0]];
+
+        for (int i = 1; i < n; i++) {
+            double mean = allMeans[order[i]];
+            double weight = allWeights[order[i]];
+            double proposed = curWeight + weight;
+            double q0 = soFar / totalWeight;
+            double q2 = (soFar + proposed) / totalWeight;
+            double limit = 4 * totalWeight * Math.min(q0 * (1 - q0), q2 * (1 - q2)) / compression;
+
+            if (proposed <= limit) {
+                curMean += (mean - curMean) * weight / proposed;
+                curWeight = proposed;
+            } else {
+                newMeans[out] = curMean;
+                newWeights[out] = curWeight;
+                out++;
+                soFar += curWeight;
+                curMean = mean;
+                curWeight = weight;
+            }
+        }
+        newMeans[out] = curMean;
+        newWeights[out] = curWeight;
+        out++;
+
+        means = Arrays.copyOf(newMeans, out);
+        weights = Arrays.copyOf(newWeights, out);
+        centroids = out;
+    }
+}
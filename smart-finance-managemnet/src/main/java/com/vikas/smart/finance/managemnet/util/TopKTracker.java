@@ -0,0 +1,113 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import java.util.*;
+
+/**
+ * Weighted heavy-hitter tracker.
+ * Exact while the number of distinct items fits in {@code capacity}; beyond that it
+ * switches to Space-Saving, evicting the smallest counter and inheriting its weight as error.
+ */
+public class TopKTracker {
+
+    private final int capacity;
+    private final Map<String, double[]> counters;   // item -> {weight, error}
+    private boolean approximate;
+
+    public TopKTracker(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(Math.min(capacity, 16));
+    }
+
+    public void add(String item, double weight) {
+        add(item, weight, 0);
+    }
+
+    /**
+     * Fold another tracker into this one; overestimation bounds are carried over. An item only one
+     * side tracks is credited with the other side's smallest weight if that side has evicted, since
+     * the item may have been among its evictions, and the {@code capacity} heaviest items are kept.
+     */
+    public void merge(TopKTracker other) {
+        double missingHere = approximate ? minWeight() : 0;
+        double missingThere = other.approximate ? other.minWeight() : 0;
+
+        Map<String, double[]> merged = new HashMap<>();
+        counters.forEach((item, counter) -> {
+            double[] theirs = other.counters.get(item);
+            merged.put(item, theirs != null
+                    ? new double[]{counter[0] + theirs[0], counter[1] + theirs[1]}
+                    : new double[]{counter[0] + missingThere, counter[1] + missingThere});
+        });
+        other.counters.forEach((item, counter) -> {
+            if (!counters.containsKey(item)) {
+                merged.put(item, new double[]{counter[0] + missingHere, counter[1] + missingHere});
+            }
+        });
+        approximate |= other.approximate;
+
+        counters.clear();
+        if (merged.size() <= capacity) {
+            counters.putAll(merged);
+            return;
+        }
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, double[]> e) -> e.getValue()[0]).reversed())
+                .limit(capacity)
+                .forEach(e -> counters.put(e.getKey(), e.getValue()));
+        approximate = true;
+    }
+
+    /** True once any item has been evicted, i.e. weights may be overestimated. */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * The {@code k} heaviest items, heaviest first, using a k-sized min-heap.
+     *
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    public List<Map.Entry<String, Double>> top(int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive: " + k);
+        PriorityQueue<Map.Entry<String, Double>> heap = new PriorityQueue<>(k, Map.Entry.comparingByValue());
+        for (Map.Entry<String, double[]> e : counters.entrySet()) {
+            heap.offer(Map.entry(e.getKey(), e.getValue()[0]));
+            if (heap.size() > k) heap.poll();
+        }
+        List<Map.Entry<String, Double>> result = new ArrayList<>(heap);
+        result.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        return result;
+    }
+
+    private void add(String item, double weight, double error) {
+        double[] counter = counters.get(item);
+        if (counter != null) {
+            counter[0] += weight;
+            counter[1] += error;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new double[]{weight, error});
+            return;
+        }
+
+        // Space-Saving: replace the smallest counter, which bounds the new item's overestimate
+        String minItem = null;
+        double minWeight = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> e : counters.entrySet()) {
+            if (e.getValue()[0] < minWeight) {
+                minWeight = e.getValue()[0];
+                minItem = e.getKey();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, new double[]{minWeight + weight, minWeight + error});
+        approximate = true;
+    }
+
+    private double minWeight() {
+        double min = Double.MAX_VALUE;
+        for (double[] counter : counters.values()) min = Math.min(min, counter[0]);
+        return counters.isEmpty() ? 0 : min;
+    }
+}
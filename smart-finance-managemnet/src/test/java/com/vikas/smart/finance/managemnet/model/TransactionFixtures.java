@@ -0,0 +1,22 @@
+package com.vikas.smart.finance.managemnet.model;
+
+import java.time.LocalDate;
+
+/** Transactions for tests; fields a test does not exercise may be null. */
+public final class TransactionFixtures {
+
+	private TransactionFixtures() {
+	}
+
+	public static Transaction transaction(String userId, String id, String vendor, String category,
+			LocalDate date, double amount) {
+		Transaction t = new Transaction();
+		t.setUserId(userId);
+		t.setTransactionId(id);
+		t.setVendor(vendor);
+		t.setCategory(category);
+		t.setDate(date);
+		t.setAmount(amount);
+		return t;
+	}
+}
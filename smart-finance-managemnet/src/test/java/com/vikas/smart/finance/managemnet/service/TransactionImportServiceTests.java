@@ -0,0 +1,56 @@
+package com.vikas.smart.finance.managemnet.service;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionImportServiceTests {
+
+	@Test
+	void decimalSeparatorIsLearnedFromTheFile() {
+		TransactionImportService.AmountFormat us = new TransactionImportService.AmountFormat();
+		assertEquals(1234.5, us.parse("$1,234.50"));
+		assertEquals(1234.0, us.parse("1,234"));
+		assertThrows(IllegalArgumentException.class, () -> us.parse("12,50"));
+
+		TransactionImportService.AmountFormat eu = new TransactionImportService.AmountFormat();
+		assertEquals(12.5, eu.parse("12,50"));
+		assertEquals(1234.5, eu.parse("1.234,50 €"));
+		assertEquals(1.5, eu.parse("1,5"));
+	}
+
+	@Test
+	void ambiguousAmountsAreRejectedUntilTheSeparatorIsKnown() {
+		TransactionImportService.AmountFormat format = new TransactionImportService.AmountFormat();
+		assertThrows(IllegalArgumentException.class, () -> format.parse("1,234"));
+		assertThrows(IllegalArgumentException.class, () -> format.parse("1.234"));
+		assertEquals(42.0, format.parse("42"));
+	}
+
+	@Test
+	void creditsKeepTheirSign() {
+		TransactionImportService.AmountFormat format = new TransactionImportService.AmountFormat();
+		assertEquals(-12.0, format.parse("-12.00"));
+		assertEquals(-12.0, format.parse("(12.00)"));
+		assertEquals(12.0, format.parse("12.00"));
+		assertThrows(IllegalArgumentException.class, () -> format.parse("0.00"));
+		assertThrows(IllegalArgumentException.class, () -> format.parse("12 USD"));
+	}
+
+	@Test
+	void identicalChargesGetDistinctStableIds() {
+		Transaction coffee = new Transaction();
+		coffee.setUserId("user1");
+		coffee.setVendor("Cafe");
+		coffee.setDate(LocalDate.of(2026, 10, 1));
+		coffee.setAmount(3.5);
+
+		String first = TransactionImportService.contentId(coffee, 1);
+		String second = TransactionImportService.contentId(coffee, 2);
+		assertNotEquals(first, second);
+		assertEquals(first, TransactionImportService.contentId(coffee, 1));
+	}
+}
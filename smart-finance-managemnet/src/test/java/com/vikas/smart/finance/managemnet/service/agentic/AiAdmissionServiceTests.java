@@ -0,0 +1,82 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.vikas.smart.finance.managemnet.config.AiLimitsProperties;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiAdmissionServiceTests {
+
+	@Test
+	void bucketAllowsBurstThenRejects() {
+		AiAdmissionService.TokenBucket bucket = new AiAdmissionService.TokenBucket(3, 1);
+		assertEquals(0, bucket.tryTake());
+		assertEquals(0, bucket.tryTake());
+		assertEquals(0, bucket.tryTake());
+
+		long wait = bucket.tryTake();
+		// One token a minute, almost a whole one still missing
+		assertTrue(wait > 59_000_000_000L && wait <= 60_000_000_000L);
+		assertFalse(bucket.isFull());
+	}
+
+	@Test
+	void bucketRefillsOverTime() throws Exception {
+		AiAdmissionService.TokenBucket bucket = new AiAdmissionService.TokenBucket(2, 60_000);   // one per ms
+		assertEquals(0, bucket.tryTake());
+		assertEquals(0, bucket.tryTake());
+		Thread.sleep(20);
+
+		assertTrue(bucket.isFull());
+		assertEquals(0, bucket.tryTake());
+	}
+
+	@Test
+	void bucketWithoutRefillNeverReopens() {
+		AiAdmissionService.TokenBucket bucket = new AiAdmissionService.TokenBucket(1, 0);
+		assertEquals(0, bucket.tryTake());
+		assertEquals(Long.MAX_VALUE, bucket.tryTake());
+	}
+
+	@Test
+	void limitsAreTrackedPerUserAndEndpoint() {
+		AiAdmissionService admission = admission(2, 1);
+		admission.admit("user1", AiAdmissionService.EndpointClass.CHAT);
+		admission.admit("user1", AiAdmissionService.EndpointClass.CHAT);
+
+		AiAdmissionService.OverloadedException e = assertThrows(AiAdmissionService.OverloadedException.class,
+				() -> admission.admit("user1", AiAdmissionService.EndpointClass.CHAT));
+		assertEquals("rate_limited", e.getReason());
+		assertEquals(60, e.getRetryAfterSeconds());
+
+		admission.admit("user2", AiAdmissionService.EndpointClass.CHAT);
+		admission.admit("user1", AiAdmissionService.EndpointClass.REPORT);
+		admission.shutdown();
+	}
+
+	@Test
+	void sweepDropsOnlyRefilledBuckets() throws Exception {
+		AiAdmissionService admission = admission(1, 60_000);
+		admission.admit("fast", AiAdmissionService.EndpointClass.CHAT);
+		admission.admit("slow", AiAdmissionService.EndpointClass.REPORT);
+		assertEquals(2, admission.bucketCount());
+		Thread.sleep(20);
+
+		admission.sweep();
+		// The report bucket never refills, so it still holds state
+		assertEquals(1, admission.bucketCount());
+		assertThrows(AiAdmissionService.OverloadedException.class,
+				() -> admission.admit("slow", AiAdmissionService.EndpointClass.REPORT));
+		admission.admit("fast", AiAdmissionService.EndpointClass.CHAT);
+		admission.shutdown();
+	}
+
+	private static AiAdmissionService admission(int chatCapacity, double chatRefillPerMinute) {
+		AiLimitsProperties limits = new AiLimitsProperties();
+		limits.setChat(new AiLimitsProperties.Bucket(chatCapacity, chatRefillPerMinute));
+		limits.setReport(new AiLimitsProperties.Bucket(1, 0));
+		return new AiAdmissionService(limits, new FinanceMetrics(new SimpleMeterRegistry()));
+	}
+}
@@ -0,0 +1,137 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import com.vikas.smart.finance.managemnet.config.AiLimitsProperties;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairBedrockSchedulerTests {
+
+	@Test
+	void weightedRoundRobinOrder() throws Exception {
+		AiLimitsProperties limits = limits(1, 200, 4, Duration.ofSeconds(10));
+		limits.setUserWeights(Map.of("a", 2));
+		FairBedrockScheduler scheduler = new FairBedrockScheduler(limits, new FinanceMetrics(new SimpleMeterRegistry()));
+
+		CountDownLatch hold = new CountDownLatch(1);
+		Thread holder = start(() -> scheduler.call("holder", () -> await(hold)));
+		awaitUntil(() -> scheduler.inFlight() == 1);
+
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> callers = new ArrayList<>();
+		for (String user : List.of("a", "a", "a", "b", "b", "b")) {
+			int queued = scheduler.depth();
+			callers.add(start(() -> scheduler.call(user, () -> order.add(user))));
+			awaitUntil(() -> scheduler.depth() == queued + 1);
+		}
+
+		hold.countDown();
+		holder.join();
+		for (Thread caller : callers) caller.join();
+
+		// a takes two turns per round, b one, until a runs out
+		assertEquals(List.of("a", "a", "b", "a", "b", "b"), order);
+		assertEquals(0, scheduler.depth());
+		assertEquals(0, scheduler.inFlight());
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() throws Exception {
+		FairBedrockScheduler scheduler = new FairBedrockScheduler(limits(1, 2, 1, Duration.ofSeconds(10)),
+				new FinanceMetrics(new SimpleMeterRegistry()));
+
+		CountDownLatch hold = new CountDownLatch(1);
+		Thread holder = start(() -> scheduler.call("holder", () -> await(hold)));
+		awaitUntil(() -> scheduler.inFlight() == 1);
+		Thread a = start(() -> scheduler.call("a", () -> true));
+		awaitUntil(() -> scheduler.depth() == 1);
+
+		AiAdmissionService.OverloadedException perUser = assertThrows(AiAdmissionService.OverloadedException.class,
+				() -> scheduler.call("a", () -> true));
+		assertEquals("queue_full", perUser.getReason());
+
+		Thread b = start(() -> scheduler.call("b", () -> true));
+		awaitUntil(() -> scheduler.depth() == 2);
+		AiAdmissionService.OverloadedException global = assertThrows(AiAdmissionService.OverloadedException.class,
+				() -> scheduler.call("c", () -> true));
+		assertEquals("queue_full", global.getReason());
+
+		hold.countDown();
+		holder.join();
+		a.join();
+		b.join();
+		assertEquals(0, scheduler.depth());
+		assertEquals(0, scheduler.inFlight());
+	}
+
+	@Test
+	void grantRacingTimeoutNeverLeaksASlot() throws Exception {
+		FairBedrockScheduler scheduler = new FairBedrockScheduler(limits(1, 200, 4, Duration.ofNanos(200_000)),
+				new FinanceMetrics(new SimpleMeterRegistry()));
+
+		AtomicInteger ran = new AtomicInteger();
+		AtomicInteger timedOut = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			String user = "user" + t;
+			threads.add(start(() -> {
+				for (int i = 0; i < 300; i++) {
+					try {
+						scheduler.call(user, ran::incrementAndGet);
+					} catch (AiAdmissionService.OverloadedException e) {
+						assertEquals("queue_timeout", e.getReason());
+						timedOut.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) thread.join();
+
+		assertEquals(8 * 300, ran.get() + timedOut.get());
+		assertEquals(0, scheduler.depth());
+		assertEquals(0, scheduler.inFlight());
+		assertEquals("ok", scheduler.call("after", () -> "ok"));
+	}
+
+	private static AiLimitsProperties limits(int maxConcurrent, int maxQueued, int maxQueuedPerUser, Duration maxWait) {
+		AiLimitsProperties limits = new AiLimitsProperties();
+		limits.setMaxConcurrent(maxConcurrent);
+		limits.setMaxQueued(maxQueued);
+		limits.setMaxQueuedPerUser(maxQueuedPerUser);
+		limits.setMaxQueueWait(maxWait);
+		return limits;
+	}
+
+	private static Thread start(Runnable work) {
+		Thread thread = new Thread(work);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(10, java.util.concurrent.TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void awaitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not reached");
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.vikas.smart.finance.managemnet.service.agentic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionCacheTests {
+
+	@Test
+	void rephrasedQuestionHitsSameVersion() {
+		QuestionCache cache = new QuestionCache();
+		cache.put("user1", 3, "How's my spending?", "answer");
+
+		assertEquals("answer", cache.lookup("user1", 3, "how is my spending"));
+		assertEquals("answer", cache.lookup("user1", 3, "  HOW IS MY SPENDING!! "));
+		assertNull(cache.lookup("user1", 4, "how is my spending"));
+		assertNull(cache.lookup("user2", 3, "how is my spending"));
+	}
+
+	@Test
+	void differentQuestionMisses() {
+		QuestionCache cache = new QuestionCache();
+		cache.put("user1", 1, "how can I cut my grocery spending this month", "groceries");
+
+		assertNull(cache.lookup("user1", 1, "how can I cut my dining spending this month"));
+		assertNull(cache.lookup("user1", 1, "what is my budget"));
+	}
+
+	@Test
+	void newVersionReplacesOldEntries() {
+		QuestionCache cache = new QuestionCache();
+		cache.put("user1", 1, "am I over budget", "old");
+		cache.put("user1", 2, "am I over budget", "new");
+
+		assertEquals("new", cache.lookup("user1", 2, "am i over budget?"));
+		assertNull(cache.lookup("user1", 1, "am I over budget"));
+	}
+
+	@Test
+	void jaccardOfSortedShingles() {
+		long[] a = QuestionCache.shingles("how is my spending");
+		long[] b = QuestionCache.shingles("how's my spending");
+		assertEquals(1.0, QuestionCache.jaccard(a, b));
+		assertTrue(QuestionCache.jaccard(a, QuestionCache.shingles("show my budget")) < QuestionCache.THRESHOLD);
+	}
+}
@@ -0,0 +1,100 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Budget;
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetThresholdTrackerTests {
+
+	private static Transaction transaction(String id, String category, double amount) {
+		return TransactionFixtures.transaction("user1", id, null, category, LocalDate.of(2026, 10, 1), amount);
+	}
+
+	private static Budget budget(String category, double amount) {
+		Budget b = new Budget();
+		b.setUserId("user1");
+		b.setCategory(category);
+		b.setAmount(amount);
+		return b;
+	}
+
+	private static Insight add(BudgetThresholdTracker.UserBudgets user, Transaction t) {
+		BudgetThresholdTracker.CategoryState state = user.category(t.getCategory());
+		state.spent += t.getAmount();
+		return BudgetThresholdTracker.evaluate("user1", t.getCategory(), state);
+	}
+
+	@Test
+	void alertsOnceOnEachUpwardCrossing() {
+		BudgetThresholdTracker.UserBudgets user = BudgetThresholdTracker.build(
+				List.of(transaction("t1", "Food", 50)), Map.of(), List.of(budget("Food", 100)), Map.of(), List.of());
+		assertEquals(BudgetThresholdTracker.Level.OK, user.category("Food").level);
+
+		assertNull(add(user, transaction("t2", "Food", 20)));
+		Insight warning = add(user, transaction("t3", "Food", 10));
+		assertEquals("Budget Warning", warning.getType());
+		assertNull(add(user, transaction("t4", "Food", 5)));
+		Insight exceeded = add(user, transaction("t5", "Food", 20));
+		assertEquals("Budget Exceeded", exceeded.getType());
+		assertNull(add(user, transaction("t6", "Food", 50)));
+	}
+
+	@Test
+	void alreadyAlertedOverspendStaysQuiet() {
+		BudgetThresholdTracker.UserBudgets user = BudgetThresholdTracker.build(
+				List.of(transaction("t1", "Food", 80)), Map.of("Food", 30.0), List.of(budget("Food", 100)),
+				Map.of("Food", BudgetThresholdTracker.Level.EXCEEDED), List.of());
+		assertEquals(110.0, user.category("Food").spent);
+		assertEquals(BudgetThresholdTracker.Level.EXCEEDED, user.category("Food").level);
+		assertNull(add(user, transaction("t2", "Food", 1)));
+	}
+
+	@Test
+	void overspendLoadedWithoutAnAlertAlertsOnce() {
+		// e.g. a CSV import, or spend already past the budget when the app started
+		BudgetThresholdTracker.UserBudgets user = BudgetThresholdTracker.build(
+				List.of(transaction("t1", "Food", 120)), Map.of(), List.of(budget("Food", 100), budget("Rent", 1000)),
+				Map.of("Rent", BudgetThresholdTracker.Level.WARNING), List.of());
+
+		BudgetThresholdTracker.CategoryState food = user.category("Food");
+		assertEquals("Budget Exceeded", BudgetThresholdTracker.evaluate("user1", "Food", food).getType());
+		assertNull(BudgetThresholdTracker.evaluate("user1", "Food", food));
+		// Rent fell back under its warning level: no alert, and a new crossing alerts again
+		BudgetThresholdTracker.CategoryState rent = user.category("Rent");
+		assertNull(BudgetThresholdTracker.evaluate("user1", "Rent", rent));
+		assertEquals(BudgetThresholdTracker.Level.OK, rent.level);
+		assertEquals("Budget Warning", add(user, transaction("t2", "Rent", 800)).getType());
+	}
+
+	@Test
+	void writesRecordedDuringTheLoadAreCountedOnceAndStillAlert() {
+		Transaction seen = transaction("t2", "Food", 10);
+		Transaction unseen = transaction("t3", "Food", 10);
+		// The query returned t2 but not t3; both were recorded while it ran
+		BudgetThresholdTracker.UserBudgets user = BudgetThresholdTracker.build(
+				List.of(transaction("t1", "Food", 60), seen), Map.of(), List.of(budget("Food", 100)),
+				Map.of(), List.of(seen, unseen));
+
+		BudgetThresholdTracker.CategoryState food = user.category("Food");
+		assertEquals(80.0, food.spent);
+		assertEquals(BudgetThresholdTracker.Level.OK, food.level);
+		Insight warning = BudgetThresholdTracker.evaluate("user1", "Food", food);
+		assertEquals("Budget Warning", warning.getType());
+		assertNull(BudgetThresholdTracker.evaluate("user1", "Food", food));
+	}
+
+	@Test
+	void unbudgetedCategoriesNeverAlert() {
+		assertEquals(BudgetThresholdTracker.Level.OK, BudgetThresholdTracker.level(1_000_000, 0));
+		assertEquals(BudgetThresholdTracker.Level.WARNING, BudgetThresholdTracker.level(75, 100));
+		assertEquals(BudgetThresholdTracker.Level.EXCEEDED, BudgetThresholdTracker.level(100, 100));
+	}
+}
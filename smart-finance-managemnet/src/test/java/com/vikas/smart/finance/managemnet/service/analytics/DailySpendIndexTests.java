@@ -0,0 +1,90 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailySpendIndexTests {
+
+	private static final LocalDate START = LocalDate.of(2026, 9, 28);
+
+	private static Transaction transaction(String category, LocalDate date, double amount) {
+		return TransactionFixtures.transaction("user1", category + date + amount, null, category, date, amount);
+	}
+
+	@Test
+	void rangeTotalsMatchDailySums() {
+		DailySpendIndex.UserIndex index = DailySpendIndex.build(List.of(
+				transaction("Food", START.plusDays(3), 12.5),
+				transaction("Food", START, 10.0),
+				transaction("Rent", START.plusDays(3), 800.0),
+				transaction("Food", START.plusDays(10), 7.5)));
+
+		assertEquals(822.5, index.sum("", START, START.plusDays(5)));
+		assertEquals(2, index.count("Food", START, START.plusDays(5)));
+		assertEquals(Map.of("Food", 7.5), index.categoryTotals(START.plusDays(4), START.plusDays(30)));
+		assertEquals(0.0, index.sum("", START.minusDays(30), START.minusDays(1)));
+	}
+
+	@Test
+	void backDatedWriteUpdatesLaterRanges() {
+		DailySpendIndex.UserIndex index = DailySpendIndex.build(List.of(
+				transaction("Food", START, 10.0),
+				transaction("Food", START.plusDays(20), 5.0)));
+
+		assertTrue(index.add(transaction("Food", START.plusDays(2), 3.0)));
+		assertTrue(index.add(transaction("Travel", START.plusDays(40), 100.0)));
+
+		assertEquals(13.0, index.sum("Food", START, START.plusDays(19)));
+		assertEquals(118.0, index.sum("", START, START.plusDays(40)));
+		assertTrue(index.add(transaction("Food", START.minusDays(1), 1.0)));
+		assertEquals(14.0, index.sum("Food", START.minusDays(1), START.plusDays(19)));
+
+		// Chunks ahead of the indexed run
+		assertTrue(index.add(transaction("Food", START.minusDays(200), 2.0)));
+		assertEquals(16.0, index.sum("Food", START.minusDays(200), START.plusDays(19)));
+		assertEquals(14.0, index.sum("Food", START.minusDays(199), START.plusDays(19)));
+		assertEquals(6, index.count("", START.minusDays(200), START.plusDays(40)));
+	}
+
+	@Test
+	void datesOutsideTheWindowAreSkipped() {
+		DailySpendIndex.UserIndex index = DailySpendIndex.build(List.of(transaction("Food", START, 10.0)));
+
+		assertFalse(index.add(transaction("Food", LocalDate.of(9999, 12, 31), 1e9)));
+		assertFalse(index.add(transaction("Food", LocalDate.of(1, 1, 1), 1e9)));
+		assertTrue(index.add(transaction("Food", DailySpendIndex.LATEST, 5.0)));
+		assertEquals(15.0, index.sum("Food", LocalDate.MIN, LocalDate.MAX));
+	}
+
+	@Test
+	void rangesSpanChunksAndGaps() {
+		DailySpendIndex.UserIndex index = DailySpendIndex.build(List.of(
+				transaction("Food", LocalDate.of(1999, 12, 31), 1.0),
+				transaction("Food", START, 2.0),
+				transaction("Food", START.plusDays(DailySpendIndex.Series.CHUNK_DAYS), 4.0)));
+
+		assertEquals(7.0, index.sum("Food", LocalDate.of(1999, 12, 31), START.plusDays(200)));
+		assertEquals(6.0, index.sum("Food", START, START.plusDays(DailySpendIndex.Series.CHUNK_DAYS)));
+		assertEquals(2, index.count("", START.minusDays(1), START.plusDays(DailySpendIndex.Series.CHUNK_DAYS)));
+		assertEquals(0.0, index.sum("Food", START.plusDays(1), START.plusDays(DailySpendIndex.Series.CHUNK_DAYS - 1)));
+		assertEquals(0.0, index.sum("Food", START, START.minusDays(1)));
+	}
+
+	@Test
+	void writesRecordedDuringTheBuildAreCountedOnce() {
+		Transaction seen = transaction("Food", START.plusDays(1), 4.0);
+		Transaction unseen = transaction("Food", START.minusDays(2), 6.0);
+		DailySpendIndex.UserIndex index = DailySpendIndex.build(
+				List.of(transaction("Food", START, 10.0), seen), List.of(), List.of(seen, unseen));
+
+		assertEquals(20.0, index.sum("Food", START.minusDays(5), START.plusDays(5)));
+		assertEquals(3, index.count("", START.minusDays(5), START.plusDays(5)));
+	}
+}
@@ -0,0 +1,98 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import com.vikas.smart.finance.managemnet.model.VendorRecurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceDetectorTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+	@Test
+	void monthlyFixedChargeIsSubscriptionWithNextDate() {
+		VendorRecurrence state = RecurrenceDetector.newState("user1", "Netflix");
+		for (int i = 4; i >= 1; i--) {
+			RecurrenceDetector.update(state, TODAY.minusMonths(i).withDayOfMonth(5), 15.99);
+		}
+
+		RecurrenceDetector.RecurringPayment payment = RecurrenceDetector.classify(state, TODAY);
+
+		assertNotNull(payment);
+		assertEquals(RecurrenceDetector.Period.MONTHLY, payment.period());
+		assertTrue(payment.subscription());
+		assertEquals(LocalDate.of(2026, 11, 5), payment.nextChargeDate());
+		assertEquals(15.99, payment.expectedAmount());
+	}
+
+	@Test
+	void irregularVendorIsNotRecurring() {
+		VendorRecurrence state = RecurrenceDetector.newState("user1", "Amazon");
+		RecurrenceDetector.update(state, TODAY.minusDays(40), 120.0);
+		RecurrenceDetector.update(state, TODAY.minusDays(38), 15.0);
+		RecurrenceDetector.update(state, TODAY.minusDays(20), 310.0);
+		RecurrenceDetector.update(state, TODAY.minusDays(3), 42.0);
+
+		assertNull(RecurrenceDetector.classify(state, TODAY));
+	}
+
+	@Test
+	void lapsedSubscriptionIsDropped() {
+		VendorRecurrence state = RecurrenceDetector.newState("user1", "Spotify");
+		for (int i = 9; i >= 6; i--) {
+			RecurrenceDetector.update(state, TODAY.minusMonths(i), 9.99);
+		}
+
+		assertNull(RecurrenceDetector.classify(state, TODAY));
+	}
+
+	@Test
+	void lateChargeAddsNoGapAndIsRebuiltInDateOrder() {
+		VendorRecurrence state = RecurrenceDetector.newState("user1", "Netflix");
+		RecurrenceDetector.update(state, TODAY.minusMonths(4).withDayOfMonth(5), 15.99);
+		RecurrenceDetector.update(state, TODAY.minusMonths(2).withDayOfMonth(5), 15.99);
+		RecurrenceDetector.update(state, TODAY.minusMonths(1).withDayOfMonth(5), 15.99);
+		RecurrenceDetector.update(state, TODAY.minusMonths(3).withDayOfMonth(5), 15.99);
+
+		assertTrue(state.isNeedsRebuild());
+		assertEquals(2, state.getIntervalHistogram().stream().mapToInt(Integer::intValue).sum());
+
+		List<Transaction> history = new ArrayList<>();
+		for (int i : new int[]{4, 2, 1, 3}) {
+			history.add(transaction("Netflix", TODAY.minusMonths(i).withDayOfMonth(5), 15.99));
+		}
+		VendorRecurrence rebuilt = RecurrenceDetector.rebuild("user1", history, "Netflix").get("Netflix");
+
+		assertFalse(rebuilt.isNeedsRebuild());
+		assertEquals(3, (int) rebuilt.getIntervalHistogram().get(RecurrenceDetector.Period.MONTHLY.ordinal()));
+		assertEquals(RecurrenceDetector.Period.MONTHLY, RecurrenceDetector.classify(rebuilt, TODAY).period());
+	}
+
+	@Test
+	void rebuildingAVendorAfterADeleteDropsTheDeletedCharge() {
+		List<Transaction> history = new ArrayList<>();
+		for (int i = 4; i >= 1; i--) {
+			history.add(transaction("Netflix", TODAY.minusMonths(i).withDayOfMonth(5), 15.99));
+		}
+		history.add(transaction("Cafe", TODAY.minusDays(2), 4.5));
+		history.add(transaction(null, TODAY.minusDays(1), 9.0));
+		history.remove(1);
+
+		Map<String, VendorRecurrence> rebuilt = RecurrenceDetector.rebuild("user1", history, "Netflix");
+
+		assertEquals(List.of("Netflix"), List.copyOf(rebuilt.keySet()));
+		assertEquals(3, rebuilt.get("Netflix").getCount());
+		assertEquals(2, RecurrenceDetector.rebuild("user1", history, null).size());
+	}
+
+	private static Transaction transaction(String vendor, LocalDate date, double amount) {
+		return TransactionFixtures.transaction("user1", vendor + date, vendor, null, date, amount);
+	}
+}
@@ -0,0 +1,126 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Insight;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendingAnomalyDetectorTests {
+
+	// All on one weekday, so the day-of-week factor stays at 1
+	private static final LocalDate MONDAY = LocalDate.of(2026, 10, 5);
+	private static final double[] BASELINE = {50, 52, 48, 51, 49, 50, 52, 48};
+
+	private static Transaction transaction(String userId, String category, double amount) {
+		return TransactionFixtures.transaction(userId, category + amount, "Corner Shop", category, MONDAY, amount);
+	}
+
+	/** A detector for users without stored history. */
+	private static SpendingAnomalyDetector detector() {
+		return new SpendingAnomalyDetector(userId -> List.of());
+	}
+
+	private static void baseline(SpendingAnomalyDetector detector, String userId, String category) {
+		for (double amount : BASELINE) {
+			assertNull(detector.observe(transaction(userId, category, amount)));
+		}
+	}
+
+	@Test
+	void spikeOverBaselineRaisesInsight() {
+		SpendingAnomalyDetector detector = detector();
+		baseline(detector, "user1", "Food");
+
+		Insight insight = detector.observe(transaction("user1", "Food", 200));
+		assertNotNull(insight);
+		assertEquals("Unusual Spend", insight.getType());
+		assertEquals("Food", insight.getSubject());
+		assertEquals("user1", insight.getUserId());
+		assertTrue(insight.getMessage().contains("Corner Shop"));
+	}
+
+	@Test
+	void deviationWithinThresholdIsIgnored() {
+		SpendingAnomalyDetector detector = detector();
+		baseline(detector, "user1", "Food");
+
+		assertNull(detector.observe(transaction("user1", "Food", 53)));
+		assertNull(detector.observe(transaction("user1", "Food", 30)));   // only spikes upward alert
+	}
+
+	@Test
+	void smallAbsoluteExcessIsIgnored() {
+		SpendingAnomalyDetector detector = detector();
+		for (double amount : new double[]{5, 5.5, 4.5, 5, 5.5, 4.5, 5, 5}) {
+			assertNull(detector.observe(transaction("user1", "Coffee", amount)));
+		}
+		// Many standard deviations out, but under 20 above the typical spend
+		assertNull(detector.observe(transaction("user1", "Coffee", 20)));
+	}
+
+	@Test
+	void noAlertsDuringWarmup() {
+		SpendingAnomalyDetector detector = detector();
+		assertNull(detector.observe(transaction("user1", "Food", 50)));
+		assertNull(detector.observe(transaction("user1", "Food", 52)));
+		assertNull(detector.observe(transaction("user1", "Food", 48)));
+		assertNull(detector.observe(transaction("user1", "Food", 51)));
+		assertNull(detector.observe(transaction("user1", "Food", 1000)));
+
+		// A fresh category warms up on its own, whatever the user's other history
+		baseline(detector, "user1", "Food");
+		assertNull(detector.observe(transaction("user1", "Travel", 50)));
+		assertNull(detector.observe(transaction("user1", "Travel", 5000)));
+	}
+
+	@Test
+	void clippedSpikeDoesNotMaskTheNext() {
+		SpendingAnomalyDetector detector = detector();
+		baseline(detector, "user1", "Food");
+
+		assertNotNull(detector.observe(transaction("user1", "Food", 200)));
+		assertNotNull(detector.observe(transaction("user1", "Food", 200)));
+	}
+
+	@Test
+	void profilesAreSeparatePerUserAndResettable() {
+		SpendingAnomalyDetector detector = detector();
+		baseline(detector, "user1", "Food");
+
+		assertNull(detector.observe(transaction("user2", "Food", 200)));
+		detector.reset("user1");
+		assertNull(detector.observe(transaction("user1", "Food", 200)));
+	}
+
+	@Test
+	void profileIsSeededFromStoredHistory() {
+		List<Transaction> history = new ArrayList<>();
+		for (int i = 0; i < BASELINE.length; i++) {
+			Transaction t = transaction("user1", "Food", BASELINE[i]);
+			t.setTransactionId("stored-" + i);
+			history.add(t);
+		}
+		SpendingAnomalyDetector detector = new SpendingAnomalyDetector(userId -> history);
+
+		// The first write after a restart is scored against the stored baseline
+		assertNotNull(detector.observe(transaction("user1", "Food", 200)));
+	}
+
+	@Test
+	void rowsWithoutCategoryOrDateAreSkipped() {
+		SpendingAnomalyDetector detector = detector();
+		baseline(detector, "user1", "Food");
+
+		Transaction uncategorized = transaction("user1", null, 200);
+		assertNull(detector.observe(uncategorized));
+		Transaction undated = transaction("user1", "Food", 200);
+		undated.setDate(null);
+		assertNull(detector.observe(undated));
+	}
+}
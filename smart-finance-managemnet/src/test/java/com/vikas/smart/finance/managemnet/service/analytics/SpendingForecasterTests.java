@@ -0,0 +1,89 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendingForecasterTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 15);
+
+	private static Transaction transaction(String vendor, String category, LocalDate date, double amount) {
+		return TransactionFixtures.transaction("user1", vendor + date, vendor, category, date, amount);
+	}
+
+	@Test
+	void steadyRunRateProjectsToMonthEnd() {
+		List<Transaction> history = new ArrayList<>();
+		for (LocalDate d = TODAY.withDayOfMonth(1); !d.isAfter(TODAY); d = d.plusDays(1)) {
+			history.add(transaction("Cafe", "Food", d, 10.0));
+		}
+
+		SpendingForecaster.CategoryForecast food = SpendingForecaster.build(history, List.of(), TODAY)
+				.forecast(TODAY, Map.of("Food", 250.0)).get(0);
+
+		assertEquals(150.0, food.spentToDate());
+		assertEquals(310.0, food.projected());
+		assertTrue(food.overspendProbability() > 0.99);
+	}
+
+	@Test
+	void rowDatedLaterThisMonthIsCommittedSpend() {
+		List<Transaction> history = new ArrayList<>();
+		for (LocalDate d = TODAY.withDayOfMonth(1); !d.isAfter(TODAY); d = d.plusDays(1)) {
+			history.add(transaction("Cafe", "Food", d, 10.0));
+		}
+		history.add(transaction("Caterer", "Food", TODAY.plusDays(10), 100.0));
+
+		SpendingForecaster.CategoryForecast food = SpendingForecaster.build(history, List.of(), TODAY)
+				.forecast(TODAY, Map.of()).get(0);
+
+		assertEquals(150.0, food.spentToDate());
+		assertEquals(410.0, food.projected());
+		assertEquals(410.0, food.low95());
+	}
+
+	@Test
+	void upcomingRecurringChargeIsAddedOnce() {
+		List<Transaction> history = new ArrayList<>();
+		for (int m = 3; m >= 1; m--) {
+			history.add(transaction("Netflix", "Entertainment", TODAY.minusMonths(m).withDayOfMonth(20), 15.99));
+		}
+		List<RecurrenceDetector.RecurringPayment> recurring = List.of(new RecurrenceDetector.RecurringPayment(
+				"Netflix", RecurrenceDetector.Period.MONTHLY, true, TODAY.withDayOfMonth(20), 15.99, 3));
+
+		SpendingForecaster.CategoryForecast entertainment = SpendingForecaster.build(history, recurring, TODAY)
+				.forecast(TODAY, Map.of()).get(0);
+
+		assertEquals(15.99, entertainment.recurringRemaining());
+		assertEquals(15.99, entertainment.projected());
+		assertEquals(15.99, entertainment.low95());
+	}
+
+	@Test
+	void normalCdfMatchesTable() {
+		assertEquals(0.5, SpendingForecaster.normalCdf(0), 1e-6);
+		assertEquals(0.975, SpendingForecaster.normalCdf(1.96), 1e-4);
+		assertEquals(0.1587, SpendingForecaster.normalCdf(-1), 1e-4);
+	}
+
+	@Test
+	void savesRecordedDuringTheReadReplaceTheRowsTheyRewrote() {
+		Transaction stored = transaction("Cafe", "Food", TODAY, 10.0);
+		Transaction edited = transaction("Cafe", "Food", TODAY, 25.0);
+		Transaction added = transaction("Grocer", "Food", TODAY, 5.0);
+
+		List<Transaction> merged = SpendingForecaster.withRaced(List.of(stored), List.of(edited, added));
+
+		assertEquals(2, merged.size());
+		assertEquals(30.0, SpendingForecaster.build(merged, List.of(), TODAY)
+				.forecast(TODAY, Map.of()).get(0).spentToDate());
+	}
+}
@@ -0,0 +1,98 @@
+package com.vikas.smart.finance.managemnet.service.analytics;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserStateCacheTests {
+
+	private static Transaction transaction(String id) {
+		return TransactionFixtures.transaction("user1", id, null, null, null, 0);
+	}
+
+	@Test
+	void writeDuringLoadIsHandedToTheBuild() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger fetches = new AtomicInteger();
+		UserStateCache<List<String>, List<String>> cache = new UserStateCache<>(userId -> {
+			fetches.incrementAndGet();
+			fetching.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return List.of("t1");
+		}, (history, raced) -> {
+			List<String> ids = new ArrayList<>(history);
+			raced.forEach(t -> ids.add(t.getTransactionId()));
+			return ids;
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<List<String>> reader = pool.submit(() -> cache.get("user1"));
+			assertTrue(fetching.await(5, TimeUnit.SECONDS));
+			Future<UserStateCache.Recorded<List<String>>> writer = pool.submit(() -> cache.record("user1", transaction("t2"), false));
+			Thread.sleep(50);
+			release.countDown();
+
+			assertEquals(List.of("t1", "t2"), reader.get(5, TimeUnit.SECONDS));
+			UserStateCache.Recorded<List<String>> recorded = writer.get(5, TimeUnit.SECONDS);
+			assertTrue(recorded.applied());
+			assertSame(reader.get(), recorded.state());
+			assertEquals(1, fetches.get());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		UserStateCache.Recorded<List<String>> later = cache.record("user1", transaction("t3"), false);
+		assertFalse(later.applied());
+	}
+
+	@Test
+	void unloadedUserIsSkippedUnlessAskedToLoad() {
+		UserStateCache<String, List<Transaction>> cache = new UserStateCache<>(userId -> userId, (h, raced) -> raced);
+		assertNull(cache.record("user1", transaction("t1"), false));
+		assertNull(cache.getIfLoaded("user1"));
+
+		UserStateCache.Recorded<List<Transaction>> recorded = cache.record("user1", transaction("t2"), true);
+		assertTrue(recorded.applied());
+		assertEquals(1, recorded.state().size());
+		cache.invalidate("user1");
+		assertNull(cache.getIfLoaded("user1"));
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		AtomicInteger calls = new AtomicInteger();
+		UserStateCache<String, String> cache = new UserStateCache<>(userId -> {
+			if (calls.incrementAndGet() == 1) throw new IllegalStateException("down");
+			return "ok";
+		}, (h, raced) -> h);
+		assertThrows(IllegalStateException.class, () -> cache.get("user1"));
+		assertEquals("ok", cache.get("user1"));
+	}
+
+	@Test
+	void dropsTheLeastRecentlyUsedBeyondTheLimit() throws Exception {
+		UserStateCache<String, String> cache = new UserStateCache<>(userId -> userId, (h, raced) -> h, 10);
+		for (int i = 0; i < 10; i++) cache.get("user" + i);
+		Thread.sleep(1);
+		cache.get("user0");
+		cache.get("user10");
+
+		assertTrue(cache.size() <= 10);
+		assertNotNull(cache.getIfLoaded("user0"));
+		assertNotNull(cache.getIfLoaded("user10"));
+		assertNull(cache.getIfLoaded("user1"));
+	}
+}
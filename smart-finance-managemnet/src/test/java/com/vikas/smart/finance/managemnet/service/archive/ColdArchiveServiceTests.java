@@ -0,0 +1,95 @@
+package com.vikas.smart.finance.managemnet.service.archive;
+
+import com.vikas.smart.finance.managemnet.config.ArchiveProperties;
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import com.vikas.smart.finance.managemnet.service.FinanceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColdArchiveServiceTests {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+	@Test
+	void deletesAreLoggedThenCompactedInOneRewrite() throws IOException {
+		Path dir = Files.createTempDirectory("archive");
+		Path segment = writeSegment(dir, "user1", 300);
+		ColdArchiveService archive = service(dir, false, 10);
+
+		Transaction removed = archive.remove("user1", "t0");
+		assertEquals("t0", removed.getTransactionId());
+		assertNull(archive.remove("user1", "t0"));
+		assertTrue(Files.exists(segment), "one delete does not rewrite the segment");
+		assertEquals(299, archive.rows("user1").size());
+		assertFalse(archive.archivedIds("user1").contains("t0"));
+		assertEquals(299, archive.totals("user1").count());
+		assertEquals(299.0, archive.totals("user1").byCategory().get("Food"), 1e-9);
+		assertEquals(299.0, archive.dailyTotals("user1").stream().mapToDouble(ColdSegment.DailyTotal::amount).sum(), 1e-9);
+
+		// A restart reads the delete back from the log
+		assertEquals(299, service(dir, false, 10).rows("user1").size());
+
+		for (int i = 1; i < 256; i++) archive.remove("user1", "t" + i);
+		assertFalse(Files.exists(segment));
+		assertFalse(Files.exists(dir.resolve("u-user1").resolve("deleted.log")));
+		assertEquals(1, segments(dir.resolve("u-user1")));
+		assertEquals(44, archive.rows("user1").size());
+		assertEquals(44, service(dir, false, 10).totals("user1").count());
+	}
+
+	@Test
+	void evictedUsersReloadAndSharedDirFollowsTheVersionFile() throws IOException {
+		Path dir = Files.createTempDirectory("archive");
+		writeSegment(dir, "user1", 3);
+		writeSegment(dir, "user2", 5);
+		ColdArchiveService first = service(dir, true, 1);
+		ColdArchiveService second = service(dir, true, 1);
+
+		assertEquals(3, first.rows("user1").size());
+		assertEquals(5, first.rows("user2").size());
+		assertEquals(3, first.rows("user1").size());
+
+		assertEquals(3, second.rows("user1").size());
+		first.remove("user1", "t2");
+		assertEquals(2, second.rows("user1").size());
+		assertTrue(first.deleteAll("user1"));
+		assertTrue(second.rows("user1").isEmpty());
+	}
+
+	private static ColdArchiveService service(Path dir, boolean sharedDir, int maxCachedUsers) {
+		ArchiveProperties properties = new ArchiveProperties();
+		properties.setDir(dir.toString());
+		properties.setSharedDir(sharedDir);
+		properties.setMaxCachedUsers(maxCachedUsers);
+		return new ColdArchiveService(properties, null, new FinanceMetrics(new SimpleMeterRegistry()));
+	}
+
+	private static Path writeSegment(Path dir, String userId, int rows) throws IOException {
+		List<Transaction> transactions = new ArrayList<>();
+		for (int i = 0; i < rows; i++) {
+			transactions.add(TransactionFixtures.transaction(userId, "t" + i, "Cafe", "Food", START.plusDays(i % 30), 1.0));
+		}
+		Path userDir = dir.resolve("u-" + userId);
+		Files.createDirectories(userDir);
+		Path path = userDir.resolve("segment-" + START + "_" + START.plusDays(29) + "_1.col");
+		ColdSegment.write(path, transactions);
+		return path;
+	}
+
+	private static long segments(Path userDir) throws IOException {
+		try (Stream<Path> files = Files.list(userDir)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(".col")).count();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.vikas.smart.finance.managemnet.service.archive;
+
+import com.vikas.smart.finance.managemnet.model.Transaction;
+import com.vikas.smart.finance.managemnet.model.TransactionFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColdSegmentTests {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 30);
+
+	private static Transaction transaction(String id, String vendor, String category, LocalDate date, double amount) {
+		return TransactionFixtures.transaction("user1", id, vendor, category, date, amount);
+	}
+
+	@Test
+	void rowsRoundTripAndFooterHoldsDailyTotals() throws IOException {
+		List<Transaction> rows = new ArrayList<>(List.of(
+				transaction("t3", "Rent Co", "Rent", START.plusDays(2), 900.0),
+				transaction("t1", "Cafe", "Food", START, 4.5),
+				transaction("t2", null, "Food", START, -1.25),
+				transaction("t4", "Cafe", "Food", START.plusDays(2), 10.0)));
+		Path path = Files.createTempDirectory("archive").resolve("segment.col");
+
+		ColdSegment segment = ColdSegment.write(path, rows);
+		ColdSegment reopened = ColdSegment.open(path);
+
+		assertEquals(4, reopened.rowCount());
+		assertEquals(START, reopened.firstDate());
+		assertEquals(START.plusDays(2), reopened.lastDate());
+		assertEquals(Set.of("t1", "t2", "t3", "t4"), reopened.ids());
+		assertEquals(List.of(
+				new ColdSegment.DailyTotal(START, "Food", 3.25, 2),
+				new ColdSegment.DailyTotal(START.plusDays(2), "Food", 10.0, 1),
+				new ColdSegment.DailyTotal(START.plusDays(2), "Rent", 900.0, 1)), reopened.dailyTotals());
+
+		List<Transaction> decoded = reopened.rows("user1");
+		assertEquals(List.of("t1", "t2", "t3", "t4"), decoded.stream().map(Transaction::getTransactionId).toList());
+		assertNull(decoded.get(1).getVendor());
+		assertEquals(-1.25, decoded.get(1).getAmount());
+		assertEquals("Rent Co", decoded.get(2).getVendor());
+		assertEquals(segment.dailyTotals(), reopened.dailyTotals());
+	}
+
+	@Test
+	void closedSegmentStillReads() throws IOException {
+		Path path = Files.createTempDirectory("archive").resolve("segment.col");
+		ColdSegment segment = ColdSegment.write(path, List.of(transaction("t1", "Cafe", "Food", START, 4.5)));
+
+		segment.close();
+		segment.close();
+		assertEquals(Set.of("t1"), segment.ids());
+		assertEquals(4.5, segment.rows("user1").get(0).getAmount());
+		assertEquals(1, segment.rowCount());
+	}
+
+	@Test
+	void fractionalCentAmountsKeepFullPrecision() throws IOException {
+		Path path = Files.createTempDirectory("archive").resolve("segment.col");
+		ColdSegment.write(path, List.of(transaction("t1", "Fx", "Travel", START, 12.3456)));
+
+		assertEquals(12.3456, ColdSegment.open(path).rows("user1").get(0).getAmount());
+	}
+}
@@ -0,0 +1,94 @@
+package com.vikas.smart.finance.managemnet.service.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTests {
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> recovered(WriteAheadLog wal) {
+		return wal.recovered().stream().map(e -> new String(e.payload(), StandardCharsets.UTF_8)).toList();
+	}
+
+	private static long segmentCount(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(".log")).count();
+		}
+	}
+
+	@Test
+	void replaysOnlyRecordsAfterTheCheckpoint() throws IOException {
+		Path dir = Files.createTempDirectory("wal");
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 64, false)) {
+			for (int i = 1; i <= 5; i++) {
+				assertEquals(i, wal.append(bytes("tx" + i)));
+			}
+			wal.checkpoint(3);
+		}
+
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 64, false)) {
+			assertEquals(List.of("tx4", "tx5"), recovered(wal));
+			assertEquals(6, wal.append(bytes("tx6")));
+			// Three 19-byte records per segment: tx1-tx3 is gone, tx4-tx5 stays, tx6 opens a new one
+			assertEquals(2, segmentCount(dir));
+		}
+	}
+
+	@Test
+	void checkpointInsideASegmentKeepsTheRestOfIt() throws IOException {
+		Path dir = Files.createTempDirectory("wal");
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			for (int i = 1; i <= 5; i++) {
+				wal.append(bytes("tx" + i));
+			}
+			wal.checkpoint(2);
+		}
+
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			assertEquals(List.of("tx3", "tx4", "tx5"), recovered(wal));
+			assertEquals(6, wal.append(bytes("tx6")));
+		}
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			assertEquals(List.of("tx3", "tx4", "tx5", "tx6"), recovered(wal));
+		}
+	}
+
+	@Test
+	void recoveryStopsAtATornRecord() throws IOException {
+		Path dir = Files.createTempDirectory("wal");
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			wal.append(bytes("first"));
+			wal.append(bytes("second"));
+		}
+		Path segment;
+		try (Stream<Path> files = Files.list(dir)) {
+			segment = files.filter(p -> p.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+		}
+		// Flip a payload byte of the second record
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			long offset = WriteAheadLog.HEADER_BYTES + 5 + WriteAheadLog.HEADER_BYTES;
+			file.seek(offset);
+			file.write(file.read() ^ 0xFF);
+		}
+
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			assertEquals(List.of("first"), recovered(wal));
+			assertEquals(2, wal.append(bytes("again")));
+		}
+		try (WriteAheadLog wal = WriteAheadLog.open(dir, 1024, false)) {
+			assertEquals(List.of("first", "again"), recovered(wal));
+		}
+	}
+}
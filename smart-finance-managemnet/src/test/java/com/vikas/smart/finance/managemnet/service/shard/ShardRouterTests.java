@@ -0,0 +1,36 @@
+package com.vikas.smart.finance.managemnet.service.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTests {
+
+	@Test
+	void doublingMovesRowsOnlyToTheMatchingUpperShard() {
+		int[] perShard = new int[8];
+		int moved = 0;
+		for (int i = 0; i < 8000; i++) {
+			String id = UUID.nameUUIDFromBytes(("tx" + i).getBytes()).toString();
+			int before = ShardRouter.shardOf(id, 4);
+			int after = ShardRouter.shardOf(id, 8);
+			assertTrue(after == before || after == before + 4, id);
+			if (after != before) moved++;
+			perShard[after]++;
+		}
+		assertTrue(moved > 3500 && moved < 4500, "moved: " + moved);
+		for (int count : perShard) {
+			assertTrue(count > 800 && count < 1200, "shard size: " + count);
+		}
+	}
+
+	@Test
+	void shardZeroIsThePlainUserId() {
+		assertEquals("user1", ShardRouter.partition("user1", 0));
+		assertEquals("user1#3", ShardRouter.partition("user1", 3));
+		assertEquals(0, ShardRouter.shardOf("any", 1));
+		assertEquals(ShardRouter.shardOf("tx-42", 16), ShardRouter.shardOf("tx-42", 16));
+	}
+}
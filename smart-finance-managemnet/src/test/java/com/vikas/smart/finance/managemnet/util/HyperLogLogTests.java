@@ -0,0 +1,48 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTests {
+
+	@Test
+	void countsMergedDistinctValues() {
+		HyperLogLog first = new HyperLogLog(10);
+		HyperLogLog second = new HyperLogLog(10);
+		for (int i = 0; i < 5_000; i++) first.add("vendor-" + i);
+		for (int i = 2_500; i < 9_000; i++) second.add("vendor-" + i);
+		first.merge(second);
+
+		assertEquals(9_000, first.cardinality(), 9_000 * 0.1);
+	}
+
+	@Test
+	void repeatedValuesCountOnce() {
+		HyperLogLog hll = new HyperLogLog(10);
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 100; i++) hll.add("vendor-" + i);
+		}
+
+		// Linear counting keeps small cardinalities close to exact
+		assertEquals(100, hll.cardinality(), 5);
+	}
+
+	@Test
+	void emptySketchCountsZero() {
+		assertEquals(0, new HyperLogLog(10).cardinality());
+	}
+
+	@Test
+	void largeCardinalityWithinError() {
+		HyperLogLog hll = new HyperLogLog(12);
+		for (int i = 0; i < 200_000; i++) hll.add("id-" + i);
+
+		assertEquals(200_000, hll.cardinality(), 200_000 * 0.05);
+	}
+
+	@Test
+	void mergingDifferentPrecisionsFails() {
+		assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(12)));
+	}
+}
@@ -0,0 +1,41 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyIteratorsTests {
+
+	@Test
+	void concatOpensEachSourceOnlyWhenReached() {
+		List<String> opened = new ArrayList<>();
+		List<Supplier<Iterator<Integer>>> sources = List.of(
+				() -> { opened.add("a"); return List.of(1, 2).iterator(); },
+				() -> { opened.add("b"); return List.<Integer>of().iterator(); },
+				() -> { opened.add("c"); return List.of(3).iterator(); });
+
+		Iterator<Integer> all = LazyIterators.concat(sources);
+		assertTrue(opened.isEmpty());
+		assertEquals(1, (int) all.next());
+		assertEquals(List.of("a"), opened);
+		assertEquals(2, (int) all.next());
+		assertEquals(List.of("a"), opened);
+		assertEquals(3, (int) all.next());
+		assertEquals(List.of("a", "b", "c"), opened);
+		assertFalse(all.hasNext());
+	}
+
+	@Test
+	void mapNotNullSkipsNullResults() {
+		Iterator<Integer> evens = LazyIterators.mapNotNull(List.of(1, 2, 3, 4, 5).iterator(), i -> i % 2 == 0 ? i * 10 : null);
+		List<Integer> out = new ArrayList<>();
+		evens.forEachRemaining(out::add);
+		assertEquals(List.of(20, 40), out);
+		assertThrows(java.util.NoSuchElementException.class, evens::next);
+	}
+}
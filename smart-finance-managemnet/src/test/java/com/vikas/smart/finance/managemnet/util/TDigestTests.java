@@ -0,0 +1,37 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDigestTests {
+
+	@Test
+	void mergedDigestTracksExactQuantiles() {
+		Random random = new Random(42);
+		TDigest even = new TDigest(50);
+		TDigest odd = new TDigest(50);
+		double[] values = new double[20_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(random.nextGaussian());
+			(i % 2 == 0 ? even : odd).add(values[i]);
+		}
+		even.merge(odd);
+		Arrays.sort(values);
+
+		assertEquals(values.length, even.size());
+		assertEquals(values.length / 2, odd.size());
+		for (double q : new double[]{0.5, 0.9, 0.99}) {
+			double exact = values[(int) (q * values.length)];
+			assertEquals(exact, even.quantile(q), exact * 0.02, "q=" + q);
+		}
+	}
+
+	@Test
+	void emptyDigestHasNoQuantile() {
+		assertTrue(Double.isNaN(new TDigest(50).quantile(0.5)));
+	}
+}
@@ -0,0 +1,88 @@
+package com.vikas.smart.finance.managemnet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTrackerTests {
+
+	@Test
+	void exactWhileWithinCapacity() {
+		TopKTracker tracker = new TopKTracker(10);
+		tracker.add("Rent", 800);
+		tracker.add("Grocer", 40);
+		tracker.add("Cafe", 5);
+		tracker.add("Grocer", 60);
+
+		assertEquals(List.of(Map.entry("Rent", 800.0), Map.entry("Grocer", 100.0)), tracker.top(2));
+		assertEquals(3, tracker.top(10).size());
+		assertThrows(IllegalArgumentException.class, () -> tracker.top(0));
+		assertFalse(tracker.isApproximate());
+	}
+
+	@Test
+	void evictionInheritsTheSmallestWeight() {
+		TopKTracker tracker = new TopKTracker(2);
+		tracker.add("a", 10);
+		tracker.add("b", 5);
+		tracker.add("c", 1);
+
+		// c replaces b and is overestimated by b's weight
+		assertTrue(tracker.isApproximate());
+		assertEquals(List.of(Map.entry("a", 10.0), Map.entry("c", 6.0)), tracker.top(2));
+	}
+
+	@Test
+	void heavyHitterSurvivesALongTail() {
+		TopKTracker tracker = new TopKTracker(8);
+		for (int i = 0; i < 1_000; i++) {
+			tracker.add("Rent", 10);
+			tracker.add("vendor-" + i, 1);
+		}
+
+		Map.Entry<String, Double> top = tracker.top(1).get(0);
+		assertEquals("Rent", top.getKey());
+		// Space-Saving only ever overestimates
+		assertTrue(top.getValue() >= 10_000);
+	}
+
+	@Test
+	void mergeSumsWeightsAndCarriesApproximation() {
+		TopKTracker first = new TopKTracker(10);
+		first.add("Rent", 800);
+		first.add("Grocer", 40);
+		TopKTracker second = new TopKTracker(10);
+		second.add("Grocer", 60);
+		second.add("Cafe", 5);
+
+		first.merge(second);
+		assertEquals(List.of(Map.entry("Rent", 800.0), Map.entry("Grocer", 100.0), Map.entry("Cafe", 5.0)),
+				first.top(3));
+		assertFalse(first.isApproximate());
+
+		TopKTracker small = new TopKTracker(1);
+		small.add("x", 1);
+		small.add("y", 1);
+		first.merge(small);
+		assertTrue(first.isApproximate());
+	}
+
+	@Test
+	void mergeCreditsOneSidedItemsWithTheOtherMinimum() {
+		TopKTracker first = new TopKTracker(2);
+		first.add("a", 10);
+		first.add("b", 5);
+		first.add("c", 1);            // evicts b: {a=10, c=6}
+		TopKTracker second = new TopKTracker(2);
+		second.add("a", 4);
+		second.add("d", 3);
+
+		first.merge(second);
+		// second is exact, so c gains nothing; d may be one of first's evictions and gains its minimum of 6
+		assertEquals(List.of(Map.entry("a", 14.0), Map.entry("d", 9.0)), first.top(2));
+		assertTrue(first.isApproximate());
+	}
+}
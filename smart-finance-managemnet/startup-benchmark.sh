@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compare cold-start time across packaging modes.
+# Each run starts the app with spring.context.exit=onRefresh, so it exits as soon as the
+# context is up and no AWS call is made; the wall-clock time of the process is recorded.
+#
+# Build first:
+#   ./mvnw -Pcds,aot -DskipTests package         # jar, AOT classes and target/cds/application.jsa
+#   ./mvnw -Pnative -DskipTests native:compile   # optional, needs GraalVM
+#
+# Usage: ./startup-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")"
+RUNS=${1:-5}
+JAR=$(ls target/cds/*.jar 2>/dev/null | head -1 || true)
+JSA=target/cds/application.jsa
+NATIVE=target/smart-finance-management
+EXIT=-Dspring.context.exit=onRefresh
+
+if [[ -z "$JAR" ]]; then
+  echo "target/cds is missing; build with ./mvnw -Pcds,aot -DskipTests package" >&2
+  exit 1
+fi
+
+# Median and minimum wall-clock milliseconds over $RUNS runs of the given command
+measure() {
+  local samples=()
+  for ((i = 0; i < RUNS; i++)); do
+    local start end
+    start=$(date +%s%N)
+    if ! "$@" >/dev/null 2>&1; then
+      echo "failed: $*" >&2
+      return 1
+    fi
+    end=$(date +%s%N)
+    samples+=($(((end - start) / 1000000)))
+  done
+  printf '%s\n' "${samples[@]}" | sort -n | awk '{a[NR]=$1} END {printf "%8d %8d\n", a[int((NR+1)/2)], a[1]}'
+}
+
+printf '%-10s %8s %8s\n' mode median_ms min_ms
+printf '%-10s %s\n' jar "$(measure java $EXIT -jar "$JAR")"
+AOT=false
+if jar tf "$JAR" | grep -q '__BeanFactoryRegistrations.class'; then
+  AOT=true
+  printf '%-10s %s\n' aot "$(measure java $EXIT -Dspring.aot.enabled=true -jar "$JAR")"
+fi
+if [[ -f "$JSA" ]]; then
+  printf '%-10s %s\n' cds "$(measure java -XX:SharedArchiveFile=$JSA $EXIT -jar "$JAR")"
+  if $AOT; then
+    printf '%-10s %s\n' cds+aot "$(measure java -XX:SharedArchiveFile=$JSA $EXIT -Dspring.aot.enabled=true -jar "$JAR")"
+  fi
+fi
+if [[ -x "$NATIVE" ]]; then
+  printf '%-10s %s\n' native "$(measure "$NATIVE" $EXIT)"
+fi